@@ -0,0 +1,119 @@
+package com.bmw.maintenance.benchmarks;
+
+import com.bmw.maintenance.commons.serialization.BinarySerializer;
+import com.bmw.maintenance.commons.serialization.FieldPatcher;
+import com.bmw.maintenance.commons.serialization.JsonSerializer;
+import com.bmw.maintenance.commons.serialization.VersionedSchemaSerDes;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares updating one field of a stored aggregate by full decode/re-encode against
+ * patching the field in place, for both aggregate formats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AggregatePartialUpdateBenchmark {
+
+    @Param({"json", "binary"})
+    public String format;
+
+    @Param({"32", "512", "4096"})
+    public int notesLength;
+
+    private Subject<?> subject;
+
+    @Setup
+    public void setUp() {
+        MaintenanceTaskSchemaVLatest.MaintenanceTask task = new MaintenanceTaskSchemaVLatest.MaintenanceTask();
+        task.setTaskId(123_456L);
+        task.setVin("WBA3B5C50DF123456");
+        task.setType(TaskType.BRAKE_INSPECTION);
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        task.setNotes("n".repeat(notesLength));
+
+        String newNotes = "m".repeat(notesLength);
+        if (format.equals("binary")) {
+            BinarySerializer binary = new BinarySerializer();
+            subject = new Subject<>(binary, binary, task, newNotes);
+        } else {
+            JsonSerializer json = new JsonSerializer();
+            subject = new Subject<>(json, json, task, newNotes);
+        }
+    }
+
+    @Benchmark
+    public Object statusFullRoundTrip() {
+        return subject.statusFullRoundTrip();
+    }
+
+    @Benchmark
+    public Object statusPatch() {
+        return subject.statusPatch();
+    }
+
+    @Benchmark
+    public Object notesFullRoundTrip() {
+        return subject.notesFullRoundTrip();
+    }
+
+    @Benchmark
+    public Object notesPatch() {
+        return subject.notesPatch();
+    }
+
+    private static final class Subject<S> {
+        private final VersionedSchemaSerDes<S> serDes;
+        private final FieldPatcher<S> patcher;
+        private final S stored;
+        private final String newNotes;
+
+        private Subject(VersionedSchemaSerDes<S> serDes, FieldPatcher<S> patcher,
+                        MaintenanceTaskSchemaVLatest.MaintenanceTask task, String newNotes) {
+            this.serDes = serDes;
+            this.patcher = patcher;
+            this.stored = serDes.serialize(task);
+            this.newNotes = newNotes;
+        }
+
+        private S statusFullRoundTrip() {
+            MaintenanceTaskSchemaVLatest.MaintenanceTask task =
+                    (MaintenanceTaskSchemaVLatest.MaintenanceTask) serDes.deserialize(stored);
+            task.setStatus(TaskStatus.COMPLETED);
+            return serDes.serialize(task);
+        }
+
+        private S statusPatch() {
+            return patcher.patch(stored, MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_STATUS, TaskStatus.COMPLETED);
+        }
+
+        private S notesFullRoundTrip() {
+            MaintenanceTaskSchemaVLatest.MaintenanceTask task =
+                    (MaintenanceTaskSchemaVLatest.MaintenanceTask) serDes.deserialize(stored);
+            task.setNotes(newNotes);
+            return serDes.serialize(task);
+        }
+
+        private S notesPatch() {
+            return patcher.patch(stored, MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_NOTES, newNotes);
+        }
+    }
+}
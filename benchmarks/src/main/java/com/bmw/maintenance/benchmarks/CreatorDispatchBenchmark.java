@@ -0,0 +1,77 @@
+package com.bmw.maintenance.benchmarks;
+
+import com.bmw.maintenance.domain.creators.BreakInspectionCreator;
+import com.bmw.maintenance.domain.creators.DiagnosticScanCreator;
+import com.bmw.maintenance.domain.creators.OilChangeCreator;
+import com.bmw.maintenance.domain.creators.TaskCreatorRegistry;
+import com.bmw.maintenance.domain.creators.TaskDetails;
+import com.bmw.maintenance.domain.creators.TireServiceCreator;
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating a task through {@link TaskCreatorRegistry} compared with calling the creator
+ * for the type directly, which isolates the cost of the dispatch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreatorDispatchBenchmark {
+
+    @Param({"OIL_CHANGE", "BRAKE_INSPECTION", "TIRE_SERVICE", "DIAGNOSTIC_SCAN"})
+    public TaskType type;
+
+    private final OilChangeCreator oilChange = new OilChangeCreator();
+    private final BreakInspectionCreator brakeInspection = new BreakInspectionCreator();
+    private final TireServiceCreator tireService = new TireServiceCreator();
+    private final DiagnosticScanCreator diagnosticScan = new DiagnosticScanCreator();
+    private final TaskCreatorRegistry registry =
+            new TaskCreatorRegistry(List.of(oilChange, brakeInspection, tireService, diagnosticScan));
+
+    private final String vin = Fixtures.vin(1);
+    private final String notes = Fixtures.notes(64);
+    private TaskDetails details;
+
+    @Setup
+    public void setUp() {
+        details = switch (type) {
+            case OIL_CHANGE, BRAKE_INSPECTION -> new TaskDetails.None();
+            case TIRE_SERVICE -> new TireServiceCreator.Details(TirePosition.ALL, TireServiceType.TIRE_ROTATION);
+            case DIAGNOSTIC_SCAN -> new DiagnosticScanCreator.Details(List.of("P0300", "P0420"), ScannerType.ADVANCED);
+        };
+    }
+
+    @Benchmark
+    public Object registry() {
+        return registry.create(type, vin, notes, details);
+    }
+
+    @Benchmark
+    public Object direct() {
+        return switch (type) {
+            case OIL_CHANGE -> oilChange.create(vin, notes, (TaskDetails.None) details);
+            case BRAKE_INSPECTION -> brakeInspection.create(vin, notes, (TaskDetails.None) details);
+            case TIRE_SERVICE -> tireService.create(vin, notes, (TireServiceCreator.Details) details);
+            case DIAGNOSTIC_SCAN -> diagnosticScan.create(vin, notes, (DiagnosticScanCreator.Details) details);
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.bmw.maintenance.benchmarks;
+
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.serialization.BinarySerializer;
+import com.bmw.maintenance.commons.serialization.JsonSerializer;
+import com.bmw.maintenance.commons.serialization.SchemaUpcasterChain;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+import com.bmw.maintenance.persistence.MaintenanceTaskAggregateCodec;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.List;
+
+/**
+ * Test data and service components wired by hand, shared by the benchmarks.
+ */
+final class Fixtures {
+
+    private static final String NOTES_TEXT =
+            "Customer reports vibration above 80 km/h; checked wheel balance and torque, road test OK. ";
+
+    private Fixtures() {}
+
+    /**
+     * Returns a 17 character VIN that is unique for {@code n}.
+     */
+    static String vin(long n) {
+        return String.format("WBA%014d", n);
+    }
+
+    /**
+     * Returns notes text of exactly {@code length} characters.
+     */
+    static String notes(int length) {
+        StringBuilder notes = new StringBuilder(length);
+        while (notes.length() < length) {
+            notes.append(NOTES_TEXT);
+        }
+        return notes.substring(0, length);
+    }
+
+    /**
+     * Returns a new domain task of the given type.
+     */
+    static MaintenanceTask task(TaskType type, String vin, String notes) {
+        return switch (type) {
+            case OIL_CHANGE -> MaintenanceTask.createOilChange(vin, notes);
+            case BRAKE_INSPECTION -> MaintenanceTask.createBrakeInspection(vin, notes);
+            case TIRE_SERVICE -> MaintenanceTask.createTireService(vin, notes, TirePosition.ALL, TireServiceType.TIRE_ROTATION);
+            case DIAGNOSTIC_SCAN -> MaintenanceTask.createDiagnosticScan(vin, notes, List.of("P0300", "P0420"), ScannerType.ADVANCED);
+        };
+    }
+
+    /**
+     * Returns a schema object as the repository would store it.
+     */
+    static MaintenanceTaskSchemaVLatest.MaintenanceTask schema(long taskId, TaskType type, String vin, String notes) {
+        MaintenanceTaskSchemaVLatest.MaintenanceTask schema = new MaintenanceTaskSchemaVLatest.MaintenanceTask();
+        schema.setTaskId(taskId);
+        schema.setVin(vin);
+        schema.setType(type);
+        schema.setStatus(TaskStatus.IN_PROGRESS);
+        schema.setNotes(notes);
+        return schema;
+    }
+
+    /**
+     * Returns the aggregate codec writing the given format, with metrics recorded into a
+     * local registry just as the service would.
+     */
+    static MaintenanceTaskAggregateCodec codec(String format) {
+        JsonSerializer json = new JsonSerializer();
+        BinarySerializer binary = new BinarySerializer();
+        return new MaintenanceTaskAggregateCodec(json, binary, json, binary,
+                MaintenanceTaskAggregateCodec.Format.valueOf(format.toUpperCase()), metrics(),
+                SchemaUpcasterChain.latestOnly());
+    }
+
+    static MaintenanceMetrics metrics() {
+        return new MaintenanceMetrics(new SimpleMeterRegistry());
+    }
+}
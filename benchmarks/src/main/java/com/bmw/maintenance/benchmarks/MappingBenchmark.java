@@ -0,0 +1,56 @@
+package com.bmw.maintenance.benchmarks;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskMapper;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskMapperImpl;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping between the domain task and the persistence schema in both directions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({"OIL_CHANGE", "TIRE_SERVICE", "DIAGNOSTIC_SCAN"})
+    public TaskType type;
+
+    private final MaintenanceTaskMapper mapper = new MaintenanceTaskMapperImpl();
+    private MaintenanceTask task;
+    private MaintenanceTaskSchemaVLatest.MaintenanceTask schema;
+
+    @Setup
+    public void setUp() {
+        task = Fixtures.task(type, Fixtures.vin(1), Fixtures.notes(64));
+        schema = mapper.toSchema(task);
+        schema.setTaskId(1L);
+    }
+
+    @Benchmark
+    public Object toSchema() {
+        return mapper.toSchema(task);
+    }
+
+    @Benchmark
+    public Object toDomain() {
+        return mapper.toDomain(schema, 1L);
+    }
+}
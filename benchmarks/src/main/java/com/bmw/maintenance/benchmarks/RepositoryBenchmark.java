@@ -0,0 +1,109 @@
+package com.bmw.maintenance.benchmarks;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.persistence.MaintenanceTaskRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MaintenanceTaskRepository#create}, {@link MaintenanceTaskRepository#findById} and
+ * {@link MaintenanceTaskRepository#findByVin} against an H2 table holding 10k, 100k or 1M tasks.
+ * <p>
+ * The repository runs on Hibernate outside of Quarkus, see {@link RepositoryHarness} for what is
+ * replaced. Each call is its own transaction, and the aggregate cache is off, so
+ * {@code findById} always reads the row.
+ * </p>
+ * <p>
+ * Every VIN owns {@value #TASKS_PER_VIN} tasks. {@code create} inserts new rows during the
+ * measurement, so the table grows slightly beyond {@code rows} while it runs.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    static final int TASKS_PER_VIN = 4;
+    private static final int NOTES_LENGTH = 64;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final TaskType[] TYPES = TaskType.values();
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private RepositoryHarness harness;
+    private MaintenanceTaskRepository repository;
+    private String notes;
+    private long nextTask;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        harness = new RepositoryHarness("repository-benchmark", format);
+        repository = harness.repository();
+        notes = Fixtures.notes(NOTES_LENGTH);
+
+        List<MaintenanceTask> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long n = 1; n <= rows; n++) {
+            batch.add(task(n));
+            if (batch.size() == INSERT_BATCH_SIZE || n == rows) {
+                harness.inTransaction(() -> repository.createAll(batch));
+                batch.clear();
+            }
+        }
+        nextTask = rows + 1L;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        harness.close();
+    }
+
+    @Benchmark
+    public MaintenanceTask create() {
+        MaintenanceTask task = task(nextTask++);
+        return harness.inTransaction(() -> repository.create(task));
+    }
+
+    @Benchmark
+    public MaintenanceTask findById() {
+        String taskId = String.valueOf(ThreadLocalRandom.current().nextLong(1, rows + 1L));
+        return harness.inTransaction(() -> repository.findById(taskId));
+    }
+
+    @Benchmark
+    public List<MaintenanceTask> findByVin() {
+        String vin = vinFor(ThreadLocalRandom.current().nextLong(1, rows + 1L));
+        return harness.inTransaction(() -> repository.findByVin(vin));
+    }
+
+    private MaintenanceTask task(long n) {
+        return Fixtures.task(TYPES[(int) (n % TYPES.length)], vinFor(n), notes);
+    }
+
+    private String vinFor(long n) {
+        return Fixtures.vin(n % Math.max(rows / TASKS_PER_VIN, 1));
+    }
+}
@@ -0,0 +1,256 @@
+package com.bmw.maintenance.benchmarks;
+
+import com.bmw.maintenance.domaininteraction.TaskChange;
+import com.bmw.maintenance.domaininteraction.TaskDiagnosticsChange;
+import com.bmw.maintenance.domaininteraction.TaskNotesChange;
+import com.bmw.maintenance.persistence.MaintenanceTaskCache;
+import com.bmw.maintenance.persistence.MaintenanceTaskEntity;
+import com.bmw.maintenance.persistence.MaintenanceTaskPanacheRepository;
+import com.bmw.maintenance.persistence.MaintenanceTaskRepository;
+import com.bmw.maintenance.persistence.TaskIdAllocator;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskMapperImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.NotificationOptions;
+import jakarta.enterprise.util.TypeLiteral;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The service's {@link MaintenanceTaskRepository} running on a plain Hibernate
+ * {@link SessionFactory} over in-memory H2, outside of Quarkus.
+ * <p>
+ * Hibernate creates the schema from the entity mapping, so the table, its attribute columns and
+ * indexes are the ones the service uses. Only the pieces that need a running Quarkus application
+ * are replaced: the Panache calls the repository makes go to the current session, each call runs
+ * in a transaction of its own as {@code @Transactional} would give it, ids come from a counter
+ * instead of reserved blocks, and events go nowhere. The aggregate cache is disabled so every
+ * read reaches the database.
+ * </p>
+ */
+final class RepositoryHarness implements AutoCloseable {
+
+    /** Matches {@code quarkus.hibernate-orm.jdbc.statement-batch-size} of the service. */
+    private static final int STATEMENT_BATCH_SIZE = 50;
+
+    private final SessionFactory sessionFactory;
+    private final ThreadLocal<Session> session = new ThreadLocal<>();
+    private final ThreadLocal<List<Synchronization>> synchronizations = ThreadLocal.withInitial(ArrayList::new);
+    private final MaintenanceTaskRepository repository;
+
+    RepositoryHarness(String name, String format) {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(MaintenanceTaskEntity.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, "")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(STATEMENT_BATCH_SIZE))
+                .buildSessionFactory();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository = new MaintenanceTaskRepository(new MaintenanceTaskMapperImpl(), Fixtures.codec(format),
+                new SessionRepository(), new MaintenanceTaskCache(0, MaintenanceTaskCache.Eviction.W_TINY_LFU, registry),
+                new Synchronizations(), new CountingIdAllocator(), Fixtures.metrics(), new DiscardingEvent<TaskChange>(),
+                new DiscardingEvent<TaskNotesChange>(), new DiscardingEvent<TaskDiagnosticsChange>(), 0);
+    }
+
+    /**
+     * Returns the repository; its calls must be made through {@link #inTransaction}.
+     */
+    MaintenanceTaskRepository repository() {
+        return repository;
+    }
+
+    /**
+     * Runs {@code work} in a new session and transaction, committing it afterwards.
+     */
+    <T> T inTransaction(Supplier<T> work) {
+        Session current = sessionFactory.openSession();
+        session.set(current);
+        try {
+            current.beginTransaction();
+            T result = work.get();
+            current.getTransaction().commit();
+            complete(Status.STATUS_COMMITTED);
+            return result;
+        } catch (RuntimeException e) {
+            if (current.getTransaction().isActive()) {
+                current.getTransaction().rollback();
+            }
+            complete(Status.STATUS_ROLLEDBACK);
+            throw e;
+        } finally {
+            session.remove();
+            current.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        sessionFactory.close();
+    }
+
+    private void complete(int status) {
+        List<Synchronization> registered = synchronizations.get();
+        registered.forEach(synchronization -> synchronization.afterCompletion(status));
+        registered.clear();
+    }
+
+    private Session session() {
+        Session current = session.get();
+        if (current == null) {
+            throw new IllegalStateException("Repository called outside of inTransaction");
+        }
+        return current;
+    }
+
+    /**
+     * The Panache calls of the repository paths under benchmark, made on the current session.
+     */
+    private final class SessionRepository extends MaintenanceTaskPanacheRepository {
+
+        @Override
+        public EntityManager getEntityManager() {
+            return session();
+        }
+
+        @Override
+        public void persist(MaintenanceTaskEntity entity) {
+            session().persist(entity);
+        }
+
+        @Override
+        public void persist(Iterable<MaintenanceTaskEntity> entities) {
+            entities.forEach(session()::persist);
+        }
+
+        @Override
+        public void persistAndFlush(MaintenanceTaskEntity entity) {
+            session().persist(entity);
+            session().flush();
+        }
+
+        @Override
+        public void flush() {
+            session().flush();
+        }
+
+        @Override
+        public MaintenanceTaskEntity findById(Long id) {
+            return session().find(MaintenanceTaskEntity.class, id);
+        }
+
+        @Override
+        public List<MaintenanceTaskEntity> findByVin(String vin) {
+            // the query Panache generates for list("vin", vin)
+            return session().createQuery("FROM MaintenanceTaskEntity WHERE vin = ?1", MaintenanceTaskEntity.class)
+                    .setParameter(1, vin)
+                    .getResultList();
+        }
+    }
+
+    /**
+     * Runs the synchronizations the repository registers once {@link #inTransaction} completes.
+     */
+    private final class Synchronizations implements TransactionSynchronizationRegistry {
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization synchronization) {
+            synchronizations.get().add(synchronization);
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            return session();
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return Status.STATUS_ACTIVE;
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            session().getTransaction().setRollbackOnly();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return session().getTransaction().getRollbackOnly();
+        }
+    }
+
+    /**
+     * Hands out consecutive ids; reserving blocks needs {@code QuarkusTransaction} and only
+     * costs one round trip per {@code maintenance.id.block-size} creations.
+     */
+    private static final class CountingIdAllocator extends TaskIdAllocator {
+        private final AtomicLong next = new AtomicLong(1);
+
+        private CountingIdAllocator() {
+            super(null, 1);
+        }
+
+        @Override
+        public long nextId() {
+            return next.getAndIncrement();
+        }
+    }
+
+    private static final class DiscardingEvent<T> implements Event<T> {
+
+        @Override
+        public void fire(T event) {
+        }
+
+        @Override
+        public <U extends T> CompletionStage<U> fireAsync(U event) {
+            return CompletableFuture.completedFuture(event);
+        }
+
+        @Override
+        public <U extends T> CompletionStage<U> fireAsync(U event, NotificationOptions options) {
+            return CompletableFuture.completedFuture(event);
+        }
+
+        @Override
+        public Event<T> select(Annotation... qualifiers) {
+            return this;
+        }
+
+        @Override
+        public <U extends T> Event<U> select(Class<U> subtype, Annotation... qualifiers) {
+            return new DiscardingEvent<>();
+        }
+
+        @Override
+        public <U extends T> Event<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+            return new DiscardingEvent<>();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bmw.maintenance.benchmarks;
+
+import com.bmw.maintenance.commons.serialization.BinarySerializer;
+import com.bmw.maintenance.commons.serialization.JsonSerializer;
+import com.bmw.maintenance.commons.serialization.VersionedSchema;
+import com.bmw.maintenance.commons.serialization.VersionedSchemaSerDes;
+import com.bmw.maintenance.domain.enums.TaskType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full serialize and deserialize of the task aggregate in both formats, for notes from empty
+ * up to a long free-text report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"json", "binary"})
+    public String format;
+
+    @Param({"0", "64", "512", "4096"})
+    public int notesLength;
+
+    private Subject<?> subject;
+
+    @Setup
+    public void setUp() {
+        VersionedSchema schema = Fixtures.schema(123_456L, TaskType.DIAGNOSTIC_SCAN, Fixtures.vin(123_456L),
+                notesLength == 0 ? null : Fixtures.notes(notesLength));
+        subject = format.equals("binary")
+                ? new Subject<>(new BinarySerializer(), schema)
+                : new Subject<>(new JsonSerializer(), schema);
+    }
+
+    @Benchmark
+    public Object serialize() {
+        return subject.serialize();
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return subject.deserialize();
+    }
+
+    private static final class Subject<S> {
+        private final VersionedSchemaSerDes<S> serDes;
+        private final VersionedSchema schema;
+        private final S stored;
+
+        private Subject(VersionedSchemaSerDes<S> serDes, VersionedSchema schema) {
+            this.serDes = serDes;
+            this.schema = schema;
+            this.stored = serDes.serialize(schema);
+        }
+
+        private S serialize() {
+            return serDes.serialize(schema);
+        }
+
+        private VersionedSchema deserialize() {
+            return serDes.deserialize(stored);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.bmw.maintenance.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load test for the task endpoints.
+ * <p>
+ * Starts the packaged service on in-memory H2 (or uses {@code --url}), seeds tasks, and then
+ * runs one stage per arrival rate. Within a stage requests are sent on a fixed schedule
+ * regardless of how fast responses come back, with the operation for each arrival drawn from
+ * the configured mix. Each stage reports throughput, latency percentiles and error rate per
+ * operation; the full report is also written as JSON.
+ * </p>
+ */
+public final class LoadTest {
+
+    private static final String ROOT_PATH = "/maintenance-service";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        Process service = null;
+        String baseUrl = options.url();
+        if (baseUrl == null) {
+            service = start(options.jar());
+            baseUrl = "http://localhost:8080" + ROOT_PATH;
+        }
+        try {
+            run(options, baseUrl);
+        } finally {
+            if (service != null) {
+                service.destroy();
+                service.waitFor(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options, String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        awaitReady(client, baseUrl);
+
+        String tasksUrl = baseUrl + "/api/maintenance-tasks";
+        System.out.printf("Seeding %d tasks over %d VINs%n", options.seedTasks(), options.vins());
+        Workload workload = Workload.seed(client, tasksUrl, options.seedTasks(), options.vins());
+        Operation[] schedule = schedule(options.mix());
+
+        List<Stage> stages = new ArrayList<>();
+        for (int rate : options.rates()) {
+            System.out.printf("%nRate %d req/s: warmup %ds, measuring %ds%n", rate,
+                    options.warmup().toSeconds(), options.duration().toSeconds());
+            drive(client, tasksUrl, workload, schedule, rate, options.warmup(), options.maxInFlight(), null);
+            Recorder recorder = new Recorder((int) Math.min(Integer.MAX_VALUE, rate * options.duration().toSeconds()));
+            drive(client, tasksUrl, workload, schedule, rate, options.duration(), options.maxInFlight(), recorder);
+
+            Stage stage = new Stage(rate, recorder.summarize(options.duration().toNanos() / 1e9));
+            stages.add(stage);
+            print(stage);
+        }
+
+        Path report = write(options, stages);
+        System.out.printf("%nReport written to %s%n", report);
+    }
+
+    /**
+     * Sends requests at {@code rate} per second for {@code duration}, then waits for the
+     * outstanding ones.
+     */
+    private static void drive(HttpClient client, String tasksUrl, Workload workload, Operation[] schedule,
+                              int rate, Duration duration, int maxInFlight, Recorder recorder)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            if (!inFlight.tryAcquire()) {
+                if (recorder != null) {
+                    recorder.dropped(operation);
+                }
+                continue;
+            }
+            HttpRequest request = operation.request(tasksUrl, workload, random);
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - intended;
+                        inFlight.release();
+                        if (recorder == null) {
+                            return;
+                        }
+                        if (error != null) {
+                            recorder.failed(operation, latency, error);
+                        } else {
+                            recorder.completed(operation, latency, response.statusCode());
+                        }
+                    });
+        }
+
+        if (!inFlight.tryAcquire(maxInFlight, DRAIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            System.out.println("Some requests did not complete within " + DRAIN_TIMEOUT.toSeconds() + "s");
+        } else {
+            inFlight.release(maxInFlight);
+        }
+    }
+
+    /**
+     * Expands the weights into a lookup table, so drawing an operation is one random index.
+     */
+    private static Operation[] schedule(Map<Operation, Integer> mix) {
+        List<Operation> slots = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        return slots.toArray(Operation[]::new);
+    }
+
+    private static Process start(Path jar) throws IOException, InterruptedException {
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException(jar + " not found; run mvn package -DskipTests first or pass --url");
+        }
+        Path log = Files.createTempFile("maintenance-service-", ".log");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        System.out.println("Starting " + jar + " (log: " + log + ")");
+        Process process = new ProcessBuilder(java, "-jar", jar.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        Runtime.getRuntime().addShutdownHook(new Thread(process::destroy));
+        return process;
+    }
+
+    private static void awaitReady(HttpClient client, String baseUrl) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/q/health/ready")).GET().build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Service at " + baseUrl + " did not become ready within "
+                + STARTUP_TIMEOUT.toSeconds() + "s");
+    }
+
+    private static void print(Stage stage) {
+        System.out.printf(Locale.ROOT, "%-8s %9s %7s %8s %9s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "errors", "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stage.operations().forEach((operation, s) ->
+                System.out.printf(Locale.ROOT, "%-8s %9d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                        operation.shortName(), s.requests(), s.errors(), s.dropped(), s.throughput(),
+                        s.p50(), s.p90(), s.p99(), s.p999(), s.max()));
+    }
+
+    private static Path write(LoadTestOptions options, List<Stage> stages) throws IOException {
+        Files.createDirectories(options.out());
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path file = options.out().resolve("loadtest-" + timestamp + ".json");
+
+        StringJoiner stageJson = new StringJoiner(",\n", "[\n", "\n  ]");
+        for (Stage stage : stages) {
+            StringJoiner operations = new StringJoiner(",\n", "{\n", "\n      }");
+            stage.operations().forEach((operation, s) -> {
+                StringJoiner statuses = new StringJoiner(", ", "{", "}");
+                s.statuses().forEach((status, count) -> statuses.add("\"" + status + "\": " + count));
+                operations.add(String.format(Locale.ROOT,
+                        "        \"%s\": {\"requests\": %d, \"errors\": %d, \"dropped\": %d, \"errorRate\": %.6f, "
+                                + "\"throughput\": %.3f, \"latencyMs\": {\"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, "
+                                + "\"p999\": %.3f, \"max\": %.3f}, \"statuses\": %s}",
+                        operation.shortName(), s.requests(), s.errors(), s.dropped(), s.errorRate(), s.throughput(),
+                        s.p50(), s.p90(), s.p99(), s.p999(), s.max(), statuses));
+            });
+            stageJson.add("    {\"rate\": " + stage.rate() + ", \"operations\": " + operations + "}");
+        }
+
+        StringJoiner mix = new StringJoiner(", ", "{", "}");
+        options.mix().forEach((operation, weight) -> mix.add("\"" + operation.shortName() + "\": " + weight));
+        String json = "{\n"
+                + "  \"durationSeconds\": " + options.duration().toSeconds() + ",\n"
+                + "  \"warmupSeconds\": " + options.warmup().toSeconds() + ",\n"
+                + "  \"seedTasks\": " + options.seedTasks() + ",\n"
+                + "  \"vins\": " + options.vins() + ",\n"
+                + "  \"mix\": " + mix + ",\n"
+                + "  \"stages\": " + stageJson + "\n"
+                + "}\n";
+        Files.writeString(file, json);
+        return file;
+    }
+
+    private record Stage(int rate, Map<Operation, Recorder.Summary> operations) {}
+}
@@ -0,0 +1,125 @@
+package com.bmw.maintenance.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options of the load test, given as {@code --name=value}.
+ *
+ * @param url         base URL of a running service, or {@code null} to start one from {@code jar}
+ * @param jar         service jar to start
+ * @param rates       arrival rates to run, in requests per second, one stage each
+ * @param duration    measured time per stage
+ * @param warmup      unmeasured time before each stage
+ * @param mix         relative weight of each operation
+ * @param seedTasks   tasks created before the first stage for updates and reads to target
+ * @param vins        number of distinct VINs the tasks are spread over
+ * @param maxInFlight requests allowed in flight before new arrivals are dropped
+ * @param out         directory the JSON report is written to
+ */
+record LoadTestOptions(String url, Path jar, List<Integer> rates, Duration duration, Duration warmup,
+                       Map<Operation, Integer> mix, int seedTasks, int vins, int maxInFlight, Path out) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [--name=value ...]
+              --url=<base url>        use a running service, e.g. http://localhost:8080/maintenance-service
+              --jar=<path>            service to start otherwise (default service/target/quarkus-app/quarkus-run.jar)
+              --rates=<r1,r2,...>     arrival rates in requests/s, one stage each (default 50,100,200,400)
+              --duration=<time>       measured time per stage, e.g. 30s or 2m (default 30s)
+              --warmup=<time>         unmeasured time before each stage (default 10s)
+              --mix=<op=weight,...>   operation weights (default create=10,status=10,notes=10,get=50,list=20)
+              --seed=<n>              tasks created up front (default 1000)
+              --vins=<n>              distinct VINs (default 200)
+              --max-in-flight=<n>     concurrent requests before arrivals are dropped (default 1000)
+              --out=<dir>             report directory (default loadtest-results)
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        String url = null;
+        Path jar = Path.of("service", "target", "quarkus-app", "quarkus-run.jar");
+        List<Integer> rates = List.of(50, 100, 200, 400);
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(10);
+        Map<Operation, Integer> mix = parseMix("create=10,status=10,notes=10,get=50,list=20");
+        int seedTasks = 1000;
+        int vins = 200;
+        int maxInFlight = 1000;
+        Path out = Path.of("loadtest-results");
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "url" -> url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "jar" -> jar = Path.of(value);
+                case "rates" -> rates = parseRates(value);
+                case "duration" -> duration = parseDuration(value);
+                case "warmup" -> warmup = parseDuration(value);
+                case "mix" -> mix = parseMix(value);
+                case "seed" -> seedTasks = Integer.parseInt(value);
+                case "vins" -> vins = Integer.parseInt(value);
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "out" -> out = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (seedTasks < 1 || vins < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("--seed, --vins and --max-in-flight must be positive");
+        }
+        return new LoadTestOptions(url, jar, rates, duration, warmup, mix, seedTasks, vins, maxInFlight, out);
+    }
+
+    private static List<Integer> parseRates(String value) {
+        List<Integer> rates = new ArrayList<>();
+        for (String rate : value.split(",")) {
+            int parsed = Integer.parseInt(rate.trim());
+            if (parsed < 1) {
+                throw new IllegalArgumentException("Rates must be positive: " + value);
+            }
+            rates.add(parsed);
+        }
+        return List.copyOf(rates);
+    }
+
+    private static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("s")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return Duration.ofSeconds(Long.parseLong(trimmed));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected op=weight in --mix but got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights must not be negative: " + entry);
+            }
+            mix.put(Operation.byName(parts[0].trim()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+        return mix;
+    }
+}
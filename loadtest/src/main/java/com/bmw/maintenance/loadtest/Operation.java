@@ -0,0 +1,85 @@
+package com.bmw.maintenance.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Requests the load test sends, each against the task endpoints of the service.
+ */
+enum Operation {
+    CREATE("create") {
+        @Override
+        HttpRequest request(String tasksUrl, Workload workload, ThreadLocalRandom random) {
+            return json(URI.create(tasksUrl), "POST", Workload.createBody(workload.vin(random), random));
+        }
+    },
+    UPDATE_STATUS("status") {
+        @Override
+        HttpRequest request(String tasksUrl, Workload workload, ThreadLocalRandom random) {
+            String status = STATUSES[random.nextInt(STATUSES.length)];
+            return json(URI.create(tasksUrl + "/" + workload.taskId(random) + "/status"), "PUT",
+                    "{\"status\":\"" + status + "\"}");
+        }
+    },
+    UPDATE_NOTES("notes") {
+        @Override
+        HttpRequest request(String tasksUrl, Workload workload, ThreadLocalRandom random) {
+            return json(URI.create(tasksUrl + "/" + workload.taskId(random) + "/notes"), "PUT",
+                    "{\"notes\":\"" + Workload.notes(random) + "\"}");
+        }
+    },
+    GET_BY_ID("get") {
+        @Override
+        HttpRequest request(String tasksUrl, Workload workload, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(URI.create(tasksUrl + "/" + workload.taskId(random)))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        }
+    },
+    LIST_BY_VIN("list") {
+        @Override
+        HttpRequest request(String tasksUrl, Workload workload, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(URI.create(tasksUrl + "?vin=" + workload.vin(random)))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        }
+    };
+
+    private static final String[] STATUSES = {"CREATED", "IN_PROGRESS", "COMPLETED"};
+
+    private final String shortName;
+
+    Operation(String shortName) {
+        this.shortName = shortName;
+    }
+
+    /**
+     * Name used in {@code --mix} and in reports.
+     */
+    String shortName() {
+        return shortName;
+    }
+
+    abstract HttpRequest request(String tasksUrl, Workload workload, ThreadLocalRandom random);
+
+    static Operation byName(String name) {
+        for (Operation operation : values()) {
+            if (operation.shortName.equals(name.toLowerCase(Locale.ROOT))) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + name + " in --mix");
+    }
+
+    private static HttpRequest json(URI uri, String method, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
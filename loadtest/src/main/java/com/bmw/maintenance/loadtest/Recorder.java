@@ -0,0 +1,115 @@
+package com.bmw.maintenance.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the outcome of every request of one stage.
+ * <p>
+ * Latency is measured from the time the request was scheduled to be sent, not from when it
+ * was actually sent, so a stalled service shows up as latency instead of as a lower send rate.
+ * </p>
+ */
+final class Recorder {
+
+    private final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+
+    Recorder(int expectedPerOperation) {
+        for (Operation operation : Operation.values()) {
+            samples.put(operation, new Samples(expectedPerOperation));
+        }
+    }
+
+    void completed(Operation operation, long latencyNanos, int status) {
+        samples.get(operation).add(latencyNanos, status);
+    }
+
+    void failed(Operation operation, long latencyNanos, Throwable error) {
+        samples.get(operation).add(latencyNanos, -1);
+    }
+
+    void dropped(Operation operation) {
+        samples.get(operation).dropped();
+    }
+
+    /**
+     * Summarizes the stage.
+     *
+     * @param seconds measured duration of the stage
+     */
+    Map<Operation, Summary> summarize(double seconds) {
+        Map<Operation, Summary> summaries = new EnumMap<>(Operation.class);
+        samples.forEach((operation, s) -> {
+            Summary summary = s.summarize(seconds);
+            if (summary.requests() > 0 || summary.dropped() > 0) {
+                summaries.put(operation, summary);
+            }
+        });
+        return summaries;
+    }
+
+    /**
+     * Results of one operation in one stage. Latencies are in milliseconds.
+     *
+     * @param requests   requests that completed or failed
+     * @param errors     requests without a 2xx response, including connection failures
+     * @param dropped    arrivals not sent because too many requests were in flight
+     * @param throughput completed requests per second
+     * @param statuses   responses by HTTP status, {@code -1} for connection failures
+     */
+    record Summary(long requests, long errors, long dropped, double throughput,
+                   double p50, double p90, double p99, double p999, double max,
+                   Map<Integer, Long> statuses) {
+
+        double errorRate() {
+            long attempted = requests + dropped;
+            return attempted == 0 ? 0 : (double) (errors + dropped) / attempted;
+        }
+    }
+
+    private static final class Samples {
+        private long[] latencies;
+        private int size;
+        private long errors;
+        private long dropped;
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+
+        private Samples(int expected) {
+            this.latencies = new long[Math.max(expected, 16)];
+        }
+
+        private synchronized void add(long latencyNanos, int status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            statuses.merge(status, 1L, Long::sum);
+            if (status < 200 || status >= 300) {
+                errors++;
+            }
+        }
+
+        private synchronized void dropped() {
+            dropped++;
+        }
+
+        private synchronized Summary summarize(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new Summary(size, errors, dropped, size / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), size == 0 ? 0 : sorted[size - 1] / 1e6,
+                    new TreeMap<>(statuses));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bmw.maintenance.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The tasks and VINs the traffic is spread over.
+ * <p>
+ * Tasks are seeded through the batch endpoint before the first stage. Updates and reads
+ * pick uniformly among the seeded tasks and VINs, so every request hits an existing row.
+ * </p>
+ */
+final class Workload {
+
+    private static final int SEED_BATCH_SIZE = 500;
+    private static final Pattern TASK_ID = Pattern.compile("\"taskId\"\\s*:\\s*(\\d+)");
+    private static final String[] NOTES = {
+            "Checked on arrival",
+            "Customer reports vibration above 80 km/h",
+            "Parts ordered, waiting for delivery",
+            "Road test OK, ready for pickup"
+    };
+
+    private final String[] vins;
+    private final long[] taskIds;
+
+    private Workload(String[] vins, long[] taskIds) {
+        this.vins = vins;
+        this.taskIds = taskIds;
+    }
+
+    /**
+     * Creates {@code tasks} tasks spread over {@code vinCount} VINs.
+     */
+    static Workload seed(HttpClient client, String tasksUrl, int tasks, int vinCount)
+            throws IOException, InterruptedException {
+        String[] vins = new String[vinCount];
+        for (int i = 0; i < vinCount; i++) {
+            vins[i] = String.format("WBALOAD%010d", i);
+        }
+
+        long[] taskIds = new long[tasks];
+        int seeded = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (seeded < tasks) {
+            int size = Math.min(SEED_BATCH_SIZE, tasks - seeded);
+            StringJoiner body = new StringJoiner(",", "[", "]");
+            for (int i = 0; i < size; i++) {
+                body.add(createBody(vins[(seeded + i) % vinCount], random));
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(tasksUrl + "/batch"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            Matcher ids = TASK_ID.matcher(response.body());
+            while (ids.find()) {
+                taskIds[seeded++] = Long.parseLong(ids.group(1));
+            }
+        }
+        return new Workload(vins, taskIds);
+    }
+
+    String vin(ThreadLocalRandom random) {
+        return vins[random.nextInt(vins.length)];
+    }
+
+    long taskId(ThreadLocalRandom random) {
+        return taskIds[random.nextInt(taskIds.length)];
+    }
+
+    static String notes(ThreadLocalRandom random) {
+        return NOTES[random.nextInt(NOTES.length)];
+    }
+
+    /**
+     * Returns a create request body with a random task type and matching details.
+     */
+    static String createBody(String vin, ThreadLocalRandom random) {
+        String details = switch (random.nextInt(4)) {
+            case 0 -> "\"type\":\"OIL_CHANGE\"";
+            case 1 -> "\"type\":\"BRAKE_INSPECTION\"";
+            case 2 -> "\"type\":\"TIRE_SERVICE\",\"additionalDetails\":{\"tirePosition\":\"ALL\",\"tireServiceType\":\"TIRE_ROTATION\"}";
+            default -> "\"type\":\"DIAGNOSTIC_SCAN\",\"additionalDetails\":{\"scannerType\":\"ADVANCED\",\"errorCodes\":[\"P0300\",\"P0420\"]}";
+        };
+        return "{\"vin\":\"" + vin + "\"," + details + ",\"notes\":\"" + notes(random) + "\"}";
+    }
+}
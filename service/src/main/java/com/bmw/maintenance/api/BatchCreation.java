@@ -0,0 +1,72 @@
+package com.bmw.maintenance.api;
+
+import com.bmw.maintenance.api.MaintenanceTaskResource.BatchItemResult;
+import com.bmw.maintenance.api.MaintenanceTaskResource.CreateTaskRequest;
+import com.bmw.maintenance.domaininteraction.NewTask;
+import com.bmw.maintenance.domaininteraction.TaskCreationResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Per-item validation of a batch create request, shared by the blocking and reactive resources.
+ * <p>
+ * Invalid items get their result right away; the valid ones are handed to the service and
+ * their results are merged back in request order by {@link #complete(List)}.
+ * </p>
+ */
+final class BatchCreation {
+
+    private final BatchItemResult[] results;
+    private final List<NewTask> valid;
+    private final List<Integer> validIndexes;
+
+    BatchCreation(List<CreateTaskRequest> requests, Validator validator) {
+        results = new BatchItemResult[requests.size()];
+        valid = new ArrayList<>(requests.size());
+        validIndexes = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTaskRequest request = requests.get(i);
+            Set<ConstraintViolation<CreateTaskRequest>> violations = request == null ? Set.of() : validator.validate(request);
+            if (request == null || !violations.isEmpty()) {
+                results[i] = new BatchItemResult(i, null, request == null ? "Task must not be null" : describe(violations));
+                continue;
+            }
+            valid.add(new NewTask(request.vin(), request.type(), request.notes(), request.additionalDetails()));
+            validIndexes.add(i);
+        }
+    }
+
+    /**
+     * Returns the items that passed validation.
+     */
+    List<NewTask> valid() {
+        return valid;
+    }
+
+    /**
+     * Merges the service results for {@link #valid()} with the validation failures.
+     *
+     * @param created one result per valid item, in the same order
+     * @return one result per requested item, in request order
+     */
+    List<BatchItemResult> complete(List<TaskCreationResult> created) {
+        for (int i = 0; i < created.size(); i++) {
+            int index = validIndexes.get(i);
+            results[index] = new BatchItemResult(index, created.get(i).taskId(), created.get(i).error());
+        }
+        return List.of(results);
+    }
+
+    static String describe(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,553 @@
+package com.bmw.maintenance.api;
+
+import com.bmw.maintenance.commons.PreconditionFailedException;
+import com.bmw.maintenance.commons.concurrency.DatabaseBulkhead;
+import com.bmw.maintenance.commons.concurrency.DatabaseConcurrencyLimiter;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.creators.TaskDetails;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+import com.bmw.maintenance.domaininteraction.DiagnosticCodeIndex;
+import com.bmw.maintenance.domaininteraction.MaintenanceTaskPage;
+import com.bmw.maintenance.domaininteraction.MaintenanceTaskService;
+import com.bmw.maintenance.domaininteraction.TaskChange;
+import com.bmw.maintenance.domaininteraction.TaskChangeFeed;
+import com.bmw.maintenance.domaininteraction.TaskCreationResult;
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import com.bmw.maintenance.domaininteraction.TaskImportPipeline;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.quarkus.arc.NoClassInterceptors;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import lombok.NoArgsConstructor;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * REST resource for managing maintenance tasks.
+ * <p>
+ * This is the blocking variant, active unless {@code maintenance.api.mode=reactive} selects
+ * {@link ReactiveMaintenanceTaskResource} at build time.
+ * </p>
+ * <p>
+ * Requests run on virtual threads when the application is built with
+ * {@code quarkus.virtual-threads.enabled=true} and on the worker pool otherwise. On virtual threads each transaction first takes a
+ * {@link DatabaseConcurrencyLimiter} permit, so they cannot overrun the connection pool.
+ * </p>
+ */
+@UnlessBuildProperty(name = "maintenance.api.mode", stringValue = "reactive", enableIfMissing = true)
+@RunOnVirtualThread
+@DatabaseBulkhead
+@Transactional
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@ApplicationScoped
+@NoArgsConstructor
+@Path("/api/maintenance-tasks")
+public class MaintenanceTaskResource {
+
+    /** Media type for newline-delimited JSON, one task per line. */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+    static final int MAX_SEARCH_OFFSET = 10_000;
+    static final int MAX_DIAGNOSTIC_CODES = 20;
+    static final int MAX_NOTES_LENGTH = 4096;
+    static final int EXPORT_PAGE_SIZE = 500;
+
+    private MaintenanceTaskService maintenanceTaskService;
+    private TaskImportPipeline taskImport;
+    private ObjectMapper objectMapper;
+    private ObjectWriter taskWriter;
+    private Validator validator;
+    private DatabaseConcurrencyLimiter databaseLimiter;
+
+    @Inject
+    public MaintenanceTaskResource(MaintenanceTaskService maintenanceTaskService, TaskImportPipeline taskImport,
+                                   ObjectMapper objectMapper, Validator validator,
+                                   DatabaseConcurrencyLimiter databaseLimiter) {
+        this.maintenanceTaskService = maintenanceTaskService;
+        this.taskImport = taskImport;
+        this.objectMapper = objectMapper;
+        this.taskWriter = objectMapper.writerFor(MaintenanceTask.class);
+        this.validator = validator;
+        this.databaseLimiter = databaseLimiter;
+    }
+
+    /**
+     * Creates a new maintenance task.
+     *
+     * @param request request payload with task data
+     * @return HTTP 201 with created task identifier
+     */
+    @POST
+    @Path("/")
+    public Response createTask(@Valid CreateTaskRequest request) {
+        Long taskId = maintenanceTaskService.createTask(request.vin(), request.type(), request.notes(), request.additionalDetails());
+
+        return Response.status(Response.Status.CREATED).entity(taskId).build();
+    }
+
+    /**
+     * Creates several tasks in one transaction.
+     * <p>
+     * Items are validated and created individually; invalid items are reported with an error
+     * while the valid ones are still created.
+     * </p>
+     *
+     * @param requests request payloads, at most {@value #MAX_BATCH_SIZE}
+     * @return HTTP 200 with one result per item, in request order
+     */
+    @POST
+    @Path("/batch")
+    public Response createTasks(@NotEmpty @Size(max = MAX_BATCH_SIZE) List<CreateTaskRequest> requests) {
+        BatchCreation batch = new BatchCreation(requests, validator);
+        List<TaskCreationResult> created = maintenanceTaskService.createTasks(batch.valid());
+
+        return Response.ok(batch.complete(created)).build();
+    }
+
+    /**
+     * Imports tasks from newline-delimited JSON, one create request per line.
+     * <p>
+     * Lines are parsed, passed to the task creators and stored in batches by concurrent stages,
+     * so the document is never held in memory. Invalid lines are reported by line number while
+     * the valid ones are still created; each batch is committed on its own.
+     * </p>
+     * <p>
+     * A body may be at most {@code quarkus.http.limits.max-body-size}. A larger document is posted
+     * in parts split between lines, each with {@code firstLine} set to the number its first line
+     * has in the whole document, so errors are reported with the document's line numbers.
+     * </p>
+     *
+     * @param firstLine number of the body's first line in the whole document, for a document posted in parts
+     * @param body the document
+     * @return HTTP 200 with the number of imported and rejected lines and the errors per line
+     */
+    @POST
+    @Path("/import")
+    @Consumes(APPLICATION_NDJSON)
+    // batches commit on the pipeline's own thread, so the request holds no transaction or database permit
+    @NoClassInterceptors
+    public Response importNdjson(@QueryParam("firstLine") @DefaultValue("1") @Min(1) long firstLine, InputStream body) {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return Response.ok(taskImport.importTasks(lines, firstLine, TaskLineFormats.ndjsonParser(objectMapper, validator))).build();
+    }
+
+    /**
+     * Imports tasks from CSV with a header line, as written by the CSV export.
+     * <p>
+     * Processed like {@link #importNdjson(long, InputStream)}. The header must name the {@code vin}
+     * and {@code type} columns; error codes are separated by {@code ;}. Quoted fields may span
+     * lines. A document posted in parts repeats the header in every part and is split between records.
+     * </p>
+     *
+     * @param firstLine number of the first line after the header in the whole document, for a document posted in parts
+     * @param body the document
+     * @return HTTP 200 with the number of imported and rejected lines and the errors per line, or
+     *         HTTP 400 if the header is missing or invalid
+     * @throws IOException if the header cannot be read
+     */
+    @POST
+    @Path("/import")
+    @Consumes(TaskLineFormats.TEXT_CSV)
+    @NoClassInterceptors
+    public Response importCsv(@QueryParam("firstLine") @DefaultValue("2") @Min(2) long firstLine, InputStream body)
+            throws IOException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        TaskImportPipeline.LineParser parser = TaskLineFormats.csvParser(lines.readLine(), objectMapper, validator);
+        return Response.ok(taskImport.importTasks(lines, firstLine, parser)).build();
+    }
+
+    /**
+     * Updates the status of an existing task.
+     *
+     * @param taskId task identifier
+     * @param ifMatch optional ETag from a previous read; the update is rejected if the task has changed since
+     * @param request request payload with new status
+     * @return HTTP 204 with the new ETag on success, HTTP 412 if {@code If-Match} does not match
+     */
+    @PUT
+    @Path("/{taskId}/status")
+    public Response updateStatus(@PathParam("taskId") String taskId, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                 @Valid UpdateStatusRequest request) {
+        long version = maintenanceTaskService.updateTaskStatus(taskId, request.status(), expectedVersion(ifMatch));
+
+        return Response.noContent().tag(etag(version)).build();
+    }
+
+    /**
+     * Adds or updates notes for a task.
+     *
+     * @param taskId task identifier
+     * @param ifMatch optional ETag from a previous read; the update is rejected if the task has changed since
+     * @param request request payload with notes
+     * @return HTTP 204 with the new ETag on success, HTTP 412 if {@code If-Match} does not match
+     */
+    @PUT
+    @Path("/{taskId}/notes")
+    public Response updateNotes(@PathParam("taskId") String taskId, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                @Valid UpdateNotesRequest request) {
+        long version = maintenanceTaskService.addOrUpdateNotes(taskId, request.notes(), expectedVersion(ifMatch));
+
+        return Response.noContent().tag(etag(version)).build();
+    }
+
+    /**
+     * Retrieves a task by its identifier.
+     *
+     * @param taskId task identifier
+     * @return HTTP 200 with task data and its version as ETag
+     */
+    @GET
+    @Path("/{taskId}")
+    public Response getTaskById(@PathParam("taskId") String taskId) {
+        MaintenanceTask task = maintenanceTaskService.getTaskById(taskId);
+        Response.ResponseBuilder response = Response.ok(task);
+        if (task.getVersion() != null) {
+            response.tag(etag(task.getVersion()));
+        }
+        return response.build();
+    }
+
+    static EntityTag etag(long version) {
+        return new EntityTag(Long.toString(version));
+    }
+
+    /**
+     * Parses an {@code If-Match} header into the expected task version.
+     *
+     * @return the version, or {@code null} when the header is absent or {@code *}
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            // weak or malformed tags never match under If-Match's strong comparison
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version");
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version");
+        }
+    }
+
+    /**
+     * Lists tasks, optionally filtered by VIN.
+     *
+     * @param vin optional VIN filter
+     * @return HTTP 200 with list of tasks
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getAllTasks(@QueryParam("vin") String vin) {
+        return Response.ok(maintenanceTaskService.listTasks(vin)).build();
+    }
+
+    /**
+     * Lists one page of tasks, optionally filtered by VIN, type and type-specific details, ordered by id.
+     * <p>
+     * Pass the page's {@code nextCursor} as {@code after} to fetch the following page. The
+     * filters are evaluated by the database on indexed columns.
+     * </p>
+     *
+     * @param vin optional VIN filter
+     * @param type optional task type filter
+     * @param tirePosition optional tire position filter
+     * @param tireServiceType optional tire service type filter
+     * @param scannerType optional diagnostic scanner type filter
+     * @param limit optional page size, {@value #DEFAULT_PAGE_SIZE} by default
+     * @param after optional id of the last task on the previous page
+     * @return HTTP 200 with one page of tasks
+     */
+    @GET
+    @Path("/page")
+    public Response getTasksPage(@QueryParam("vin") String vin,
+                                 @QueryParam("type") TaskType type,
+                                 @QueryParam("tirePosition") TirePosition tirePosition,
+                                 @QueryParam("tireServiceType") TireServiceType tireServiceType,
+                                 @QueryParam("scannerType") ScannerType scannerType,
+                                 @QueryParam("limit") @Min(1) @Max(MAX_PAGE_SIZE) Integer limit,
+                                 @QueryParam("after") @Min(0) Long after) {
+        TaskFilter filter = new TaskFilter(blankToNull(vin), type, tirePosition, tireServiceType, scannerType);
+        MaintenanceTaskPage page = maintenanceTaskService.listTasksPage(filter, after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+        return Response.ok(new TaskPageResponse(page.tasks(), page.nextCursor())).build();
+    }
+
+    /**
+     * Searches task notes, best match first.
+     * <p>
+     * Every word of {@code q} must occur in the notes, and a quoted phrase such as
+     * {@code "rotor wear"} must occur as written. Matches are ranked from an in-memory index,
+     * so only the tasks on the requested page are read.
+     * </p>
+     *
+     * @param q words and quoted phrases to search for
+     * @param offset number of best matches to skip
+     * @param limit maximum number of tasks on the page
+     * @return HTTP 200 with one page of matching tasks and the offset of the next one
+     */
+    @GET
+    @Path("/search")
+    public Response searchTasks(@QueryParam("q") @NotBlank String q,
+                                @QueryParam("offset") @DefaultValue("0") @Min(0) @Max(MAX_SEARCH_OFFSET) int offset,
+                                @QueryParam("limit") @DefaultValue("20") @Min(1) @Max(MAX_SEARCH_PAGE_SIZE) int limit) {
+        return Response.ok(maintenanceTaskService.searchTasks(q, offset, limit)).build();
+    }
+
+    /**
+     * Finds diagnostic scans by the error codes they reported, ordered by id.
+     * <p>
+     * {@code code} may be repeated or hold comma-separated codes, matched ignoring case. With
+     * {@code match=all} a scan must have reported every code, with {@code match=any} at least
+     * one of them. Matches come from an in-memory index of the codes, so only the tasks on the
+     * requested page are read.
+     * </p>
+     *
+     * @param codes error codes to look for, e.g. {@code P0300}
+     * @param match {@code all} (default) or {@code any}
+     * @param after optional id of the last task on the previous page
+     * @param limit maximum number of tasks on the page
+     * @return HTTP 200 with one page of matching tasks, the total number of matches and the cursor of the next page
+     */
+    @GET
+    @Path("/diagnostics")
+    public Response findByDiagnosticCodes(@QueryParam("code") @NotEmpty @Size(max = MAX_DIAGNOSTIC_CODES) List<String> codes,
+                                          @QueryParam("match") @DefaultValue("all") DiagnosticCodeIndex.Match match,
+                                          @QueryParam("after") @Min(0) Long after,
+                                          @QueryParam("limit") @DefaultValue("100") @Min(1) @Max(MAX_PAGE_SIZE) int limit) {
+        return Response.ok(maintenanceTaskService.findByDiagnosticCodes(codes, match, after, limit)).build();
+    }
+
+    /**
+     * Streams all tasks as newline-delimited JSON.
+     * <p>
+     * Tasks are read in keyset pages of {@value #EXPORT_PAGE_SIZE}, each in a transaction of its
+     * own, and written before the next page is read. Memory use does not depend on the number of
+     * tasks, and neither a large table nor a slow client keeps a transaction open for long. If
+     * reading fails after the response has started, the connection is closed without ending the
+     * body, so the client sees the export as incomplete.
+     * </p>
+     *
+     * @param response the HTTP response, closed if the export fails midway
+     * @return HTTP 200 with one JSON task per line
+     */
+    @GET
+    @Produces(APPLICATION_NDJSON)
+    // written after this method returns, so each page takes its own permit and transaction
+    @NoClassInterceptors
+    public Response streamAllTasks(@Context HttpServerResponse response) {
+        return Response.ok(taskLines(null, taskWriter::writeValueAsBytes, response)).build();
+    }
+
+    /**
+     * Streams all tasks as CSV, a header line followed by one record per task.
+     * <p>
+     * Read in keyset pages like the NDJSON stream, so memory use does not depend on the number of
+     * tasks and a failure midway closes the connection instead of ending the body. Notes with line breaks are quoted and span lines. The output can be
+     * posted to {@code /import} again, in parts if it is larger than the request body limit; line
+     * breaks in notes are then read back as {@code \n}.
+     * </p>
+     *
+     * @param response the HTTP response, closed if the export fails midway
+     * @return HTTP 200 with the tasks as CSV
+     */
+    @GET
+    @Produces(TaskLineFormats.TEXT_CSV)
+    @NoClassInterceptors
+    public Response streamAllTasksAsCsv(@Context HttpServerResponse response) {
+        return Response.ok(taskLines(TaskLineFormats.CSV_HEADER,
+                task -> TaskLineFormats.csvRow(task).getBytes(StandardCharsets.UTF_8), response)).build();
+    }
+
+    /**
+     * Pushes committed task creations and status changes as Server-Sent Events.
+     * <p>
+     * Each event is one JSON {@link TaskChange}. A client that falls more than
+     * {@code maintenance.stream.buffer-size} changes behind is disconnected and should
+     * reconnect and reload the tasks it shows.
+     * </p>
+     *
+     * @param vin optional VIN filter
+     * @param type optional task type filter
+     * @param status optional filter on the status a change leaves the task in
+     * @return the matching changes as they are committed
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    // the subscription outlives this call, so it must not hold a transaction or a database permit
+    @NoClassInterceptors
+    public Multi<TaskChange> watchTasks(@QueryParam("vin") String vin, @QueryParam("type") TaskType type,
+                                        @QueryParam("status") TaskStatus status) {
+        return maintenanceTaskService.watchTasks(new TaskChangeFeed.Filter(blankToNull(vin), type, status));
+    }
+
+    /**
+     * Returns task counts per status and type, the number of open tasks and the number of
+     * vehicles with open tasks.
+     * <p>
+     * The counts are kept up to date as tasks change, so this does not read any tasks.
+     * </p>
+     *
+     * @return HTTP 200 with the counts
+     */
+    @GET
+    @Path("/statistics")
+    // answered from in-memory counters, so no transaction or database permit is needed
+    @NoClassInterceptors
+    public Response getStatistics() {
+        return Response.ok(maintenanceTaskService.getStatistics()).build();
+    }
+
+    /**
+     * Returns the number of open tasks of one vehicle.
+     *
+     * @param vin vehicle identification number
+     * @return HTTP 200 with the counts
+     */
+    @GET
+    @Path("/statistics/vehicles/{vin}")
+    @NoClassInterceptors
+    public Response getVehicleStatistics(@PathParam("vin") String vin) {
+        return Response.ok(maintenanceTaskService.getVehicleStatistics(vin)).build();
+    }
+
+    private StreamingOutput taskLines(String header, LineEncoder encoder, HttpServerResponse response) {
+        return output -> {
+            try {
+                if (header != null) {
+                    output.write((header + '\n').getBytes(StandardCharsets.UTF_8));
+                }
+                Long after = null;
+                do {
+                    Long cursor = after;
+                    MaintenanceTaskPage page = databaseLimiter.call(() -> QuarkusTransaction.requiringNew()
+                            .call(() -> maintenanceTaskService.listTasksPage(TaskFilter.NONE, cursor, EXPORT_PAGE_SIZE)));
+                    for (MaintenanceTask task : page.tasks()) {
+                        output.write(encoder.encode(task));
+                        output.write('\n');
+                    }
+                    after = page.nextCursor();
+                } while (after != null);
+                output.flush();
+            } catch (Exception e) {
+                // the status is sent already; ending the chunked body normally would pass a truncated export as complete
+                response.reset();
+                throw e instanceof IOException io ? io : new IOException("Task export failed", e);
+            }
+        };
+    }
+
+    /**
+     * Encodes one task as a line of an export, without the line terminator.
+     */
+    @FunctionalInterface
+    private interface LineEncoder {
+        byte[] encode(MaintenanceTask task) throws IOException;
+    }
+
+    static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Request payload for creating a task.
+     *
+     * @param vin vehicle identification number
+     * @param type task type
+     * @param notes optional notes
+     * @param additionalDetails type-specific details, bound to the record the creator for {@code type} declares
+     */
+    public record CreateTaskRequest(
+            @NotBlank
+            @Size(min = 17, max = 17, message = "VIN must be 17 characters")
+            String vin,
+
+            @NotNull
+            TaskType type,
+
+            @Size(max = MAX_NOTES_LENGTH, message = "Notes must be at most " + MAX_NOTES_LENGTH + " characters")
+            String notes,
+
+            @Valid
+            @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.EXTERNAL_PROPERTY, property = "type", visible = true)
+            TaskDetails additionalDetails
+    ) {}
+
+    /**
+     * Result for one item of a batch create.
+     *
+     * @param index position of the item in the request
+     * @param taskId created task identifier, or {@code null} if the item was rejected
+     * @param error reason the item was rejected, or {@code null} if it was created
+     */
+    public record BatchItemResult(int index, Long taskId, String error) {}
+
+    /**
+     * Response payload for one page of tasks.
+     *
+     * @param tasks tasks on this page
+     * @param nextCursor value for {@code after} to fetch the next page, or {@code null} on the last page
+     */
+    public record TaskPageResponse(List<MaintenanceTask> tasks, Long nextCursor) {}
+
+    /**
+     * Request payload for updating task status.
+     *
+     * @param status new task status
+     */
+    public record UpdateStatusRequest( @NotNull(message = "Status is required") TaskStatus status ) {}
+
+    /**
+     * Request payload for updating task notes.
+     *
+     * @param notes task notes
+     */
+    public record UpdateNotesRequest(
+            @NotBlank(message = "Notes cannot be blank")
+            @Size(max = MAX_NOTES_LENGTH, message = "Notes must be at most " + MAX_NOTES_LENGTH + " characters")
+            String notes
+    ) {}
+}
@@ -0,0 +1,358 @@
+package com.bmw.maintenance.api;
+
+import com.bmw.maintenance.api.MaintenanceTaskResource.CreateTaskRequest;
+import com.bmw.maintenance.api.MaintenanceTaskResource.TaskPageResponse;
+import com.bmw.maintenance.api.MaintenanceTaskResource.UpdateNotesRequest;
+import com.bmw.maintenance.api.MaintenanceTaskResource.UpdateStatusRequest;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+import com.bmw.maintenance.domaininteraction.DiagnosticCodeIndex;
+import com.bmw.maintenance.domaininteraction.ReactiveMaintenanceTaskService;
+import com.bmw.maintenance.domaininteraction.TaskChange;
+import com.bmw.maintenance.domaininteraction.TaskChangeFeed;
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import com.bmw.maintenance.domaininteraction.TaskImportPipeline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.NoArgsConstructor;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Non-blocking REST resource for managing maintenance tasks.
+ * <p>
+ * Serves the same API as {@link MaintenanceTaskResource} when built with
+ * {@code maintenance.api.mode=reactive}. Methods return {@link Uni}/{@link Multi} and run on
+ * the I/O thread; database work is handed to {@link ReactiveMaintenanceTaskService}, so a
+ * request waiting for the database does not hold a worker thread.
+ * </p>
+ */
+@IfBuildProperty(name = "maintenance.api.mode", stringValue = "reactive")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@ApplicationScoped
+@NoArgsConstructor
+@Path("/api/maintenance-tasks")
+public class ReactiveMaintenanceTaskResource {
+
+    private ReactiveMaintenanceTaskService maintenanceTaskService;
+    private TaskImportPipeline taskImport;
+    private ObjectMapper objectMapper;
+    private Validator validator;
+
+    @Inject
+    public ReactiveMaintenanceTaskResource(ReactiveMaintenanceTaskService maintenanceTaskService,
+                                           TaskImportPipeline taskImport, ObjectMapper objectMapper, Validator validator) {
+        this.maintenanceTaskService = maintenanceTaskService;
+        this.taskImport = taskImport;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Creates a new maintenance task.
+     *
+     * @param request request payload with task data
+     * @return HTTP 201 with created task identifier
+     */
+    @POST
+    @Path("/")
+    public Uni<Response> createTask(@Valid CreateTaskRequest request) {
+        return maintenanceTaskService.createTask(request.vin(), request.type(), request.notes(), request.additionalDetails())
+                .map(taskId -> Response.status(Response.Status.CREATED).entity(taskId).build());
+    }
+
+    /**
+     * Creates several tasks in one transaction, validating and reporting each item individually.
+     *
+     * @param requests request payloads, at most {@value MaintenanceTaskResource#MAX_BATCH_SIZE}
+     * @return HTTP 200 with one result per item, in request order
+     */
+    @POST
+    @Path("/batch")
+    public Uni<Response> createTasks(@NotEmpty @Size(max = MaintenanceTaskResource.MAX_BATCH_SIZE) List<CreateTaskRequest> requests) {
+        BatchCreation batch = new BatchCreation(requests, validator);
+        return maintenanceTaskService.createTasks(batch.valid())
+                .map(created -> Response.ok(batch.complete(created)).build());
+    }
+
+    /**
+     * Imports tasks from newline-delimited JSON, one create request per line.
+     * <p>
+     * The import reads the request body as it arrives and waits for its pipeline stages, so it
+     * runs on a worker thread.
+     * </p>
+     *
+     * @param firstLine number of the body's first line in the whole document, for a document posted in parts
+     * @param body the document
+     * @return HTTP 200 with the number of imported and rejected lines and the errors per line
+     * @see MaintenanceTaskResource#importNdjson(long, InputStream)
+     */
+    @POST
+    @Path("/import")
+    @Consumes(MaintenanceTaskResource.APPLICATION_NDJSON)
+    @Blocking
+    public Response importNdjson(@QueryParam("firstLine") @DefaultValue("1") @Min(1) long firstLine, InputStream body) {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return Response.ok(taskImport.importTasks(lines, firstLine, TaskLineFormats.ndjsonParser(objectMapper, validator))).build();
+    }
+
+    /**
+     * Imports tasks from CSV with a header line, on a worker thread like {@link #importNdjson(long, InputStream)}.
+     *
+     * @param firstLine number of the first line after the header in the whole document, for a document posted in parts
+     * @param body the document
+     * @return HTTP 200 with the number of imported and rejected lines and the errors per line, or
+     *         HTTP 400 if the header is missing or invalid
+     * @throws IOException if the header cannot be read
+     * @see MaintenanceTaskResource#importCsv(long, InputStream)
+     */
+    @POST
+    @Path("/import")
+    @Consumes(TaskLineFormats.TEXT_CSV)
+    @Blocking
+    public Response importCsv(@QueryParam("firstLine") @DefaultValue("2") @Min(2) long firstLine, InputStream body)
+            throws IOException {
+        BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        TaskImportPipeline.LineParser parser = TaskLineFormats.csvParser(lines.readLine(), objectMapper, validator);
+        return Response.ok(taskImport.importTasks(lines, firstLine, parser)).build();
+    }
+
+    /**
+     * Updates the status of an existing task.
+     *
+     * @param taskId task identifier
+     * @param ifMatch optional ETag from a previous read; the update is rejected if the task has changed since
+     * @param request request payload with new status
+     * @return HTTP 204 with the new ETag on success, HTTP 412 if {@code If-Match} does not match
+     */
+    @PUT
+    @Path("/{taskId}/status")
+    public Uni<Response> updateStatus(@PathParam("taskId") String taskId, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                      @Valid UpdateStatusRequest request) {
+        return Uni.createFrom().item(() -> MaintenanceTaskResource.expectedVersion(ifMatch))
+                .chain(expected -> maintenanceTaskService.updateTaskStatus(taskId, request.status(), expected))
+                .map(version -> Response.noContent().tag(MaintenanceTaskResource.etag(version)).build());
+    }
+
+    /**
+     * Adds or updates notes for a task.
+     *
+     * @param taskId task identifier
+     * @param ifMatch optional ETag from a previous read; the update is rejected if the task has changed since
+     * @param request request payload with notes
+     * @return HTTP 204 with the new ETag on success, HTTP 412 if {@code If-Match} does not match
+     */
+    @PUT
+    @Path("/{taskId}/notes")
+    public Uni<Response> updateNotes(@PathParam("taskId") String taskId, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                     @Valid UpdateNotesRequest request) {
+        return Uni.createFrom().item(() -> MaintenanceTaskResource.expectedVersion(ifMatch))
+                .chain(expected -> maintenanceTaskService.addOrUpdateNotes(taskId, request.notes(), expected))
+                .map(version -> Response.noContent().tag(MaintenanceTaskResource.etag(version)).build());
+    }
+
+    /**
+     * Retrieves a task by its identifier.
+     *
+     * @param taskId task identifier
+     * @return HTTP 200 with task data and its version as ETag
+     */
+    @GET
+    @Path("/{taskId}")
+    public Uni<Response> getTaskById(@PathParam("taskId") String taskId) {
+        return maintenanceTaskService.getTaskById(taskId).map(task -> {
+            Response.ResponseBuilder response = Response.ok(task);
+            if (task.getVersion() != null) {
+                response.tag(MaintenanceTaskResource.etag(task.getVersion()));
+            }
+            return response.build();
+        });
+    }
+
+    /**
+     * Lists tasks, optionally filtered by VIN.
+     *
+     * @param vin optional VIN filter
+     * @return HTTP 200 with list of tasks
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Response> getAllTasks(@QueryParam("vin") String vin) {
+        return maintenanceTaskService.listTasks(vin).map(tasks -> Response.ok(tasks).build());
+    }
+
+    /**
+     * Lists one page of tasks, optionally filtered by VIN, type and type-specific details, ordered by id.
+     *
+     * @param vin optional VIN filter
+     * @param type optional task type filter
+     * @param tirePosition optional tire position filter
+     * @param tireServiceType optional tire service type filter
+     * @param scannerType optional diagnostic scanner type filter
+     * @param limit optional page size
+     * @param after optional id of the last task on the previous page
+     * @return HTTP 200 with one page of tasks
+     */
+    @GET
+    @Path("/page")
+    public Uni<Response> getTasksPage(@QueryParam("vin") String vin,
+                                      @QueryParam("type") TaskType type,
+                                      @QueryParam("tirePosition") TirePosition tirePosition,
+                                      @QueryParam("tireServiceType") TireServiceType tireServiceType,
+                                      @QueryParam("scannerType") ScannerType scannerType,
+                                      @QueryParam("limit") @Min(1) @Max(MaintenanceTaskResource.MAX_PAGE_SIZE) Integer limit,
+                                      @QueryParam("after") @Min(0) Long after) {
+        TaskFilter filter = new TaskFilter(MaintenanceTaskResource.blankToNull(vin), type, tirePosition, tireServiceType, scannerType);
+        return maintenanceTaskService.listTasksPage(filter, after, limit == null ? MaintenanceTaskResource.DEFAULT_PAGE_SIZE : limit)
+                .map(page -> Response.ok(new TaskPageResponse(page.tasks(), page.nextCursor())).build());
+    }
+
+    /**
+     * Searches task notes, best match first.
+     * <p>
+     * Every word of {@code q} must occur in the notes, and a quoted phrase such as
+     * {@code "rotor wear"} must occur as written. Matches are ranked from an in-memory index,
+     * so only the tasks on the requested page are read.
+     * </p>
+     *
+     * @param q words and quoted phrases to search for
+     * @param offset number of best matches to skip
+     * @param limit maximum number of tasks on the page
+     * @return HTTP 200 with one page of matching tasks and the offset of the next one
+     */
+    @GET
+    @Path("/search")
+    public Uni<Response> searchTasks(@QueryParam("q") @NotBlank String q,
+                                     @QueryParam("offset") @DefaultValue("0") @Min(0) @Max(MaintenanceTaskResource.MAX_SEARCH_OFFSET) int offset,
+                                     @QueryParam("limit") @DefaultValue("20") @Min(1) @Max(MaintenanceTaskResource.MAX_SEARCH_PAGE_SIZE) int limit) {
+        return maintenanceTaskService.searchTasks(q, offset, limit).map(page -> Response.ok(page).build());
+    }
+
+    /**
+     * Finds diagnostic scans by the error codes they reported, ordered by id.
+     * <p>
+     * {@code code} may be repeated or hold comma-separated codes, matched ignoring case. With
+     * {@code match=all} a scan must have reported every code, with {@code match=any} at least
+     * one of them. Matches come from an in-memory index of the codes, so only the tasks on the
+     * requested page are read.
+     * </p>
+     *
+     * @param codes error codes to look for, e.g. {@code P0300}
+     * @param match {@code all} (default) or {@code any}
+     * @param after optional id of the last task on the previous page
+     * @param limit maximum number of tasks on the page
+     * @return HTTP 200 with one page of matching tasks, the total number of matches and the cursor of the next page
+     */
+    @GET
+    @Path("/diagnostics")
+    public Uni<Response> findByDiagnosticCodes(@QueryParam("code") @NotEmpty @Size(max = MaintenanceTaskResource.MAX_DIAGNOSTIC_CODES) List<String> codes,
+                                               @QueryParam("match") @DefaultValue("all") DiagnosticCodeIndex.Match match,
+                                               @QueryParam("after") @Min(0) Long after,
+                                               @QueryParam("limit") @DefaultValue("100") @Min(1) @Max(MaintenanceTaskResource.MAX_PAGE_SIZE) int limit) {
+        return maintenanceTaskService.findByDiagnosticCodes(codes, match, after, limit).map(page -> Response.ok(page).build());
+    }
+
+    /**
+     * Streams all tasks as newline-delimited JSON, reading further rows as the client consumes them.
+     *
+     * @return one JSON task per line
+     */
+    @GET
+    @Produces(MaintenanceTaskResource.APPLICATION_NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<MaintenanceTask> streamAllTasks() {
+        return maintenanceTaskService.streamAllTasks();
+    }
+
+    /**
+     * Streams all tasks as CSV, a header line followed by one record per task, reading further rows
+     * as the client consumes them.
+     *
+     * @return the header and one record per task
+     * @see MaintenanceTaskResource#streamAllTasksAsCsv
+     */
+    @GET
+    @Produces(TaskLineFormats.TEXT_CSV)
+    public Multi<String> streamAllTasksAsCsv() {
+        return Multi.createBy().concatenating().streams(
+                Multi.createFrom().item(TaskLineFormats.CSV_HEADER + '\n'),
+                maintenanceTaskService.streamAllTasks().map(task -> TaskLineFormats.csvRow(task) + '\n'));
+    }
+
+    /**
+     * Pushes committed task creations and status changes as Server-Sent Events.
+     * <p>
+     * Each event is one JSON {@link TaskChange}. A client that falls more than
+     * {@code maintenance.stream.buffer-size} changes behind is disconnected and should
+     * reconnect and reload the tasks it shows.
+     * </p>
+     *
+     * @param vin optional VIN filter
+     * @param type optional task type filter
+     * @param status optional filter on the status a change leaves the task in
+     * @return the matching changes as they are committed
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<TaskChange> watchTasks(@QueryParam("vin") String vin, @QueryParam("type") TaskType type,
+                                        @QueryParam("status") TaskStatus status) {
+        return maintenanceTaskService.watchTasks(
+                new TaskChangeFeed.Filter(MaintenanceTaskResource.blankToNull(vin), type, status));
+    }
+
+    /**
+     * Returns task counts per status and type, the number of open tasks and the number of
+     * vehicles with open tasks.
+     * <p>
+     * The counts are kept up to date as tasks change, so this does not read any tasks.
+     * </p>
+     *
+     * @return HTTP 200 with the counts
+     */
+    @GET
+    @Path("/statistics")
+    public Uni<Response> getStatistics() {
+        return maintenanceTaskService.getStatistics().map(statistics -> Response.ok(statistics).build());
+    }
+
+    /**
+     * Returns the number of open tasks of one vehicle.
+     *
+     * @param vin vehicle identification number
+     * @return HTTP 200 with the counts
+     */
+    @GET
+    @Path("/statistics/vehicles/{vin}")
+    public Uni<Response> getVehicleStatistics(@PathParam("vin") String vin) {
+        return maintenanceTaskService.getVehicleStatistics(vin).map(statistics -> Response.ok(statistics).build());
+    }
+}
@@ -0,0 +1,36 @@
+package com.bmw.maintenance.api;
+
+import com.bmw.maintenance.domain.creators.TaskCreatorRegistry;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Registers each creator's details record with Jackson under its task type name.
+ * <p>
+ * {@link MaintenanceTaskResource.CreateTaskRequest#additionalDetails()} uses the sibling
+ * {@code type} property as the type id, so the details object is bound directly into the
+ * record for that type without an intermediate map. The details object stays optional;
+ * creators that need details reject a request without them.
+ * </p>
+ */
+@Singleton
+public class TaskDetailsBinding implements ObjectMapperCustomizer {
+
+    private final TaskCreatorRegistry creators;
+
+    @Inject
+    public TaskDetailsBinding(TaskCreatorRegistry creators) {
+        this.creators = creators;
+    }
+
+    @Override
+    public void customize(ObjectMapper objectMapper) {
+        objectMapper.disable(DeserializationFeature.FAIL_ON_MISSING_EXTERNAL_TYPE_ID_PROPERTY);
+        creators.detailsTypes().forEach((type, detailsType) ->
+                objectMapper.registerSubtypes(new NamedType(detailsType, type.name())));
+    }
+}
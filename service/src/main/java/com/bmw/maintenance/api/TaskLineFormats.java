@@ -0,0 +1,245 @@
+package com.bmw.maintenance.api;
+
+import com.bmw.maintenance.api.MaintenanceTaskResource.CreateTaskRequest;
+import com.bmw.maintenance.domain.DiagnosticScanDetails;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.TireServiceDetails;
+import com.bmw.maintenance.domaininteraction.NewTask;
+import com.bmw.maintenance.domaininteraction.TaskImportPipeline.LineParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Line formats for bulk import and export, shared by the blocking and reactive resources.
+ * <p>
+ * An NDJSON import line is one {@link CreateTaskRequest}, as posted to create a single task.
+ * </p>
+ * <p>
+ * CSV is exported with the columns of {@link #CSV_COLUMNS}, diagnostic error codes joined with
+ * {@code ;}. An import names its columns in a header line, in any order; {@code vin} and
+ * {@code type} are required and columns it does not read, such as {@code taskId} and
+ * {@code status}, are ignored. Fields are quoted as in RFC 4180, so a quoted field may span
+ * lines; an import reads every line break inside it as {@code \n}. An export can therefore be
+ * imported again, with the same notes up to {@code \r\n} line breaks.
+ * </p>
+ */
+final class TaskLineFormats {
+
+    /** Media type for comma-separated values with a header line. */
+    static final String TEXT_CSV = "text/csv";
+
+    static final List<String> CSV_COLUMNS = List.of("taskId", "vin", "type", "status", "notes", "tirePosition",
+            "tireServiceType", "scannerType", "errorCodes", "version");
+    static final String CSV_HEADER = String.join(",", CSV_COLUMNS);
+
+    /** Columns an import reads, by their lower-case name. */
+    private static final Map<String, String> IMPORT_COLUMNS = Map.of(
+            "vin", "vin", "type", "type", "notes", "notes",
+            "tireposition", "tirePosition", "tireservicetype", "tireServiceType",
+            "scannertype", "scannerType", "errorcodes", "errorCodes");
+    private static final List<String> DETAIL_COLUMNS = List.of("tirePosition", "tireServiceType", "scannerType");
+
+    private TaskLineFormats() {
+    }
+
+    /**
+     * Returns a parser for NDJSON lines.
+     *
+     * @param objectMapper mapper that binds task details by type
+     * @param validator validator for the request constraints
+     * @return the parser
+     */
+    static LineParser ndjsonParser(ObjectMapper objectMapper, Validator validator) {
+        ObjectReader reader = objectMapper.readerFor(CreateTaskRequest.class);
+        return (line, text) -> {
+            try {
+                return validated(reader.readValue(text), validator);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    /**
+     * Returns a parser for the CSV records following a header.
+     *
+     * @param header the first line of the document
+     * @param objectMapper mapper that binds task details by type
+     * @param validator validator for the request constraints
+     * @return the parser
+     * @throws IllegalArgumentException if the header is missing, repeats a column or lacks {@code vin} or {@code type}
+     */
+    static LineParser csvParser(String header, ObjectMapper objectMapper, Validator validator) {
+        if (header == null || header.isBlank()) {
+            throw new IllegalArgumentException("CSV must start with a header line naming its columns");
+        }
+        // spreadsheet programs often start UTF-8 files with a byte order mark
+        List<String> names = splitCsv(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        String[] columns = new String[names.size()];
+        Map<String, Integer> seen = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = IMPORT_COLUMNS.get(names.get(i).trim().toLowerCase(Locale.ROOT));
+            if (columns[i] != null && seen.put(columns[i], i) != null) {
+                throw new IllegalArgumentException("CSV header names column " + columns[i] + " twice");
+            }
+        }
+        if (!seen.containsKey("vin") || !seen.containsKey("type")) {
+            throw new IllegalArgumentException("CSV header must name the vin and type columns");
+        }
+
+        return new LineParser() {
+            @Override
+            public NewTask parse(long line, String text) {
+                return csvRecord(splitCsv(text), columns, objectMapper, validator);
+            }
+
+            @Override
+            public boolean continues(String text, boolean continued) {
+                // an odd number of quotes opens or closes a quoted field; escaped quotes come in pairs
+                boolean inQuotes = continued;
+                for (int i = 0; i < text.length(); i++) {
+                    if (text.charAt(i) == '"') {
+                        inQuotes = !inQuotes;
+                    }
+                }
+                return inQuotes;
+            }
+        };
+    }
+
+    private static NewTask csvRecord(List<String> fields, String[] columns, ObjectMapper objectMapper, Validator validator) {
+        if (fields.size() != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " fields but found " + fields.size());
+        }
+        ObjectNode request = objectMapper.createObjectNode();
+        ObjectNode details = objectMapper.createObjectNode();
+        for (int i = 0; i < columns.length; i++) {
+            String value = fields.get(i).isEmpty() ? null : fields.get(i);
+            if (columns[i] == null || value == null) {
+                continue;
+            }
+            if (columns[i].equals("errorCodes")) {
+                ArrayNode codes = details.putArray("errorCodes");
+                for (String code : value.split(";")) {
+                    if (!code.isBlank()) {
+                        codes.add(code.trim());
+                    }
+                }
+            } else {
+                (DETAIL_COLUMNS.contains(columns[i]) ? details : request).put(columns[i], value);
+            }
+        }
+        if (!details.isEmpty()) {
+            request.set("additionalDetails", details);
+        }
+        try {
+            return validated(objectMapper.treeToValue(request, CreateTaskRequest.class), validator);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Formats a task as one CSV record with the columns of {@link #CSV_COLUMNS}, without a line terminator.
+     * <p>
+     * Notes with line breaks are quoted and keep them, so the record may span several lines.
+     * </p>
+     *
+     * @param task the task
+     * @return the record
+     */
+    static String csvRow(MaintenanceTask task) {
+        String tirePosition = null;
+        String tireServiceType = null;
+        String scannerType = null;
+        String errorCodes = null;
+        if (task.getMaintenanceDetails() instanceof TireServiceDetails tire) {
+            tirePosition = name(tire.getTirePosition());
+            tireServiceType = name(tire.getTireServiceType());
+        } else if (task.getMaintenanceDetails() instanceof DiagnosticScanDetails scan) {
+            scannerType = name(scan.getScannerType());
+            errorCodes = scan.getErrorCodes() == null ? null : String.join(";", scan.getErrorCodes());
+        }
+
+        StringBuilder row = new StringBuilder(128);
+        appendCsv(row, task.getTaskId()).append(',');
+        appendCsv(row, task.getVin()).append(',');
+        appendCsv(row, name(task.getType())).append(',');
+        appendCsv(row, name(task.getStatus())).append(',');
+        appendCsv(row, task.getNotes()).append(',');
+        appendCsv(row, tirePosition).append(',');
+        appendCsv(row, tireServiceType).append(',');
+        appendCsv(row, scannerType).append(',');
+        appendCsv(row, errorCodes).append(',');
+        return appendCsv(row, task.getVersion()).toString();
+    }
+
+    private static NewTask validated(CreateTaskRequest request, Validator validator) {
+        if (request == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        Set<ConstraintViolation<CreateTaskRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(BatchCreation.describe(violations));
+        }
+        return new NewTask(request.vin(), request.type(), request.notes(), request.additionalDetails());
+    }
+
+    private static StringBuilder appendCsv(StringBuilder row, Object value) {
+        if (value == null) {
+            return row;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return row.append(text);
+        }
+        return row.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+
+    private static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Quoted field is not closed");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String name(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+}
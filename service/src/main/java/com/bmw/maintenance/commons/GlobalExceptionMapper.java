@@ -1,6 +1,7 @@
 package com.bmw.maintenance.commons;
 
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
@@ -37,6 +38,13 @@ public class GlobalExceptionMapper implements ExceptionMapper<Exception> {
                     .build();
         }
 
+        if (exception instanceof PreconditionFailedException) {
+            return Response
+                    .status(Response.Status.PRECONDITION_FAILED)
+                    .entity(new ErrorResponse("PRECONDITION_FAILED", exception.getMessage()))
+                    .build();
+        }
+
         if (exception instanceof NotFoundException) {
             return Response
                     .status(Response.Status.NOT_FOUND)
@@ -44,6 +52,15 @@ public class GlobalExceptionMapper implements ExceptionMapper<Exception> {
                     .build();
         }
 
+        if (exception instanceof WebApplicationException webException
+                && (webException.getResponse().getStatus() < 500 || webException.getResponse().getStatus() == 503)) {
+            Response.StatusType status = webException.getResponse().getStatusInfo();
+            return Response
+                    .status(status)
+                    .entity(new ErrorResponse(status.getReasonPhrase().toUpperCase().replace(' ', '_'), exception.getMessage()))
+                    .build();
+        }
+
         return Response
                 .status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity(new ErrorResponse("INTERNAL_SERVER_ERROR", "An unexpected error occurred"))
@@ -0,0 +1,17 @@
+package com.bmw.maintenance.commons;
+
+/**
+ * Thrown when a conditional request does not match the current state of a resource,
+ * for example when an {@code If-Match} version is stale.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message human-readable description of the mismatch
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
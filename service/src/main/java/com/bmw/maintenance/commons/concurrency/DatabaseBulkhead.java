@@ -0,0 +1,21 @@
+package com.bmw.maintenance.commons.concurrency;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated methods under {@link DatabaseConcurrencyLimiter}.
+ * <p>
+ * The permit is taken outside of {@code @Transactional}, so it covers the whole time the
+ * transaction holds a connection.
+ * </p>
+ */
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface DatabaseBulkhead {
+}
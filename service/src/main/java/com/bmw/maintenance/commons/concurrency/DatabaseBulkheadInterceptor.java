@@ -0,0 +1,25 @@
+package com.bmw.maintenance.commons.concurrency;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Applies {@link DatabaseBulkhead}.
+ */
+@DatabaseBulkhead
+@Interceptor
+// before the transaction interceptor (PLATFORM_BEFORE + 200), so the permit is held for the whole transaction
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class DatabaseBulkheadInterceptor {
+
+    @Inject
+    DatabaseConcurrencyLimiter limiter;
+
+    @AroundInvoke
+    Object limit(InvocationContext context) throws Exception {
+        return limiter.call(context::proceed);
+    }
+}
@@ -0,0 +1,100 @@
+package com.bmw.maintenance.commons.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds how many virtual threads use the database at once.
+ * <p>
+ * On the worker pool the number of threads already limits concurrent transactions. Virtual
+ * threads are unbounded, so without a limit every request would queue inside the connection
+ * pool and fail there once its acquisition timeout expires. Callers on virtual threads instead
+ * wait here for one of {@code maintenance.db.max-concurrency} permits, which parks the virtual
+ * thread without pinning its carrier. Platform threads pass straight through.
+ * </p>
+ * <p>
+ * The free permits are exported as {@code maintenance.db.permits.available}, the time spent
+ * waiting as {@code maintenance.db.permit.wait} and the requests that gave up as
+ * {@code maintenance.db.permit.timeouts}.
+ * </p>
+ */
+@ApplicationScoped
+public class DatabaseConcurrencyLimiter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final Timer waits;
+    private final Counter timeouts;
+
+    @Inject
+    public DatabaseConcurrencyLimiter(MeterRegistry registry,
+                                      @ConfigProperty(name = "maintenance.db.max-concurrency", defaultValue = "20") int maxConcurrency,
+                                      @ConfigProperty(name = "maintenance.db.acquire-timeout", defaultValue = "PT30S") Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.waits = Timer.builder("maintenance.db.permit.wait")
+                .description("Time virtual threads waited for a database permit")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.timeouts = Counter.builder("maintenance.db.permit.timeouts")
+                .description("Requests that gave up waiting for a database permit")
+                .register(registry);
+        Gauge.builder("maintenance.db.permits.available", permits, Semaphore::availablePermits)
+                .description("Database permits currently free")
+                .register(registry);
+    }
+
+    /**
+     * Runs {@code call} while holding a permit if the current thread is virtual.
+     *
+     * @param call the database work
+     * @return the result of {@code call}
+     * @throws ServiceUnavailableException if no permit became free within {@code maintenance.db.acquire-timeout}
+     */
+    public <T> T call(Callable<T> call) throws Exception {
+        if (!Thread.currentThread().isVirtual()) {
+            return call.call();
+        }
+        long start = System.nanoTime();
+        boolean acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        waits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            timeouts.increment();
+            throw new ServiceUnavailableException("Database is busy, try again later");
+        }
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs {@code work} while holding a permit if the current thread is virtual.
+     *
+     * @param work the database work
+     */
+    public void run(Runnable work) {
+        try {
+            call(() -> {
+                work.run();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.bmw.maintenance.commons.metrics;
+
+import com.bmw.maintenance.domain.enums.TaskType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency and throughput metrics for the task pipeline, exported at {@code /q/metrics}.
+ * <p>
+ * Every stage of a create, update or read is timed as {@value #STAGE_TIMER}, tagged with
+ * the operation, the stage, the {@link TaskType} and the outcome. The timers publish
+ * histogram buckets so p50/p99 per stage can be computed on the Prometheus side.
+ * </p>
+ * <p>
+ * Serializer and repository calls are also counted, the serializer ones together with the
+ * number of bytes they produced or consumed.
+ * </p>
+ * <p>
+ * Meters are looked up once per tag combination and then reused, so recording a sample does
+ * not go through the registry.
+ * </p>
+ */
+@ApplicationScoped
+public class MaintenanceMetrics {
+
+    public static final String STAGE_TIMER = "maintenance.task.stage";
+    public static final String SERIALIZER_OPERATIONS = "maintenance.serializer.operations";
+    public static final String SERIALIZER_BYTES = "maintenance.serializer.bytes";
+    public static final String REPOSITORY_OPERATIONS = "maintenance.repository.operations";
+
+    /** Tag value used when the task type is not known, e.g. when the task was not found. */
+    public static final String UNKNOWN_TYPE = "UNKNOWN";
+    /** Tag value used for stages that cover tasks of several types at once. */
+    public static final String MIXED_TYPE = "MIXED";
+
+    /**
+     * Top-level operations of the pipeline.
+     */
+    public enum Operation {
+        CREATE, CREATE_BATCH, IMPORT, UPDATE_STATUS, UPDATE_NOTES, READ;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Stages an operation goes through.
+     */
+    public enum Stage {
+        /** {@code TaskCreator.create}. */
+        CREATOR,
+        /** Mapping between domain and schema objects. */
+        MAP,
+        /** Encoding the aggregate. */
+        SERIALIZE,
+        /** Decoding the aggregate. */
+        DESERIALIZE,
+        /** Patching one field of the stored aggregate. */
+        PATCH,
+        /** Aggregate cache lookup. */
+        CACHE,
+        /** Loading the row. */
+        LOAD,
+        /** Inserting new rows. */
+        PERSIST,
+        /** Flushing an update. */
+        FLUSH,
+        /** Applying logged events on top of a snapshot. */
+        REPLAY,
+        /** Writing a new snapshot of the event log. */
+        SNAPSHOT;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private record StageKey(Operation operation, Stage stage, String type, boolean success) {}
+
+    private record CountKey(String name, String operation, String qualifier, boolean success) {}
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<StageKey, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CountKey, Counter> counters = new ConcurrentHashMap<>();
+
+    @Inject
+    public MaintenanceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Starts timing a stage.
+     *
+     * @return the start time to pass to {@link #stage}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the time since {@code start} for one stage.
+     *
+     * @param start     value returned by {@link #start()}
+     * @param operation the operation the stage belongs to
+     * @param stage     the stage
+     * @param type      the task type, or {@code null} if unknown
+     * @param success   whether the stage completed normally
+     */
+    public void stage(long start, Operation operation, Stage stage, TaskType type, boolean success) {
+        stage(start, operation, stage, type == null ? UNKNOWN_TYPE : type.name(), success);
+    }
+
+    /**
+     * Records the time since {@code start} for one stage.
+     *
+     * @param start     value returned by {@link #start()}
+     * @param operation the operation the stage belongs to
+     * @param stage     the stage
+     * @param type      the task type tag
+     * @param success   whether the stage completed normally
+     */
+    public void stage(long start, Operation operation, Stage stage, String type, boolean success) {
+        record(System.nanoTime() - start, operation, stage, type, success);
+    }
+
+    /**
+     * Records an already measured duration for one stage, for stages whose task type is only
+     * known after they finish.
+     *
+     * @param nanos     duration in nanoseconds
+     * @param operation the operation the stage belongs to
+     * @param stage     the stage
+     * @param type      the task type, or {@code null} if unknown
+     * @param success   whether the stage completed normally
+     */
+    public void record(long nanos, Operation operation, Stage stage, TaskType type, boolean success) {
+        record(nanos, operation, stage, type == null ? UNKNOWN_TYPE : type.name(), success);
+    }
+
+    private void record(long nanos, Operation operation, Stage stage, String type, boolean success) {
+        timers.computeIfAbsent(new StageKey(operation, stage, type, success), this::timer)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs one stage and records its duration, with a failure outcome if it throws.
+     *
+     * @param operation the operation the stage belongs to
+     * @param stage     the stage
+     * @param type      the task type, or {@code null} if unknown
+     * @param step      the stage itself
+     * @return the result of {@code step}
+     */
+    public <T> T time(Operation operation, Stage stage, TaskType type, Supplier<T> step) {
+        long start = start();
+        boolean success = false;
+        try {
+            T result = step.get();
+            success = true;
+            return result;
+        } finally {
+            stage(start, operation, stage, type, success);
+        }
+    }
+
+    /**
+     * Runs one stage that returns nothing and records its duration.
+     *
+     * @param operation the operation the stage belongs to
+     * @param stage     the stage
+     * @param type      the task type, or {@code null} if unknown
+     * @param step      the stage itself
+     */
+    public void run(Operation operation, Stage stage, TaskType type, Runnable step) {
+        run(operation, stage, type == null ? UNKNOWN_TYPE : type.name(), step);
+    }
+
+    /**
+     * Runs one stage that returns nothing and records its duration.
+     *
+     * @param operation the operation the stage belongs to
+     * @param stage     the stage
+     * @param type      the task type tag
+     * @param step      the stage itself
+     */
+    public void run(Operation operation, Stage stage, String type, Runnable step) {
+        long start = start();
+        boolean success = false;
+        try {
+            step.run();
+            success = true;
+        } finally {
+            stage(start, operation, stage, type, success);
+        }
+    }
+
+    /**
+     * Counts one serializer call.
+     *
+     * @param format    the aggregate format, e.g. {@code json}
+     * @param operation {@code serialize}, {@code deserialize}, {@code patch} or {@code peek}
+     * @param bytes     size of the aggregate produced or read
+     */
+    public void serializer(String format, String operation, long bytes) {
+        counters.computeIfAbsent(new CountKey(SERIALIZER_OPERATIONS, operation, format, true), this::counter).increment();
+        counters.computeIfAbsent(new CountKey(SERIALIZER_BYTES, operation, format, true), this::counter).increment(bytes);
+    }
+
+    /**
+     * Counts one repository call.
+     *
+     * @param operation the repository method, e.g. {@code create}
+     * @param success   whether the call completed normally
+     */
+    public void repository(String operation, boolean success) {
+        counters.computeIfAbsent(new CountKey(REPOSITORY_OPERATIONS, operation, null, success), this::counter).increment();
+    }
+
+    private Timer timer(StageKey key) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in one stage of a maintenance task operation")
+                .tag("operation", key.operation().tag)
+                .tag("stage", key.stage().tag)
+                .tag("type", key.type())
+                .tag("outcome", outcome(key.success()))
+                .publishPercentileHistogram()
+                // bound the buckets to the range a stage can plausibly take
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+
+    private Counter counter(CountKey key) {
+        Counter.Builder builder = Counter.builder(key.name()).tag("operation", key.operation());
+        if (key.qualifier() != null) {
+            builder.tag("format", key.qualifier());
+        }
+        if (key.name().equals(SERIALIZER_BYTES)) {
+            builder.baseUnit("bytes");
+        }
+        if (key.name().equals(REPOSITORY_OPERATIONS)) {
+            builder.tag("outcome", outcome(key.success()));
+        }
+        return builder.register(registry);
+    }
+
+    private static String outcome(boolean success) {
+        return success ? "success" : "failure";
+    }
+}
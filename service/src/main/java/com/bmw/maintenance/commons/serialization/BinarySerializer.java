@@ -0,0 +1,399 @@
+package com.bmw.maintenance.commons.serialization;
+
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary implementation of {@link VersionedSchemaSerDes}.
+ * <p>
+ * Encodes {@link MaintenanceTaskSchemaVLatest.MaintenanceTask} without reflection using the layout
+ * </p>
+ * <pre>
+ * marker(1) | schemaVersion(varint) | type(1) | status(1) | taskId(varint) | vin(string) | details | notes(string)
+ * </pre>
+ * <p>
+ * Enums are stored as {@code ordinal + 1} and ids as {@code id + 1} so that {@code 0} means {@code null}.
+ * Strings are UTF-8 prefixed with {@code length + 1} as a varint, again with {@code 0} for {@code null},
+ * and lists of strings likewise with their {@code size + 1}.
+ * The fixed-width fields come first so they sit at the same offset in every record.
+ * </p>
+ * <p>
+ * The details start with one byte naming their kind, {@code 0} for none. A diagnostic scan
+ * continues with {@code scannerType(1) | errorCodes(list)}, a tire service with
+ * {@code tirePosition(1) | tireServiceType(1)}.
+ * </p>
+ * <p>
+ * This layout lets {@link #patch(byte[], String, Object)} rewrite the status by overwriting one
+ * byte and the notes by replacing the tail of the record, without decoding anything else, and
+ * {@link #peek(byte[], String)} read the type or status from their fixed offsets. Both only
+ * accept the latest schema version.
+ * </p>
+ * <p>
+ * Records of an older schema version are decoded and then migrated through
+ * {@link SchemaUpcasterChain}. Version 1 records have no details; a version that changes the
+ * layout must branch on the version while decoding.
+ * </p>
+ */
+@ApplicationScoped
+public class BinarySerializer implements VersionedSchemaSerDes<byte[]>, FieldPatcher<byte[]> {
+
+    /** First byte of every binary aggregate; JSON aggregates always start with {@code '{'}. */
+    public static final byte FORMAT_MARKER = (byte) 0xB1;
+
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final TaskStatus[] TASK_STATUSES = TaskStatus.values();
+    private static final ScannerType[] SCANNER_TYPES = ScannerType.values();
+    private static final TirePosition[] TIRE_POSITIONS = TirePosition.values();
+    private static final TireServiceType[] TIRE_SERVICE_TYPES = TireServiceType.values();
+
+    private static final int NO_DETAILS = 0;
+    private static final int DIAGNOSTIC_SCAN_DETAILS = 1;
+    private static final int TIRE_SERVICE_DETAILS = 2;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SchemaUpcasterChain upcasters;
+
+    public BinarySerializer() {
+        this(SchemaUpcasterChain.latestOnly());
+    }
+
+    @Inject
+    public BinarySerializer(SchemaUpcasterChain upcasters) {
+        this.upcasters = upcasters;
+    }
+
+    @Override
+    public byte[] serialize(VersionedSchema schema) {
+        if (!(schema instanceof MaintenanceTaskSchemaVLatest.MaintenanceTask task)) {
+            throw new IllegalArgumentException("Unsupported schema type " + schema.getClass().getName());
+        }
+
+        byte[] vin = utf8(task.getVin());
+        byte[] notes = utf8(task.getNotes());
+        long taskId = task.getTaskId() == null ? 0L : task.getTaskId() + 1;
+
+        MaintenanceTaskSchemaVLatest.DiagnosticScan scan = task.getDiagnosticScan();
+        MaintenanceTaskSchemaVLatest.TireService tire = scan == null ? task.getTireService() : null;
+        byte[][] errorCodes = scan == null ? null : utf8(scan.getErrorCodes());
+
+        int size = 1 + varintSize(task.schemaVersion()) + 2 + varintSize(taskId) + stringSize(vin)
+                + 1 + (scan == null ? 0 : 1 + listSize(errorCodes)) + (tire == null ? 0 : 2) + stringSize(notes);
+        Writer out = new Writer(size);
+        out.writeByte(FORMAT_MARKER);
+        out.writeVarint(task.schemaVersion());
+        out.writeByte(task.getType() == null ? 0 : task.getType().ordinal() + 1);
+        out.writeByte(task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1);
+        out.writeVarint(taskId);
+        out.writeString(vin);
+        if (scan != null) {
+            out.writeByte(DIAGNOSTIC_SCAN_DETAILS);
+            out.writeByte(ordinal(scan.getScannerType()));
+            out.writeList(errorCodes);
+        } else if (tire != null) {
+            out.writeByte(TIRE_SERVICE_DETAILS);
+            out.writeByte(ordinal(tire.getTirePosition()));
+            out.writeByte(ordinal(tire.getTireServiceType()));
+        } else {
+            out.writeByte(NO_DETAILS);
+        }
+        out.writeString(notes);
+        return out.buffer;
+    }
+
+    @Override
+    public VersionedSchema deserialize(byte[] data) {
+        try {
+            Reader in = new Reader(data);
+            if (in.readByte() != FORMAT_MARKER) {
+                throw new IllegalArgumentException("Missing binary aggregate marker");
+            }
+            int version = (int) in.readVarint();
+            boolean latest = upcasters.isLatest(version);
+
+            MaintenanceTaskSchemaVLatest.MaintenanceTask task = new MaintenanceTaskSchemaVLatest.MaintenanceTask();
+            int type = in.readByte() & 0xFF;
+            task.setType(type == 0 ? null : TASK_TYPES[type - 1]);
+            int status = in.readByte() & 0xFF;
+            task.setStatus(status == 0 ? null : TASK_STATUSES[status - 1]);
+            long taskId = in.readVarint();
+            task.setTaskId(taskId == 0 ? null : taskId - 1);
+            task.setVin(in.readString());
+            if (version > 1) {
+                readDetails(in, task);
+            }
+            task.setNotes(in.readString());
+            if (latest) {
+                return task;
+            }
+            ObjectNode document = objectMapper.valueToTree(task);
+            return objectMapper.treeToValue(upcasters.upcast(document, version), MaintenanceTaskSchemaVLatest.MaintenanceTask.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to deserialize binary aggregate", e);
+        }
+    }
+
+    @Override
+    public int version(byte[] data) {
+        Reader in = new Reader(data);
+        if (in.readByte() != FORMAT_MARKER) {
+            throw new IllegalArgumentException("Missing binary aggregate marker");
+        }
+        return (int) in.readVarint();
+    }
+
+    @Override
+    public byte[] patch(byte[] data, String field, Object value) {
+        Reader in = new Reader(data);
+        if (in.readByte() != FORMAT_MARKER || in.readVarint() != upcasters.latestVersion()) {
+            throw new IllegalArgumentException("Not a current-version binary aggregate");
+        }
+        int statusOffset = in.position + 1;
+
+        switch (field) {
+            case MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_STATUS -> {
+                if (value != null && !(value instanceof TaskStatus)) {
+                    throw new IllegalArgumentException("Status must be a TaskStatus");
+                }
+                byte[] patched = data.clone();
+                patched[statusOffset] = (byte) (value == null ? 0 : ((TaskStatus) value).ordinal() + 1);
+                return patched;
+            }
+            case MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_NOTES -> {
+                if (value != null && !(value instanceof String)) {
+                    throw new IllegalArgumentException("Notes must be a String");
+                }
+                // notes are the last field: keep everything before them and append the new value
+                in.position = statusOffset + 1;
+                in.readVarint();
+                in.skipString();
+                skipDetails(in);
+                int notesOffset = in.position;
+
+                byte[] notes = utf8((String) value);
+                Writer out = new Writer(notesOffset + stringSize(notes));
+                System.arraycopy(data, 0, out.buffer, 0, notesOffset);
+                out.position = notesOffset;
+                out.writeString(notes);
+                return out.buffer;
+            }
+            default -> throw new IllegalArgumentException("Field " + field + " cannot be patched in the binary format");
+        }
+    }
+
+    @Override
+    public String peek(byte[] data, String field) {
+        Reader in = new Reader(data);
+        if (in.readByte() != FORMAT_MARKER || in.readVarint() != upcasters.latestVersion()) {
+            throw new IllegalArgumentException("Not a current-version binary aggregate");
+        }
+        int typeOffset = in.position;
+
+        return switch (field) {
+            case MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_TYPE -> {
+                int type = data[typeOffset] & 0xFF;
+                yield type == 0 ? null : TASK_TYPES[type - 1].name();
+            }
+            case MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_STATUS -> {
+                int status = data[typeOffset + 1] & 0xFF;
+                yield status == 0 ? null : TASK_STATUSES[status - 1].name();
+            }
+            default -> throw new IllegalArgumentException("Field " + field + " cannot be read in the binary format");
+        };
+    }
+
+    private static void readDetails(Reader in, MaintenanceTaskSchemaVLatest.MaintenanceTask task) {
+        int kind = in.readByte() & 0xFF;
+        switch (kind) {
+            case NO_DETAILS -> { }
+            case DIAGNOSTIC_SCAN_DETAILS -> {
+                int scanner = in.readByte() & 0xFF;
+                List<String> errorCodes = in.readList();
+                task.setDiagnosticScan(new MaintenanceTaskSchemaVLatest.DiagnosticScan(
+                        errorCodes, scanner == 0 ? null : SCANNER_TYPES[scanner - 1]));
+            }
+            case TIRE_SERVICE_DETAILS -> {
+                int position = in.readByte() & 0xFF;
+                int service = in.readByte() & 0xFF;
+                task.setTireService(new MaintenanceTaskSchemaVLatest.TireService(
+                        position == 0 ? null : TIRE_POSITIONS[position - 1],
+                        service == 0 ? null : TIRE_SERVICE_TYPES[service - 1]));
+            }
+            default -> throw new IllegalArgumentException("Unknown details kind " + kind);
+        }
+    }
+
+    private static void skipDetails(Reader in) {
+        int kind = in.readByte() & 0xFF;
+        switch (kind) {
+            case NO_DETAILS -> { }
+            case DIAGNOSTIC_SCAN_DETAILS -> {
+                in.readByte();
+                in.skipList();
+            }
+            case TIRE_SERVICE_DETAILS -> in.position += 2;
+            default -> throw new IllegalArgumentException("Unknown details kind " + kind);
+        }
+    }
+
+    private static int ordinal(Enum<?> value) {
+        return value == null ? 0 : value.ordinal() + 1;
+    }
+
+    private static byte[][] utf8(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        byte[][] encoded = new byte[values.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = utf8(values.get(i));
+        }
+        return encoded;
+    }
+
+    private static int listSize(byte[][] values) {
+        if (values == null) {
+            return 1;
+        }
+        int size = varintSize(values.length + 1L);
+        for (byte[] value : values) {
+            size += stringSize(value);
+        }
+        return size;
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        int length = value == null ? 0 : value.length + 1;
+        return varintSize(length) + (value == null ? 0 : value.length);
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Writer {
+        private final byte[] buffer;
+        private int position;
+
+        private Writer(int size) {
+            this.buffer = new byte[size];
+        }
+
+        private void writeByte(int value) {
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeString(byte[] value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            writeVarint(value.length + 1L);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+
+        private void writeList(byte[][] values) {
+            if (values == null) {
+                writeVarint(0);
+                return;
+            }
+            writeVarint(values.length + 1L);
+            for (byte[] value : values) {
+                writeString(value);
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private byte readByte() {
+            return buffer[position++];
+        }
+
+        private long readVarint() {
+            long result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Malformed varint");
+                }
+                b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return result;
+        }
+
+        private void skipString() {
+            int length = (int) readVarint();
+            if (length > 0) {
+                position += length - 1;
+            }
+        }
+
+        private void skipList() {
+            int size = (int) readVarint();
+            for (int i = 1; i < size; i++) {
+                skipString();
+            }
+        }
+
+        private List<String> readList() {
+            int size = (int) readVarint();
+            if (size == 0) {
+                return null;
+            }
+            List<String> values = new ArrayList<>(size - 1);
+            for (int i = 1; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        private String readString() {
+            int length = (int) readVarint();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+    }
+}
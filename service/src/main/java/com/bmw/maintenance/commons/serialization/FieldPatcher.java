@@ -0,0 +1,30 @@
+package com.bmw.maintenance.commons.serialization;
+
+/**
+ * Reads or rewrites a single field of a serialized schema object without decoding the rest of it.
+ *
+ * @param <S> the type of the serialized representation (e.g., String, byte[], etc.)
+ */
+public interface FieldPatcher<S> {
+
+    /**
+     * Returns a copy of the serialized data with one top-level field replaced.
+     *
+     * @param data  the serialized schema object
+     * @param field the name of the field to replace
+     * @param value the new value; {@code null}, a {@link String} or an {@link Enum}
+     * @return the serialized data with the field replaced
+     * @throws IllegalArgumentException if the field cannot be patched in this format
+     */
+    S patch(S data, String field, Object value);
+
+    /**
+     * Reads one top-level field from the serialized data.
+     *
+     * @param data  the serialized schema object
+     * @param field the name of the field to read
+     * @return the field as text (enums by name), or {@code null} if it is absent or null
+     * @throws IllegalArgumentException if the field cannot be read in this format
+     */
+    String peek(S data, String field);
+}
@@ -0,0 +1,156 @@
+package com.bmw.maintenance.commons.serialization;
+
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * JSON-based implementation of {@link VersionedSchemaSerDes}.
+ * <p>
+ * Serializes and deserializes {@link VersionedSchema} objects to and from JSON strings
+ * using Jackson's {@link ObjectMapper}.
+ * </p>
+ * <p>
+ * Aggregates are written with their {@value SchemaUpcasterChain#VERSION_FIELD} as the first
+ * field. On read the version is checked with a streaming peek: documents at the latest version
+ * are bound directly, older ones are migrated as a tree through {@link SchemaUpcasterChain}
+ * first. Documents without a version predate it and are version 1.
+ * </p>
+ * <p>
+ * Single fields are patched with a streaming token copy, which never binds the document
+ * to an object.
+ * </p>
+ */
+@ApplicationScoped
+public class JsonSerializer implements VersionedSchemaSerDes<String>, FieldPatcher<String> {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final SchemaUpcasterChain upcasters;
+
+    public JsonSerializer() {
+        this(SchemaUpcasterChain.latestOnly());
+    }
+
+    @Inject
+    public JsonSerializer(SchemaUpcasterChain upcasters) {
+        this.upcasters = upcasters;
+    }
+
+    @Override
+    public String serialize(VersionedSchema schema) {
+        try {
+            return objectMapper.writeValueAsString(schema);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize object to JSON", e);
+        }
+    }
+
+    @Override
+    public VersionedSchema deserialize(String data) {
+        int version = version(data);
+        try {
+            if (upcasters.isLatest(version)) {
+                return objectMapper.readValue(data, MaintenanceTaskSchemaVLatest.MaintenanceTask.class);
+            }
+            ObjectNode document = (ObjectNode) objectMapper.readTree(data);
+            return objectMapper.treeToValue(upcasters.upcast(document, version), MaintenanceTaskSchemaVLatest.MaintenanceTask.class);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to deserialize JSON to object", e);
+        }
+    }
+
+    @Override
+    public String patch(String data, String field, Object value) {
+        StringWriter out = new StringWriter(data.length() + 16);
+        try (JsonParser parser = objectMapper.createParser(data);
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Aggregate is not a JSON object");
+            }
+            generator.writeStartObject();
+            boolean replaced = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                generator.writeFieldName(name);
+                if (!replaced && name.equals(field)) {
+                    writeValue(generator, value);
+                    parser.skipChildren();
+                    replaced = true;
+                } else {
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+            if (!replaced) {
+                generator.writeFieldName(field);
+                writeValue(generator, value);
+            }
+            generator.writeEndObject();
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to patch JSON field " + field, e);
+        }
+        return out.toString();
+    }
+
+    @Override
+    public String peek(String data, String field) {
+        try (JsonParser parser = objectMapper.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Aggregate is not a JSON object");
+            }
+            // stop at the field instead of tokenizing the whole document
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (name.equals(field)) {
+                    return value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read JSON field " + field, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Documents without a version field are {@link SchemaUpcasterChain#FIRST_VERSION}.
+     * </p>
+     */
+    @Override
+    public int version(String data) {
+        String version = peek(data, SchemaUpcasterChain.VERSION_FIELD);
+        try {
+            return version == null ? SchemaUpcasterChain.FIRST_VERSION : Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed schema version " + version, e);
+        }
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Enum<?> e) {
+            generator.writeString(e.name());
+        } else if (value instanceof String s) {
+            generator.writeString(s);
+        } else {
+            throw new IllegalArgumentException("Unsupported patch value " + value.getClass().getName());
+        }
+    }
+}
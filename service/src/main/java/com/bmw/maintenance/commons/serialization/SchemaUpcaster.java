@@ -0,0 +1,29 @@
+package com.bmw.maintenance.commons.serialization;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Migrates a stored aggregate from one schema version to the next.
+ * <p>
+ * Upcasters work on the JSON tree of the aggregate, whichever format it was stored in, and
+ * are chained by {@link SchemaUpcasterChain} to bring any older version up to the latest one.
+ * Implement one per version step as a CDI bean.
+ * </p>
+ */
+public interface SchemaUpcaster {
+
+    /**
+     * Returns the version this upcaster reads; it produces {@code fromVersion() + 1}.
+     *
+     * @return the source schema version
+     */
+    int fromVersion();
+
+    /**
+     * Rewrites a document of {@link #fromVersion()} into the next version.
+     *
+     * @param document the aggregate, may be modified in place
+     * @return the migrated aggregate
+     */
+    ObjectNode upcast(ObjectNode document);
+}
@@ -0,0 +1,122 @@
+package com.bmw.maintenance.commons.serialization;
+
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+/**
+ * Registry of {@link SchemaUpcaster}s that migrates stored aggregates to the latest schema
+ * version on read.
+ * <p>
+ * There must be exactly one upcaster for every version from {@code 1} up to the latest one,
+ * which is checked on startup. Aggregates already at the latest version are not touched, so
+ * the serializers only pay for the chain when they read an older row.
+ * </p>
+ */
+@ApplicationScoped
+public class SchemaUpcasterChain {
+
+    /** Serialized name of the schema version in JSON aggregates; absent in version 1 documents. */
+    public static final String VERSION_FIELD = "schemaVersion";
+
+    /** Version of aggregates written before the version was stored in them. */
+    public static final int FIRST_VERSION = 1;
+
+    private final int latestVersion;
+    private final SchemaUpcaster[] upcasters;
+
+    @Inject
+    public SchemaUpcasterChain(Instance<SchemaUpcaster> upcasters) {
+        this(upcasters.stream().toList(), MaintenanceTaskSchemaVLatest.MaintenanceTask.SCHEMA_VERSION);
+    }
+
+    /**
+     * Creates a chain from an explicit list of upcasters.
+     *
+     * @param upcasters one upcaster per version step
+     * @param latestVersion the version the chain migrates to
+     * @throws IllegalStateException if a step is missing, duplicated or outside the version range
+     */
+    public SchemaUpcasterChain(List<? extends SchemaUpcaster> upcasters, int latestVersion) {
+        this(latestVersion);
+        for (SchemaUpcaster upcaster : upcasters) {
+            int from = upcaster.fromVersion();
+            if (from < FIRST_VERSION || from >= latestVersion) {
+                throw new IllegalStateException("Upcaster " + upcaster.getClass().getName() + " reads version " + from
+                        + ", outside of " + FIRST_VERSION + ".." + (latestVersion - 1));
+            }
+            if (this.upcasters[from] != null) {
+                throw new IllegalStateException("Two upcasters read version " + from + ": "
+                        + this.upcasters[from].getClass().getName() + " and " + upcaster.getClass().getName());
+            }
+            this.upcasters[from] = upcaster;
+        }
+        for (int version = FIRST_VERSION; version < latestVersion; version++) {
+            if (this.upcasters[version] == null) {
+                throw new IllegalStateException("No upcaster reads schema version " + version);
+            }
+        }
+    }
+
+    private SchemaUpcasterChain(int latestVersion) {
+        this.latestVersion = latestVersion;
+        this.upcasters = new SchemaUpcaster[latestVersion];
+    }
+
+    /**
+     * Returns a chain without upcasters that only reads the latest schema version, for
+     * serializers created outside of CDI.
+     *
+     * @return the chain
+     */
+    public static SchemaUpcasterChain latestOnly() {
+        return new SchemaUpcasterChain(MaintenanceTaskSchemaVLatest.MaintenanceTask.SCHEMA_VERSION);
+    }
+
+    /**
+     * Returns the version aggregates are written in.
+     *
+     * @return the latest schema version
+     */
+    public int latestVersion() {
+        return latestVersion;
+    }
+
+    /**
+     * Checks that a stored version can be read.
+     *
+     * @param version the stored schema version
+     * @return {@code true} if {@code version} is the latest one and needs no upcasting
+     * @throws IllegalArgumentException if the version is unknown or newer than the latest one
+     */
+    public boolean isLatest(int version) {
+        if (version < FIRST_VERSION || version > latestVersion) {
+            throw new IllegalArgumentException("Unsupported schema version " + version + ", latest is " + latestVersion);
+        }
+        return version == latestVersion;
+    }
+
+    /**
+     * Migrates a document from {@code version} to the latest version.
+     *
+     * @param document the aggregate as a JSON tree, may be modified in place
+     * @param version the version the document was stored in
+     * @return the migrated document, with {@value #VERSION_FIELD} set to the latest version
+     * @throws IllegalArgumentException if the version is unknown or newer than the latest one
+     */
+    public ObjectNode upcast(ObjectNode document, int version) {
+        isLatest(version);
+        for (int step = version; step < latestVersion; step++) {
+            if (upcasters[step] == null) {
+                throw new IllegalArgumentException("No upcaster reads schema version " + step);
+            }
+            document = upcasters[step].upcast(document);
+        }
+        document.put(VERSION_FIELD, latestVersion);
+        return document;
+    }
+}
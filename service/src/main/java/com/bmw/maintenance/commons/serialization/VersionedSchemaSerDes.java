@@ -23,4 +23,12 @@ public interface VersionedSchemaSerDes<S>{
      */
     VersionedSchema deserialize(S data);
 
+    /**
+     * Returns the schema version the data was written in, without deserializing it.
+     *
+     * @param data the serialized schema object
+     * @return the stored schema version
+     */
+    int version(S data);
+
 }
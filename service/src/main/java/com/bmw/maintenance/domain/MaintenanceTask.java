@@ -31,6 +31,7 @@ public class MaintenanceTask {
     private TaskStatus status;
     private String notes;
     private MaintenanceDetails maintenanceDetails;
+    private Long version;
 
 
     /**
@@ -111,12 +112,47 @@ public class MaintenanceTask {
      * @return a \`MaintenanceTask\` populated from stored values
      */
     public static MaintenanceTask reconstitute(Long taskId, String vin, TaskType type, TaskStatus status, String notes) {
+        return reconstitute(taskId, vin, type, status, notes, null);
+    }
+
+    /**
+     * Reconstitutes a task from persisted state, including its version, without applying business rules.
+     *
+     * @param taskId  persisted task identifier
+     * @param vin     vehicle identification number
+     * @param type    task type
+     * @param status  task status
+     * @param notes   optional notes for the task
+     * @param version persisted version used for optimistic concurrency, or {@code null} if unknown
+     * @return a \`MaintenanceTask\` populated from stored values
+     */
+    public static MaintenanceTask reconstitute(Long taskId, String vin, TaskType type, TaskStatus status, String notes, Long version) {
+        return reconstitute(taskId, vin, type, status, notes, null, version);
+    }
+
+    /**
+     * Reconstitutes a task from persisted state, including its type-specific details and version,
+     * without applying business rules.
+     *
+     * @param taskId             persisted task identifier
+     * @param vin                vehicle identification number
+     * @param type               task type
+     * @param status             task status
+     * @param notes              optional notes for the task
+     * @param maintenanceDetails type-specific details, or {@code null} if none were stored
+     * @param version            persisted version used for optimistic concurrency, or {@code null} if unknown
+     * @return a \`MaintenanceTask\` populated from stored values
+     */
+    public static MaintenanceTask reconstitute(Long taskId, String vin, TaskType type, TaskStatus status, String notes,
+                                               MaintenanceDetails maintenanceDetails, Long version) {
         return MaintenanceTask.builder()
                 .taskId(taskId)
                 .vin(vin)
                 .type(type)
                 .status(status)
                 .notes(notes)
+                .maintenanceDetails(maintenanceDetails)
+                .version(version)
                 .build();
     }
 
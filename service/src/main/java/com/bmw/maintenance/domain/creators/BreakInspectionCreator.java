@@ -4,10 +4,8 @@ import com.bmw.maintenance.domain.MaintenanceTask;
 import com.bmw.maintenance.domain.enums.TaskType;
 import jakarta.enterprise.context.ApplicationScoped;
 
-import java.util.Map;
-
 @ApplicationScoped
-public class BreakInspectionCreator implements TaskCreator
+public class BreakInspectionCreator implements TaskCreator<TaskDetails.None>
 {
     @Override
     public TaskType whatTask() {
@@ -15,7 +13,12 @@ public class BreakInspectionCreator implements TaskCreator
     }
 
     @Override
-    public MaintenanceTask create(String vin, String notes, Map<String, Object> data) {
+    public Class<TaskDetails.None> detailsType() {
+        return TaskDetails.None.class;
+    }
+
+    @Override
+    public MaintenanceTask create(String vin, String notes, TaskDetails.None details) {
         return MaintenanceTask.createBrakeInspection(vin, notes);
     }
 }
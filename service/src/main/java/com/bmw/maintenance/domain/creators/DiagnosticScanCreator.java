@@ -0,0 +1,51 @@
+package com.bmw.maintenance.domain.creators;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskType;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.BadRequestException;
+
+import java.util.List;
+
+@ApplicationScoped
+public class DiagnosticScanCreator implements TaskCreator<DiagnosticScanCreator.Details> {
+
+    /**
+     * Diagnostic scan input.
+     *
+     * @param errorCodes  diagnostic trouble codes reported by the scan
+     * @param scannerType scanner used
+     */
+    public record Details(
+            @NotNull(message = "Error codes must be a list")
+            List<@NotBlank String> errorCodes,
+
+            @NotNull(message = "Maintenance type is required for this operation")
+            ScannerType scannerType
+    ) implements TaskDetails {}
+
+    @Override
+    public TaskType whatTask() {
+        return TaskType.DIAGNOSTIC_SCAN;
+    }
+
+    @Override
+    public Class<Details> detailsType() {
+        return Details.class;
+    }
+
+    @Override
+    public MaintenanceTask create(String vin, String notes, Details details) {
+        if (details == null || details.errorCodes() == null) {
+            throw new BadRequestException("Error codes must be a list");
+        }
+        if (details.scannerType() == null) {
+            throw new BadRequestException("Maintenance type is required for this operation");
+        }
+
+        return MaintenanceTask.createDiagnosticScan(vin, notes, List.copyOf(details.errorCodes()), details.scannerType());
+    }
+}
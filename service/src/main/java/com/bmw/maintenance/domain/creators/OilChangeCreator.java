@@ -4,17 +4,20 @@ import com.bmw.maintenance.domain.MaintenanceTask;
 import com.bmw.maintenance.domain.enums.TaskType;
 import jakarta.enterprise.context.ApplicationScoped;
 
-import java.util.Map;
-
 @ApplicationScoped
-public class OilChangeCreator implements TaskCreator {
+public class OilChangeCreator implements TaskCreator<TaskDetails.None> {
     @Override
     public TaskType whatTask() {
         return TaskType.OIL_CHANGE;
     }
 
     @Override
-    public MaintenanceTask create(String vin, String notes, Map<String, Object> data) {
+    public Class<TaskDetails.None> detailsType() {
+        return TaskDetails.None.class;
+    }
+
+    @Override
+    public MaintenanceTask create(String vin, String notes, TaskDetails.None details) {
          return MaintenanceTask.createOilChange(vin, notes);
     }
 }
@@ -0,0 +1,30 @@
+package com.bmw.maintenance.domain.creators;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskType;
+
+/**
+ * Creates tasks of one {@link TaskType}.
+ *
+ * @param <D> the type-specific details this creator accepts
+ */
+public interface TaskCreator<D extends TaskDetails> {
+    TaskType whatTask();
+
+    /**
+     * Returns the type request details are bound to for this task type.
+     *
+     * @return the details type
+     */
+    Class<D> detailsType();
+
+    /**
+     * Creates a task.
+     *
+     * @param vin     vehicle identification number
+     * @param notes   optional notes
+     * @param details type-specific details, or {@code null} if none were sent
+     * @return the new task
+     */
+    MaintenanceTask create(String vin, String notes, D details);
+}
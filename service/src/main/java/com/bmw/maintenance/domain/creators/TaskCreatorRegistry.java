@@ -0,0 +1,108 @@
+package com.bmw.maintenance.domain.creators;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskType;
+import io.quarkus.arc.ClientProxy;
+import io.quarkus.runtime.Startup;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Maps every {@link TaskType} to the {@link TaskCreator} that handles it.
+ * <p>
+ * Creators register themselves simply by being CDI beans that implement {@link TaskCreator}.
+ * The registry is built once at startup and refuses to start if a task type has no creator
+ * or more than one, so dispatch at request time is a single array lookup.
+ * </p>
+ * <p>
+ * The registry also publishes each creator's {@link TaskCreator#detailsType()} so request
+ * bodies can be bound straight into the right {@link TaskDetails} record.
+ * </p>
+ */
+@Startup
+@ApplicationScoped
+public class TaskCreatorRegistry {
+
+    private final Map<TaskType, TaskCreator<?>> creators = new EnumMap<>(TaskType.class);
+    private final Map<TaskType, Class<? extends TaskDetails>> detailsTypes = new EnumMap<>(TaskType.class);
+
+    @Inject
+    public TaskCreatorRegistry(Instance<TaskCreator<?>> discovered) {
+        this((Iterable<TaskCreator<?>>) discovered);
+    }
+
+    /**
+     * Builds the registry from an explicit set of creators, e.g. outside of CDI.
+     *
+     * @param discovered the creators, exactly one per task type
+     */
+    public TaskCreatorRegistry(Iterable<? extends TaskCreator<?>> discovered) {
+        for (TaskCreator<?> creator : discovered) {
+            TaskType type = creator.whatTask();
+            // hold the bean itself rather than its client proxy
+            TaskCreator<?> previous = creators.putIfAbsent(type, ClientProxy.unwrap(creator));
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate creators for task " + type + ": "
+                        + previous.getClass().getName() + " and " + ClientProxy.unwrap(creator).getClass().getName());
+            }
+        }
+        for (TaskType type : TaskType.values()) {
+            if (!creators.containsKey(type)) {
+                throw new IllegalStateException("No creator registered for task " + type);
+            }
+            detailsTypes.put(type, creators.get(type).detailsType());
+        }
+    }
+
+    /**
+     * Returns the details type each task type is bound to.
+     *
+     * @return details types by task type
+     */
+    public Map<TaskType, Class<? extends TaskDetails>> detailsTypes() {
+        return Collections.unmodifiableMap(detailsTypes);
+    }
+
+    /**
+     * Returns the creator for a task type.
+     *
+     * @param type the task type
+     * @return the creator
+     * @throws BadRequestException if the type is {@code null}
+     */
+    public TaskCreator<?> creatorFor(TaskType type) {
+        if (type == null) {
+            throw new BadRequestException("No creator found for task " + type);
+        }
+        return creators.get(type);
+    }
+
+    /**
+     * Creates a task through the creator for its type.
+     *
+     * @param type    the task type
+     * @param vin     vehicle identification number
+     * @param notes   optional notes
+     * @param details type-specific details, or {@code null} if none were sent
+     * @return the new task
+     * @throws BadRequestException if the type is {@code null} or the details belong to another type
+     */
+    public MaintenanceTask create(TaskType type, String vin, String notes, TaskDetails details) {
+        return create(creatorFor(type), vin, notes, details);
+    }
+
+    private static <D extends TaskDetails> MaintenanceTask create(TaskCreator<D> creator, String vin, String notes,
+                                                                  TaskDetails details) {
+        if (details != null && !creator.detailsType().isInstance(details)) {
+            throw new BadRequestException("Details " + details.getClass().getSimpleName()
+                    + " do not apply to task " + creator.whatTask());
+        }
+        return creator.create(vin, notes, creator.detailsType().cast(details));
+    }
+}
@@ -0,0 +1,16 @@
+package com.bmw.maintenance.domain.creators;
+
+/**
+ * Type-specific input for creating a task, declared by each {@link TaskCreator}.
+ * <p>
+ * Request bodies are bound directly into the implementation registered for the task type,
+ * so creators receive typed, already-validated values.
+ * </p>
+ */
+public interface TaskDetails {
+
+    /**
+     * Details for task types that take no type-specific input.
+     */
+    record None() implements TaskDetails {}
+}
@@ -0,0 +1,49 @@
+package com.bmw.maintenance.domain.creators;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.BadRequestException;
+
+@ApplicationScoped
+public class TireServiceCreator implements TaskCreator<TireServiceCreator.Details> {
+
+    /**
+     * Tire service input.
+     *
+     * @param tirePosition    tire the service applies to
+     * @param tireServiceType kind of tire service
+     */
+    public record Details(
+            @NotNull(message = "tire position is required for this action")
+            TirePosition tirePosition,
+
+            @NotNull(message = "Operation type is required for this action")
+            TireServiceType tireServiceType
+    ) implements TaskDetails {}
+
+    @Override
+    public TaskType whatTask() {
+        return TaskType.TIRE_SERVICE;
+    }
+
+    @Override
+    public Class<Details> detailsType() {
+        return Details.class;
+    }
+
+    @Override
+    public MaintenanceTask create(String vin, String notes, Details details) {
+        if (details == null || details.tirePosition() == null) {
+            throw new BadRequestException("tire position is required for this action");
+        }
+        if (details.tireServiceType() == null) {
+            throw new BadRequestException("Operation type is required for this action");
+        }
+
+        return MaintenanceTask.createTireService(vin, notes, details.tirePosition(), details.tireServiceType());
+    }
+}
@@ -0,0 +1,286 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.DiagnosticScanDetails;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index from diagnostic trouble codes to the diagnostic scans that reported them.
+ * <p>
+ * Every code maps to a posting list: the ids of its tasks as a sorted {@code long[]}, eight
+ * bytes per entry and no boxing. Ids are allocated in increasing order, so new tasks are
+ * almost always appended; one committed out of order is shifted into place. Queries for all
+ * codes intersect the lists, walking the shortest one and binary searching the others, and
+ * queries for any code merge them. Both visit the ids in order, so pages are cut by task id.
+ * </p>
+ * <p>
+ * Codes are matched ignoring case and surrounding blanks. The index is rebuilt from all tasks
+ * on startup and then follows committed {@link TaskDiagnosticsChange}s; error codes are only
+ * set when a scan is created, so entries are never removed.
+ * </p>
+ * <p>
+ * The number of distinct codes and of indexed code occurrences are exported as
+ * {@code maintenance.diagnostics.codes} and {@code maintenance.diagnostics.postings}.
+ * </p>
+ */
+@ApplicationScoped
+public class DiagnosticCodeIndex implements TaskProjection {
+
+    /**
+     * How tasks must match a set of codes.
+     */
+    public enum Match {
+        /** The task reported every code. */
+        ALL,
+        /** The task reported at least one of the codes. */
+        ANY;
+
+        /**
+         * Parses a match mode ignoring case, for query parameters.
+         *
+         * @param value {@code all} or {@code any}
+         * @return the match mode
+         */
+        public static Match fromString(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * One page of matching task ids.
+     *
+     * @param taskIds the matches on this page, ascending
+     * @param total the number of matching tasks across all pages
+     * @param more whether matches follow this page
+     */
+    public record Result(List<Long> taskIds, long total, boolean more) {}
+
+    private final ConcurrentMap<String, Postings> postings = new ConcurrentHashMap<>();
+    private final LongAdder entries = new LongAdder();
+
+    @Inject
+    public DiagnosticCodeIndex(MeterRegistry registry) {
+        Gauge.builder("maintenance.diagnostics.codes", postings, Map::size)
+                .description("Distinct codes in the diagnostic code index")
+                .register(registry);
+        Gauge.builder("maintenance.diagnostics.postings", entries, LongAdder::sum)
+                .description("Code occurrences in the diagnostic code index")
+                .register(registry);
+    }
+
+    /**
+     * Finds the diagnostic scans that reported some or all of the given codes.
+     *
+     * @param codes the codes to look for; entries may also hold comma-separated codes
+     * @param match whether a task must have reported all codes or any of them
+     * @param afterTaskId the last task id of the previous page, or {@code null} for the first page
+     * @param limit maximum number of task ids to return
+     * @return the requested page of task ids, ascending
+     * @throws IllegalArgumentException if no code is given
+     */
+    public Result find(Collection<String> codes, Match match, Long afterTaskId, int limit) {
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String entry : codes) {
+            for (String code : entry.split(",")) {
+                if (!code.isBlank()) {
+                    normalized.add(normalize(code));
+                }
+            }
+        }
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("At least one diagnostic code is required");
+        }
+
+        List<Postings> lists = new ArrayList<>(normalized.size());
+        for (String code : normalized) {
+            Postings list = postings.get(code);
+            if (list != null) {
+                lists.add(list);
+            } else if (match == Match.ALL) {
+                return new Result(List.of(), 0, false);
+            }
+        }
+        if (lists.isEmpty()) {
+            return new Result(List.of(), 0, false);
+        }
+
+        // codes are taken in sorted order, so two queries never wait on each other's locks
+        int locked = 0;
+        try {
+            for (Postings list : lists) {
+                list.lock.readLock().lock();
+                locked++;
+            }
+            Page page = new Page(afterTaskId == null ? Long.MIN_VALUE : afterTaskId, limit);
+            if (match == Match.ALL) {
+                intersect(lists, page);
+            } else {
+                union(lists, page);
+            }
+            return new Result(page.taskIds, page.total, page.more);
+        } finally {
+            for (int i = 0; i < locked; i++) {
+                lists.get(i).lock.readLock().unlock();
+            }
+        }
+    }
+
+    void index(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskDiagnosticsChange change) {
+        put(change.taskId(), change.errorCodes());
+    }
+
+    @Override
+    public void clear() {
+        postings.clear();
+        entries.reset();
+    }
+
+    @Override
+    public void add(MaintenanceTask task) {
+        if (task.getTaskId() != null && task.getMaintenanceDetails() instanceof DiagnosticScanDetails scan
+                && scan.getErrorCodes() != null) {
+            put(task.getTaskId(), scan.getErrorCodes());
+        }
+    }
+
+    private void put(long taskId, List<String> codes) {
+        for (String code : codes) {
+            if (code != null && !code.isBlank()
+                    && postings.computeIfAbsent(normalize(code), key -> new Postings()).add(taskId)) {
+                entries.increment();
+            }
+        }
+    }
+
+    private static void intersect(List<Postings> lists, Page page) {
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        Postings shortest = lists.get(0);
+        // each later id can only be found at or after the previous one, so the searches narrow
+        int[] from = new int[lists.size()];
+        for (int i = 0; i < shortest.size; i++) {
+            long taskId = shortest.ids[i];
+            boolean matches = true;
+            for (int l = 1; l < lists.size() && matches; l++) {
+                Postings other = lists.get(l);
+                int at = Arrays.binarySearch(other.ids, from[l], other.size, taskId);
+                from[l] = at >= 0 ? at + 1 : -at - 1;
+                matches = at >= 0;
+            }
+            if (matches) {
+                page.offer(taskId);
+            }
+        }
+    }
+
+    private static void union(List<Postings> lists, Page page) {
+        int[] heads = new int[lists.size()];
+        while (true) {
+            long next = Long.MAX_VALUE;
+            boolean found = false;
+            for (int l = 0; l < lists.size(); l++) {
+                Postings list = lists.get(l);
+                if (heads[l] < list.size && list.ids[heads[l]] <= next) {
+                    next = list.ids[heads[l]];
+                    found = true;
+                }
+            }
+            if (!found) {
+                return;
+            }
+            for (int l = 0; l < lists.size(); l++) {
+                Postings list = lists.get(l);
+                if (heads[l] < list.size && list.ids[heads[l]] == next) {
+                    heads[l]++;
+                }
+            }
+            page.offer(next);
+        }
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects the matches after the cursor while counting all of them.
+     */
+    private static final class Page {
+        private final long after;
+        private final int limit;
+        private final List<Long> taskIds = new ArrayList<>();
+        private long total;
+        private boolean more;
+
+        private Page(long after, int limit) {
+            this.after = after;
+            this.limit = limit;
+        }
+
+        private void offer(long taskId) {
+            total++;
+            if (taskId <= after) {
+                return;
+            }
+            if (taskIds.size() < limit) {
+                taskIds.add(taskId);
+            } else {
+                more = true;
+            }
+        }
+    }
+
+    /**
+     * The sorted ids of the tasks that reported one code.
+     */
+    private static final class Postings {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private long[] ids = new long[4];
+        private int size;
+
+        /**
+         * Adds a task id unless it is already present.
+         *
+         * @return whether the id was added
+         */
+        private boolean add(long taskId) {
+            lock.writeLock().lock();
+            try {
+                int at = size;
+                if (size > 0 && ids[size - 1] >= taskId) {
+                    at = Arrays.binarySearch(ids, 0, size, taskId);
+                    if (at >= 0) {
+                        return false;
+                    }
+                    at = -at - 1;
+                }
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size + (size >> 1));
+                }
+                System.arraycopy(ids, at, ids, at + 1, size - at);
+                ids[at] = taskId;
+                size++;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
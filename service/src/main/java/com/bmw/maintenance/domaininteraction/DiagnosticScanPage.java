@@ -0,0 +1,14 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+
+import java.util.List;
+
+/**
+ * A page of diagnostic scans matching a set of error codes, ordered by id.
+ *
+ * @param tasks      the matching tasks on this page
+ * @param total      the number of matching tasks across all pages
+ * @param nextCursor the id to pass as {@code after} for the next page, or {@code null} if this is the last page
+ */
+public record DiagnosticScanPage(List<MaintenanceTask> tasks, long total, Long nextCursor) {}
@@ -0,0 +1,13 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+
+import java.util.List;
+
+/**
+ * A page of maintenance tasks returned by keyset pagination.
+ *
+ * @param tasks      the tasks on this page, ordered by id
+ * @param nextCursor the id to pass as {@code after} for the next page, or {@code null} if this is the last page
+ */
+public record MaintenanceTaskPage(List<MaintenanceTask> tasks, Long nextCursor) {}
@@ -0,0 +1,259 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Operation;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Stage;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.creators.TaskCreatorRegistry;
+import com.bmw.maintenance.domain.creators.TaskDetails;
+import com.bmw.maintenance.domain.enums.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Multi;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Service for creating and managing maintenance tasks.
+ */
+@ApplicationScoped
+public class MaintenanceTaskService {
+
+
+
+
+
+    /**
+     * Creates a maintenance task for a vehicle.
+     *
+     * @param vin   vehicle identification number
+     * @param type  task type
+     * @param notes optional notes
+     * @param additionalDetails type-specific details, or {@code null}
+     * @return created task id
+     */
+    @Inject
+    TaskCreatorRegistry creators;
+    @Inject
+    MaintenanceTasks maintenanceTasks;
+    @Inject
+    MaintenanceMetrics metrics;
+    @Inject
+    TaskChangeFeed changeFeed;
+    @Inject
+    TaskStatistics statistics;
+    @Inject
+    TaskNotesIndex notesIndex;
+    @Inject
+    DiagnosticCodeIndex diagnosticCodes;
+
+    public Long createTask(String vin, TaskType type, String notes, TaskDetails additionalDetails) {
+
+        MaintenanceTask task = metrics.time(Operation.CREATE, Stage.CREATOR, type,
+                () -> creators.create(type, vin, notes, additionalDetails));
+        return maintenanceTasks.create(task).getTaskId();
+
+
+    }
+
+    /**
+     * Creates several tasks at once.
+     * <p>
+     * Each task goes through its creator individually; tasks rejected by their creator are
+     * reported in the result and the remaining ones are persisted together.
+     * </p>
+     *
+     * @param newTasks tasks to create
+     * @return one result per input task, in the same order
+     */
+    public List<TaskCreationResult> createTasks(List<NewTask> newTasks) {
+        CreationBatch batch = new CreationBatch(newTasks, creators, metrics);
+        return batch.results(maintenanceTasks.createAll(batch.accepted()));
+    }
+    /**
+     * Updates the status of a task.
+     *
+     * @param taskId          task id
+     * @param newStatus       new status
+     * @param expectedVersion version the caller last saw, or {@code null} to update unconditionally
+     * @return new task version
+     */
+    public long updateTaskStatus(String taskId, TaskStatus newStatus, Long expectedVersion) {
+        return maintenanceTasks.updateStatus(taskId, newStatus, expectedVersion);
+    }
+
+    /**
+     * Adds or updates notes for a task.
+     *
+     * @param taskId          task id
+     * @param notes           notes to store
+     * @param expectedVersion version the caller last saw, or {@code null} to update unconditionally
+     * @return new task version
+     */
+    public long addOrUpdateNotes(String taskId, String notes, Long expectedVersion) {
+        return maintenanceTasks.upsertNotes(taskId, notes, expectedVersion);
+    }
+
+    /**
+     * Gets a task by id.
+     *
+     * @param taskId task id
+     * @return task or null if not found
+     */
+    public MaintenanceTask getTaskById(String taskId) {
+        return maintenanceTasks.findById(taskId);
+    }
+
+    /**
+     * Lists tasks for a VIN or all tasks when VIN is blank.
+     *
+     * @param vin vehicle identification number
+     * @return matching tasks
+     */
+    public List<MaintenanceTask> listTasks(String vin) {
+        if (vin != null && !vin.isBlank()) {
+            return maintenanceTasks.findByVin(vin);
+        }
+        return maintenanceTasks.getAllTasks();
+    }
+
+    /**
+     * Lists one page of tasks matching a filter, ordered by id.
+     *
+     * @param filter      criteria the tasks must match
+     * @param afterTaskId id of the last task on the previous page, or {@code null} for the first page
+     * @param limit       maximum number of tasks on the page
+     * @return the page with a cursor for the next one
+     */
+    public MaintenanceTaskPage listTasksPage(TaskFilter filter, Long afterTaskId, int limit) {
+        // fetch one extra row to know whether another page follows
+        return page(maintenanceTasks.findPage(filter, afterTaskId, limit + 1), limit);
+    }
+
+    /**
+     * Subscribes to committed task creations and status changes.
+     *
+     * @param filter the changes to receive
+     * @return the changes as they are committed
+     */
+    public Multi<TaskChange> watchTasks(TaskChangeFeed.Filter filter) {
+        return changeFeed.subscribe(filter);
+    }
+
+    /**
+     * Returns task counts per status and type, from counters kept up to date on every change.
+     *
+     * @return the current counts
+     */
+    public TaskStatistics.Summary getStatistics() {
+        return statistics.summary();
+    }
+
+    /**
+     * Returns the task counts of one vehicle.
+     *
+     * @param vin vehicle identification number
+     * @return the current counts
+     */
+    public TaskStatistics.VehicleStatistics getVehicleStatistics(String vin) {
+        return statistics.vehicle(vin);
+    }
+
+    /**
+     * Searches task notes, best match first.
+     *
+     * @param query  words and quoted phrases that must all occur in the notes
+     * @param offset number of best matches to skip
+     * @param limit  maximum number of tasks on the page
+     * @return the page of matching tasks
+     */
+    public TaskSearchPage searchTasks(String query, int offset, int limit) {
+        TaskNotesIndex.Result result = notesIndex.search(query, offset, limit);
+        List<TaskSearchPage.Hit> hits = result.hits().stream()
+                .map(hit -> new TaskSearchPage.Hit(maintenanceTasks.findById(String.valueOf(hit.taskId())), hit.score()))
+                .toList();
+        return new TaskSearchPage(hits, result.total(), nextOffset(offset, hits.size(), result.total()));
+    }
+
+    /**
+     * Finds diagnostic scans by the error codes they reported, ordered by id.
+     *
+     * @param codes       the error codes to look for
+     * @param match       whether a scan must have reported all codes or any of them
+     * @param afterTaskId the last task id of the previous page, or {@code null} for the first page
+     * @param limit       maximum number of tasks on the page
+     * @return the page of matching tasks
+     */
+    public DiagnosticScanPage findByDiagnosticCodes(List<String> codes, DiagnosticCodeIndex.Match match, Long afterTaskId,
+                                                    int limit) {
+        DiagnosticCodeIndex.Result result = diagnosticCodes.find(codes, match, afterTaskId, limit);
+        List<MaintenanceTask> tasks = result.taskIds().stream()
+                .map(taskId -> maintenanceTasks.findById(String.valueOf(taskId)))
+                .toList();
+        return new DiagnosticScanPage(tasks, result.total(), nextCursor(result));
+    }
+
+    static MaintenanceTaskPage page(List<MaintenanceTask> tasks, int limit) {
+        if (tasks.size() <= limit) {
+            return new MaintenanceTaskPage(tasks, null);
+        }
+        List<MaintenanceTask> page = tasks.subList(0, limit);
+        return new MaintenanceTaskPage(page, page.get(limit - 1).getTaskId());
+    }
+
+    static Long nextCursor(DiagnosticCodeIndex.Result result) {
+        return result.more() ? result.taskIds().get(result.taskIds().size() - 1) : null;
+    }
+
+    static Integer nextOffset(int offset, int found, long total) {
+        return offset + found < total ? offset + found : null;
+    }
+
+    /**
+     * A batch of new tasks run through their creators; the rejected ones already have their result.
+     */
+    static final class CreationBatch {
+        private final TaskCreationResult[] results;
+        private final List<MaintenanceTask> accepted;
+        private final List<Integer> acceptedIndexes;
+
+        CreationBatch(List<NewTask> newTasks, TaskCreatorRegistry creators, MaintenanceMetrics metrics) {
+            results = new TaskCreationResult[newTasks.size()];
+            accepted = new ArrayList<>(newTasks.size());
+            acceptedIndexes = new ArrayList<>(newTasks.size());
+
+            for (int i = 0; i < newTasks.size(); i++) {
+                NewTask newTask = newTasks.get(i);
+                try {
+                    accepted.add(metrics.time(Operation.CREATE_BATCH, Stage.CREATOR, newTask.type(),
+                            () -> creators.create(newTask.type(), newTask.vin(), newTask.notes(), newTask.additionalDetails())));
+                    acceptedIndexes.add(i);
+                } catch (RuntimeException e) {
+                    results[i] = TaskCreationResult.rejected(Objects.requireNonNullElse(e.getMessage(), e.getClass().getSimpleName()));
+                }
+            }
+        }
+
+        /** The tasks their creators accepted, to be persisted together. */
+        List<MaintenanceTask> accepted() {
+            return accepted;
+        }
+
+        /**
+         * Completes the results with the persisted tasks.
+         *
+         * @param created the accepted tasks as persisted, in the same order
+         * @return one result per new task, in the same order
+         */
+        List<TaskCreationResult> results(List<MaintenanceTask> created) {
+            for (int i = 0; i < created.size(); i++) {
+                results[acceptedIndexes.get(i)] = TaskCreationResult.created(created.get(i).getTaskId());
+            }
+            return List.of(results);
+        }
+    }
+}
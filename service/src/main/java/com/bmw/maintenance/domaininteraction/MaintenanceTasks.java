@@ -0,0 +1,88 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+
+import java.util.List;
+
+/**
+ * Defines operations for managing maintenance tasks.
+ */
+public interface MaintenanceTasks {
+    /**
+     * Creates a new maintenance task.
+     *
+     * @param task the task to create
+     * @return the created task
+     */
+    MaintenanceTask create(MaintenanceTask task);
+
+    /**
+     * Creates several tasks in a single transaction.
+     *
+     * @param tasks the tasks to create
+     * @return the created tasks, in the same order
+     */
+    List<MaintenanceTask> createAll(List<MaintenanceTask> tasks);
+
+    /**
+     * Updates the status of an existing task.
+     * <p>
+     * Does not return the task, so implementations can update the field without loading the whole aggregate.
+     * </p>
+     *
+     * @param taskId the task id
+     * @param newStatus the new status
+     * @param expectedVersion the version the caller last saw, or {@code null} to update unconditionally
+     * @return the new version of the task
+     * @throws com.bmw.maintenance.commons.PreconditionFailedException if the task is not at {@code expectedVersion}
+     */
+    long updateStatus(String taskId, TaskStatus newStatus, Long expectedVersion);
+
+    /**
+     * Inserts or updates the notes for a task.
+     * <p>
+     * Does not return the task, so implementations can update the field without loading the whole aggregate.
+     * </p>
+     *
+     * @param taskId the task id
+     * @param notes the notes to upsert
+     * @param expectedVersion the version the caller last saw, or {@code null} to update unconditionally
+     * @return the new version of the task
+     * @throws com.bmw.maintenance.commons.PreconditionFailedException if the task is not at {@code expectedVersion}
+     */
+    long upsertNotes(String taskId, String notes, Long expectedVersion);
+
+    /**
+     * Finds a task by id.
+     *
+     * @param taskId the task id
+     * @return the found task
+     */
+    MaintenanceTask findById(String taskId);
+
+    /**
+     * Returns all tasks.
+     *
+     * @return the list of tasks
+     */
+    List<MaintenanceTask> getAllTasks();
+
+    /**
+     * Returns up to {@code limit} tasks matching a filter ordered by id, starting after the given id.
+     *
+     * @param filter the criteria tasks must match, {@link TaskFilter#NONE} for all tasks
+     * @param afterTaskId the last task id of the previous page, or {@code null} for the first page
+     * @param limit the maximum number of tasks to return
+     * @return the page of tasks
+     */
+    List<MaintenanceTask> findPage(TaskFilter filter, Long afterTaskId, int limit);
+
+    /**
+     * Finds tasks by VIN.
+     *
+     * @param vin the vehicle identification number
+     * @return the list of tasks
+     */
+    List<MaintenanceTask> findByVin(String vin);
+}
@@ -0,0 +1,14 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.creators.TaskDetails;
+import com.bmw.maintenance.domain.enums.TaskType;
+
+/**
+ * Input for creating a single maintenance task.
+ *
+ * @param vin               vehicle identification number
+ * @param type              task type
+ * @param notes             optional notes
+ * @param additionalDetails type-specific details passed to the task creator, or {@code null}
+ */
+public record NewTask(String vin, TaskType type, String notes, TaskDetails additionalDetails) {}
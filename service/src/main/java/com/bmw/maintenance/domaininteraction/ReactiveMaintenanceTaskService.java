@@ -0,0 +1,201 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Operation;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Stage;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.creators.TaskCreatorRegistry;
+import com.bmw.maintenance.domain.creators.TaskDetails;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+/**
+ * Non-blocking variant of {@link MaintenanceTaskService}, backed by {@link ReactiveMaintenanceTasks}.
+ */
+@ApplicationScoped
+public class ReactiveMaintenanceTaskService {
+
+    @Inject
+    TaskCreatorRegistry creators;
+    @Inject
+    ReactiveMaintenanceTasks maintenanceTasks;
+    @Inject
+    MaintenanceMetrics metrics;
+    @Inject
+    TaskChangeFeed changeFeed;
+    @Inject
+    TaskStatistics statistics;
+    @Inject
+    TaskNotesIndex notesIndex;
+    @Inject
+    DiagnosticCodeIndex diagnosticCodes;
+
+    /**
+     * Creates a maintenance task for a vehicle.
+     *
+     * @param vin               vehicle identification number
+     * @param type              task type
+     * @param notes             optional notes
+     * @param additionalDetails type-specific details, or {@code null}
+     * @return created task id
+     */
+    public Uni<Long> createTask(String vin, TaskType type, String notes, TaskDetails additionalDetails) {
+        return Uni.createFrom()
+                .item(() -> metrics.time(Operation.CREATE, Stage.CREATOR, type,
+                        () -> creators.create(type, vin, notes, additionalDetails)))
+                .chain(maintenanceTasks::create)
+                .map(MaintenanceTask::getTaskId);
+    }
+
+    /**
+     * Creates several tasks at once, reporting tasks rejected by their creator individually.
+     *
+     * @param newTasks tasks to create
+     * @return one result per input task, in the same order
+     */
+    public Uni<List<TaskCreationResult>> createTasks(List<NewTask> newTasks) {
+        MaintenanceTaskService.CreationBatch batch = new MaintenanceTaskService.CreationBatch(newTasks, creators, metrics);
+        return maintenanceTasks.createAll(batch.accepted()).map(batch::results);
+    }
+
+    /**
+     * Updates the status of a task.
+     *
+     * @param taskId          task id
+     * @param newStatus       new status
+     * @param expectedVersion version the caller last saw, or {@code null} to update unconditionally
+     * @return new task version
+     */
+    public Uni<Long> updateTaskStatus(String taskId, TaskStatus newStatus, Long expectedVersion) {
+        return maintenanceTasks.updateStatus(taskId, newStatus, expectedVersion);
+    }
+
+    /**
+     * Adds or updates notes for a task.
+     *
+     * @param taskId          task id
+     * @param notes           notes to store
+     * @param expectedVersion version the caller last saw, or {@code null} to update unconditionally
+     * @return new task version
+     */
+    public Uni<Long> addOrUpdateNotes(String taskId, String notes, Long expectedVersion) {
+        return maintenanceTasks.upsertNotes(taskId, notes, expectedVersion);
+    }
+
+    /**
+     * Gets a task by id.
+     *
+     * @param taskId task id
+     * @return the task
+     */
+    public Uni<MaintenanceTask> getTaskById(String taskId) {
+        return maintenanceTasks.findById(taskId);
+    }
+
+    /**
+     * Lists tasks for a VIN, or all tasks when the VIN is blank.
+     *
+     * @param vin vehicle identification number
+     * @return matching tasks
+     */
+    public Uni<List<MaintenanceTask>> listTasks(String vin) {
+        if (vin != null && !vin.isBlank()) {
+            return maintenanceTasks.findByVin(vin);
+        }
+        return maintenanceTasks.streamAll().collect().asList();
+    }
+
+    /**
+     * Lists one page of tasks matching a filter, ordered by id.
+     *
+     * @param filter      criteria the tasks must match
+     * @param afterTaskId id of the last task on the previous page, or {@code null} for the first page
+     * @param limit       maximum number of tasks on the page
+     * @return the page with a cursor for the next one
+     */
+    public Uni<MaintenanceTaskPage> listTasksPage(TaskFilter filter, Long afterTaskId, int limit) {
+        // fetch one extra row to know whether another page follows
+        return maintenanceTasks.findPage(filter, afterTaskId, limit + 1)
+                .map(tasks -> MaintenanceTaskService.page(tasks, limit));
+    }
+
+    /**
+     * Streams all tasks ordered by id.
+     *
+     * @return the tasks
+     */
+    public Multi<MaintenanceTask> streamAllTasks() {
+        return maintenanceTasks.streamAll();
+    }
+
+    /**
+     * Subscribes to committed task creations and status changes.
+     *
+     * @param filter the changes to receive
+     * @return the changes as they are committed
+     */
+    public Multi<TaskChange> watchTasks(TaskChangeFeed.Filter filter) {
+        return changeFeed.subscribe(filter);
+    }
+
+    /**
+     * Returns task counts per status and type, from counters kept up to date on every change.
+     *
+     * @return the current counts
+     */
+    public Uni<TaskStatistics.Summary> getStatistics() {
+        return Uni.createFrom().item(statistics::summary);
+    }
+
+    /**
+     * Returns the task counts of one vehicle.
+     *
+     * @param vin vehicle identification number
+     * @return the current counts
+     */
+    public Uni<TaskStatistics.VehicleStatistics> getVehicleStatistics(String vin) {
+        return Uni.createFrom().item(() -> statistics.vehicle(vin));
+    }
+
+    /**
+     * Searches task notes, best match first.
+     *
+     * @param query  words and quoted phrases that must all occur in the notes
+     * @param offset number of best matches to skip
+     * @param limit  maximum number of tasks on the page
+     * @return the page of matching tasks
+     */
+    public Uni<TaskSearchPage> searchTasks(String query, int offset, int limit) {
+        return Uni.createFrom().item(() -> notesIndex.search(query, offset, limit))
+                .flatMap(result -> Multi.createFrom().iterable(result.hits())
+                        .onItem().transformToUniAndConcatenate(hit -> maintenanceTasks.findById(String.valueOf(hit.taskId()))
+                                .map(task -> new TaskSearchPage.Hit(task, hit.score())))
+                        .collect().asList()
+                        .map(hits -> new TaskSearchPage(hits, result.total(),
+                                MaintenanceTaskService.nextOffset(offset, hits.size(), result.total()))));
+    }
+
+    /**
+     * Finds diagnostic scans by the error codes they reported, ordered by id.
+     *
+     * @param codes       the error codes to look for
+     * @param match       whether a scan must have reported all codes or any of them
+     * @param afterTaskId the last task id of the previous page, or {@code null} for the first page
+     * @param limit       maximum number of tasks on the page
+     * @return the page of matching tasks
+     */
+    public Uni<DiagnosticScanPage> findByDiagnosticCodes(List<String> codes, DiagnosticCodeIndex.Match match,
+                                                         Long afterTaskId, int limit) {
+        return Uni.createFrom().item(() -> diagnosticCodes.find(codes, match, afterTaskId, limit))
+                .flatMap(result -> Multi.createFrom().iterable(result.taskIds())
+                        .onItem().transformToUniAndConcatenate(taskId -> maintenanceTasks.findById(String.valueOf(taskId)))
+                        .collect().asList()
+                        .map(tasks -> new DiagnosticScanPage(tasks, result.total(), MaintenanceTaskService.nextCursor(result))));
+    }
+}
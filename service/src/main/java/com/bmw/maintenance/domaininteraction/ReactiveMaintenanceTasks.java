@@ -0,0 +1,87 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link MaintenanceTasks}.
+ * <p>
+ * Every operation returns immediately; the work happens when the result is subscribed to and
+ * no caller thread is held while it waits for the database.
+ * </p>
+ */
+public interface ReactiveMaintenanceTasks {
+
+    /**
+     * Creates a new maintenance task.
+     *
+     * @param task the task to create
+     * @return the created task
+     */
+    Uni<MaintenanceTask> create(MaintenanceTask task);
+
+    /**
+     * Creates several tasks in a single transaction.
+     *
+     * @param tasks the tasks to create
+     * @return the created tasks, in the same order
+     */
+    Uni<List<MaintenanceTask>> createAll(List<MaintenanceTask> tasks);
+
+    /**
+     * Updates the status of an existing task.
+     *
+     * @param taskId the task id
+     * @param newStatus the new status
+     * @param expectedVersion the version the caller last saw, or {@code null} to update unconditionally
+     * @return the new version of the task
+     */
+    Uni<Long> updateStatus(String taskId, TaskStatus newStatus, Long expectedVersion);
+
+    /**
+     * Inserts or updates the notes for a task.
+     *
+     * @param taskId the task id
+     * @param notes the notes to upsert
+     * @param expectedVersion the version the caller last saw, or {@code null} to update unconditionally
+     * @return the new version of the task
+     */
+    Uni<Long> upsertNotes(String taskId, String notes, Long expectedVersion);
+
+    /**
+     * Finds a task by id.
+     *
+     * @param taskId the task id
+     * @return the found task
+     */
+    Uni<MaintenanceTask> findById(String taskId);
+
+    /**
+     * Returns up to {@code limit} tasks matching a filter ordered by id, starting after the given id.
+     *
+     * @param filter the criteria tasks must match, {@link TaskFilter#NONE} for all tasks
+     * @param afterTaskId the last task id of the previous page, or {@code null} for the first page
+     * @param limit the maximum number of tasks to return
+     * @return the page of tasks
+     */
+    Uni<List<MaintenanceTask>> findPage(TaskFilter filter, Long afterTaskId, int limit);
+
+    /**
+     * Streams all tasks ordered by id, fetching the next rows only as the subscriber requests them.
+     *
+     * @return the tasks
+     */
+    Multi<MaintenanceTask> streamAll();
+
+    /**
+     * Finds tasks by VIN.
+     *
+     * @param vin the vehicle identification number
+     * @return the tasks
+     */
+    Uni<List<MaintenanceTask>> findByVin(String vin);
+}
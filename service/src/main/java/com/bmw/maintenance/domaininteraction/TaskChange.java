@@ -0,0 +1,66 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+
+import java.time.Instant;
+
+/**
+ * A committed change to a maintenance task, as published on the {@link TaskChangeFeed}.
+ * <p>
+ * {@link MaintenanceTasks} implementations fire it as a CDI event from their write paths;
+ * the feed only passes it on once the writing transaction has committed.
+ * </p>
+ *
+ * @param kind what happened
+ * @param taskId the task id
+ * @param vin the task's VIN
+ * @param type the task type
+ * @param previousStatus the task status before the change, or {@code null} for a new task
+ * @param status the task status after the change
+ * @param version the task version after the change
+ * @param occurredAt when the change was written
+ */
+public record TaskChange(Kind kind, long taskId, String vin, TaskType type, TaskStatus previousStatus,
+                         TaskStatus status, long version, Instant occurredAt) {
+
+    /**
+     * Kinds of changes.
+     */
+    public enum Kind {
+        /** The task was created. */
+        CREATED,
+        /** The task's status was set. */
+        STATUS_CHANGED
+    }
+
+    /**
+     * Creates a change recording a new task, occurring now.
+     *
+     * @param taskId the task id
+     * @param vin the task's VIN
+     * @param type the task type
+     * @param status the initial task status
+     * @param version the initial task version
+     * @return the change
+     */
+    public static TaskChange created(long taskId, String vin, TaskType type, TaskStatus status, long version) {
+        return new TaskChange(Kind.CREATED, taskId, vin, type, null, status, version, Instant.now());
+    }
+
+    /**
+     * Creates a change recording a status update, occurring now.
+     *
+     * @param taskId the task id
+     * @param vin the task's VIN
+     * @param type the task type
+     * @param previousStatus the task status before the update
+     * @param status the new task status
+     * @param version the task version after the update
+     * @return the change
+     */
+    public static TaskChange statusChanged(long taskId, String vin, TaskType type, TaskStatus previousStatus,
+                                           TaskStatus status, long version) {
+        return new TaskChange(Kind.STATUS_CHANGED, taskId, vin, type, previousStatus, status, version, Instant.now());
+    }
+}
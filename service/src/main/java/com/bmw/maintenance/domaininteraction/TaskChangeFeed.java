@@ -0,0 +1,105 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes committed {@link TaskChange}s to subscribers, each with its own filter.
+ * <p>
+ * Changes are observed after their transaction succeeds, so subscribers never see a write that
+ * was rolled back. Publishing never blocks the writer: each subscriber has a buffer of
+ * {@code maintenance.stream.buffer-size} changes, and a subscriber that falls that far behind is
+ * disconnected instead of slowing anyone down. It is expected to reconnect and re-read the
+ * current state, since it has missed changes.
+ * </p>
+ * <p>
+ * The number of subscribers is exported as {@code maintenance.stream.subscribers} and the
+ * disconnects as {@code maintenance.stream.overflows}.
+ * </p>
+ */
+@ApplicationScoped
+public class TaskChangeFeed {
+
+    /**
+     * Which changes a subscriber wants; {@code null} fields match everything.
+     *
+     * @param vin only changes of this VIN
+     * @param type only changes of this task type
+     * @param status only changes that leave a task in this status
+     */
+    public record Filter(String vin, TaskType type, TaskStatus status) {
+
+        boolean matches(TaskChange change) {
+            return (vin == null || vin.equals(change.vin()))
+                    && (type == null || type == change.type())
+                    && (status == null || status == change.status());
+        }
+    }
+
+    private record Subscriber(Filter filter, MultiEmitter<? super TaskChange> emitter) {}
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final int bufferSize;
+    private final Counter overflows;
+
+    @Inject
+    public TaskChangeFeed(MeterRegistry registry,
+                          @ConfigProperty(name = "maintenance.stream.buffer-size", defaultValue = "256") int bufferSize) {
+        this.bufferSize = bufferSize;
+        Gauge.builder("maintenance.stream.subscribers", subscribers, Set::size)
+                .description("Open task change feed subscriptions")
+                .register(registry);
+        this.overflows = Counter.builder("maintenance.stream.overflows")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(registry);
+    }
+
+    /**
+     * Subscribes to the changes matching a filter.
+     * <p>
+     * The stream only ends when the subscriber cancels it or falls more than
+     * {@code maintenance.stream.buffer-size} changes behind.
+     * </p>
+     *
+     * @param filter the changes to receive
+     * @return the changes, as they are committed
+     */
+    public Multi<TaskChange> subscribe(Filter filter) {
+        return Multi.createFrom().<TaskChange>emitter(emitter -> {
+                    Subscriber subscriber = new Subscriber(filter, emitter);
+                    subscribers.add(subscriber);
+                    emitter.onTermination(() -> subscribers.remove(subscriber));
+                }, BackPressureStrategy.IGNORE)
+                // the emitter accepts everything; this bounded buffer is what the subscriber may lag behind
+                .onOverflow().buffer(bufferSize)
+                .onFailure(BackPressureFailure.class).invoke(e -> {
+                    overflows.increment();
+                    Log.debugf("Disconnected a task change subscriber that fell %d changes behind", bufferSize);
+                })
+                .onFailure(BackPressureFailure.class).recoverWithCompletion();
+    }
+
+    void publish(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskChange change) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter().matches(change)) {
+                subscriber.emitter().emit(change);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bmw.maintenance.domaininteraction;
+
+/**
+ * Outcome of creating one task as part of a batch.
+ *
+ * @param taskId id of the created task, or {@code null} if it was rejected
+ * @param error  reason the task was rejected, or {@code null} if it was created
+ */
+public record TaskCreationResult(Long taskId, String error) {
+
+    /**
+     * Creates a result for a task that was created.
+     *
+     * @param taskId the created task id
+     * @return the result
+     */
+    public static TaskCreationResult created(Long taskId) {
+        return new TaskCreationResult(taskId, null);
+    }
+
+    /**
+     * Creates a result for a task that was rejected.
+     *
+     * @param error the rejection reason
+     * @return the result
+     */
+    public static TaskCreationResult rejected(String error) {
+        return new TaskCreationResult(null, error);
+    }
+}
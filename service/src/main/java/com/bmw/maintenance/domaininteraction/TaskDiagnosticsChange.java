@@ -0,0 +1,12 @@
+package com.bmw.maintenance.domaininteraction;
+
+import java.util.List;
+
+/**
+ * Error codes recorded by a diagnostic scan, fired as a CDI event by {@link MaintenanceTasks}
+ * implementations when a diagnostic scan task is created.
+ *
+ * @param taskId the task id
+ * @param errorCodes the diagnostic trouble codes reported by the scan
+ */
+public record TaskDiagnosticsChange(long taskId, List<String> errorCodes) {}
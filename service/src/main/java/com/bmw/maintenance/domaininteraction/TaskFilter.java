@@ -0,0 +1,26 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+
+/**
+ * Criteria for listing tasks; a {@code null} criterion matches every task.
+ * <p>
+ * Every criterion is stored in its own indexed column next to the aggregate, so
+ * {@link MaintenanceTasks} implementations can filter without deserializing any task.
+ * </p>
+ *
+ * @param vin             only tasks of this vehicle
+ * @param type            only tasks of this type
+ * @param tirePosition    only tire services on this position
+ * @param tireServiceType only tire services of this kind
+ * @param scannerType     only diagnostic scans made with this scanner
+ */
+public record TaskFilter(String vin, TaskType type, TirePosition tirePosition, TireServiceType tireServiceType,
+                         ScannerType scannerType) {
+
+    /** Matches every task. */
+    public static final TaskFilter NONE = new TaskFilter(null, null, null, null, null);
+}
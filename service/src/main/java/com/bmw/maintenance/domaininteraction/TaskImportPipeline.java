@@ -0,0 +1,370 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.commons.concurrency.DatabaseConcurrencyLimiter;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Operation;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Stage;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.creators.TaskCreatorRegistry;
+import com.bmw.maintenance.domaininteraction.TaskImportResult.LineError;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.InternalServerErrorException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports tasks from a line-oriented document through three concurrent stages.
+ * <p>
+ * The calling thread reads and parses the lines, a second thread runs the task creators, and a
+ * third collects the created tasks into batches of {@code maintenance.import.batch-size} and
+ * stores each batch with {@link MaintenanceTasks#createAll} in its own transaction, which maps,
+ * serializes and inserts them. The stages are connected by queues holding at most
+ * {@code maintenance.import.queue-capacity} lines, so reading pauses while the database is behind
+ * and memory use does not depend on the size of the document.
+ * </p>
+ * <p>
+ * At most {@code maintenance.import.max-concurrency} imports run at once; further ones are
+ * refused. The two stage threads are virtual, so each batch first waits for a
+ * {@link DatabaseConcurrencyLimiter} permit and imports share the connection bound of the
+ * requests instead of adding to it.
+ * </p>
+ * <p>
+ * A record may span several lines if its format allows, as a quoted CSV field with line breaks
+ * does; it is reported with the number of its first line. A record that cannot be parsed or that
+ * its creator rejects is reported with its line number and the import goes on. If a batch cannot be stored, all of its lines are reported; batches stored
+ * before stay committed.
+ * </p>
+ */
+@ApplicationScoped
+public class TaskImportPipeline {
+
+    /**
+     * Turns one record of a document into a task to create.
+     * <p>
+     * Called on one thread in line order.
+     * </p>
+     */
+    @FunctionalInterface
+    public interface LineParser {
+
+        /**
+         * Parses one non-blank record.
+         *
+         * @param line number of the record's first line, starting at 1
+         * @param text the record without its final terminator; the lines of a record that spans
+         *             several lines are joined with {@code \n}
+         * @return the task to create
+         * @throws IllegalArgumentException if the record is invalid; the message is reported for the line
+         */
+        NewTask parse(long line, String text);
+
+        /**
+         * Tells whether a record continues on the next line.
+         * <p>
+         * Formats whose records never span lines, such as NDJSON, keep the default.
+         * </p>
+         *
+         * @param text one line of the record, without its terminator
+         * @param continued whether the record already continued from the previous line onto this one
+         * @return {@code true} if the record continues on the next line
+         */
+        default boolean continues(String text, boolean continued) {
+            return false;
+        }
+    }
+
+    /**
+     * A value on its way through the stages, with the line it came from.
+     */
+    private record Item<T>(long line, T value) {}
+
+    /** Marks the end of the document; compared by identity. */
+    private static final Item<?> END = new Item<>(0, null);
+
+    private final TaskCreatorRegistry creators;
+    private final MaintenanceTasks maintenanceTasks;
+    private final MaintenanceMetrics metrics;
+    private final DatabaseConcurrencyLimiter databaseLimiter;
+    private final Semaphore imports;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int maxErrors;
+    private final int maxRecordLength;
+
+    @Inject
+    public TaskImportPipeline(TaskCreatorRegistry creators, MaintenanceTasks maintenanceTasks, MaintenanceMetrics metrics,
+                              DatabaseConcurrencyLimiter databaseLimiter,
+                              @ConfigProperty(name = "maintenance.import.max-concurrency", defaultValue = "4") int maxConcurrency,
+                              @ConfigProperty(name = "maintenance.import.batch-size", defaultValue = "500") int batchSize,
+                              @ConfigProperty(name = "maintenance.import.queue-capacity", defaultValue = "1000") int queueCapacity,
+                              @ConfigProperty(name = "maintenance.import.max-errors", defaultValue = "1000") int maxErrors,
+                              @ConfigProperty(name = "maintenance.import.max-record-length", defaultValue = "65536") int maxRecordLength) {
+        this.creators = creators;
+        this.maintenanceTasks = maintenanceTasks;
+        this.metrics = metrics;
+        this.databaseLimiter = databaseLimiter;
+        this.imports = new Semaphore(maxConcurrency);
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.maxErrors = maxErrors;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Creates a task for every valid record of a document.
+     * <p>
+     * Blank lines between records are skipped. Must not be called inside a transaction, since every batch is
+     * committed on its own.
+     * </p>
+     *
+     * @param document the lines to import
+     * @param firstLine number of the first line {@code document} returns, greater than 1 if a header was read already
+     * @param parser turns each line into a task
+     * @return the number of imported and rejected lines, with the reasons lines were rejected
+     * @throws ServiceUnavailableException if {@code maintenance.import.max-concurrency} imports are running already
+     * @throws UncheckedIOException if the document cannot be read; batches stored before stay committed
+     * @throws InternalServerErrorException if a stage failed unexpectedly; batches stored before stay committed
+     */
+    public TaskImportResult importTasks(BufferedReader document, long firstLine, LineParser parser) {
+        if (!imports.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many imports are running, try again later");
+        }
+        Run run = new Run();
+        try {
+            run(document, firstLine, parser, run);
+        } finally {
+            imports.release();
+        }
+
+        if (run.failure != null) {
+            throw new InternalServerErrorException("Import stopped after " + run.imported.get() + " tasks", run.failure);
+        }
+        return run.result();
+    }
+
+    private void run(BufferedReader document, long firstLine, LineParser parser, Run run) {
+        BlockingQueue<Item<NewTask>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item<MaintenanceTask>> created = new ArrayBlockingQueue<>(queueCapacity);
+        Thread creator = Thread.ofVirtual().name("maintenance-import-create")
+                .start(() -> create(parsed, created, run));
+        Thread persister = Thread.ofVirtual().name("maintenance-import-persist")
+                .start(() -> persist(created, run));
+
+        try {
+            parse(document, firstLine, parser, parsed, run);
+            creator.join();
+            persister.join();
+        } catch (InterruptedException e) {
+            creator.interrupt();
+            persister.interrupt();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Import was interrupted");
+        } catch (RuntimeException e) {
+            creator.interrupt();
+            persister.interrupt();
+            // the import's slot is only free again once no stage holds a connection
+            awaitStopped(creator);
+            awaitStopped(persister);
+            throw e;
+        }
+    }
+
+    private void parse(BufferedReader document, long firstLine, LineParser parser, BlockingQueue<Item<NewTask>> parsed,
+                       Run run) throws InterruptedException {
+        long line = firstLine - 1;
+        // a record spanning several lines, collected until its last line is read
+        StringBuilder record = new StringBuilder();
+        long recordLine = 0;
+        boolean continued = false;
+        try {
+            for (String text = document.readLine(); text != null; text = document.readLine()) {
+                line++;
+                if (continued) {
+                    if (record.length() <= maxRecordLength) {
+                        record.append('\n').append(text);
+                    }
+                    continued = parser.continues(text, true);
+                    if (!continued) {
+                        submit(recordLine, record, parser, parsed, run);
+                    }
+                } else if (!text.isBlank()) {
+                    if (parser.continues(text, false)) {
+                        record.setLength(0);
+                        record.append(text);
+                        recordLine = line;
+                        continued = true;
+                    } else {
+                        submit(line, text, parser, parsed, run);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read line " + (line + 1), e);
+        }
+        if (continued) {
+            // the parser reports the unterminated record
+            submit(recordLine, record, parser, parsed, run);
+        }
+        parsed.put(end());
+    }
+
+    private void submit(long line, StringBuilder record, LineParser parser, BlockingQueue<Item<NewTask>> parsed, Run run)
+            throws InterruptedException {
+        if (record.length() > maxRecordLength) {
+            run.reject(line, "Record is longer than " + maxRecordLength + " characters");
+            return;
+        }
+        submit(line, record.toString(), parser, parsed, run);
+    }
+
+    private void submit(long line, String text, LineParser parser, BlockingQueue<Item<NewTask>> parsed, Run run)
+            throws InterruptedException {
+        NewTask task;
+        try {
+            task = parser.parse(line, text);
+        } catch (RuntimeException e) {
+            run.reject(line, message(e));
+            return;
+        }
+        parsed.put(new Item<>(line, task));
+    }
+
+    private void create(BlockingQueue<Item<NewTask>> parsed, BlockingQueue<Item<MaintenanceTask>> created, Run run) {
+        try {
+            try {
+                for (Item<NewTask> item = parsed.take(); item != END; item = parsed.take()) {
+                    NewTask newTask = item.value();
+                    MaintenanceTask task;
+                    try {
+                        task = metrics.time(Operation.IMPORT, Stage.CREATOR, newTask.type(),
+                                () -> creators.create(newTask.type(), newTask.vin(), newTask.notes(), newTask.additionalDetails()));
+                    } catch (RuntimeException e) {
+                        run.reject(item.line(), message(e));
+                        continue;
+                    }
+                    created.put(new Item<>(item.line(), task));
+                }
+            } catch (RuntimeException | Error e) {
+                // keep consuming so the parser never blocks on a stage that stopped
+                run.failure = e;
+                drain(parsed);
+            }
+            created.put(end());
+        } catch (InterruptedException e) {
+            // the import was abandoned by the parser
+        }
+    }
+
+    private void persist(BlockingQueue<Item<MaintenanceTask>> created, Run run) {
+        List<Item<MaintenanceTask>> batch = new ArrayList<>(batchSize);
+        try {
+            try {
+                for (Item<MaintenanceTask> item = created.take(); item != END; item = created.take()) {
+                    batch.add(item);
+                    if (batch.size() == batchSize) {
+                        store(batch, run);
+                    }
+                }
+                store(batch, run);
+            } catch (RuntimeException | Error e) {
+                run.failure = e;
+                drain(created);
+            }
+        } catch (InterruptedException e) {
+            // the import was abandoned by the parser
+        }
+    }
+
+    private void store(List<Item<MaintenanceTask>> batch, Run run) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<MaintenanceTask> tasks = new ArrayList<>(batch.size());
+        for (Item<MaintenanceTask> item : batch) {
+            tasks.add(item.value());
+        }
+        try {
+            databaseLimiter.run(() -> QuarkusTransaction.requiringNew().run(() -> maintenanceTasks.createAll(tasks)));
+            run.imported.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            Log.warnf(e, "Could not store import batch of lines %d to %d", batch.get(0).line(),
+                    batch.get(batch.size() - 1).line());
+            for (Item<MaintenanceTask> item : batch) {
+                run.reject(item.line(), "Could not store the batch containing this line");
+            }
+        }
+        batch.clear();
+    }
+
+    private static void awaitStopped(Thread stage) {
+        boolean interrupted = false;
+        while (stage.isAlive()) {
+            try {
+                stage.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> void drain(BlockingQueue<Item<T>> input) throws InterruptedException {
+        while (input.take() != END) {
+            // discard
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Item<T> end() {
+        return (Item<T>) END;
+    }
+
+    private static String message(RuntimeException e) {
+        return Objects.requireNonNullElse(e.getMessage(), e.getClass().getSimpleName());
+    }
+
+    /**
+     * Progress of one import, shared by its stages.
+     */
+    private final class Run {
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<LineError> errors = new ArrayList<>();
+        private volatile Throwable failure;
+
+        private void reject(long line, String error) {
+            if (rejected.getAndIncrement() < maxErrors) {
+                synchronized (errors) {
+                    errors.add(new LineError(line, error));
+                }
+            }
+        }
+
+        private TaskImportResult result() {
+            // lines rejected by different stages are reported out of order
+            synchronized (errors) {
+                errors.sort(Comparator.comparingLong(LineError::line));
+                return new TaskImportResult(imported.get(), rejected.get(), List.copyOf(errors),
+                        rejected.get() > errors.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.bmw.maintenance.domaininteraction;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param imported number of lines stored as new tasks
+ * @param rejected number of lines that were not stored
+ * @param errors why lines were rejected, by line number; at most {@code maintenance.import.max-errors} of them
+ * @param errorsTruncated whether more lines were rejected than {@code errors} lists
+ */
+public record TaskImportResult(long imported, long rejected, List<LineError> errors, boolean errorsTruncated) {
+
+    /**
+     * A rejected line.
+     *
+     * @param line line number in the uploaded document, starting at 1
+     * @param error reason the line was rejected
+     */
+    public record LineError(long line, String error) {}
+}
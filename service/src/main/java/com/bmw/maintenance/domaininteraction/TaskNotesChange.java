@@ -0,0 +1,11 @@
+package com.bmw.maintenance.domaininteraction;
+
+/**
+ * Notes written for a task, fired as a CDI event by {@link MaintenanceTasks} implementations when a
+ * task is created and whenever its notes are set.
+ *
+ * @param taskId the task id
+ * @param notes the task's notes, or {@code null} if it has none
+ * @param version the task version the notes were written in
+ */
+public record TaskNotesChange(long taskId, String notes, long version) {}
@@ -0,0 +1,264 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over task notes, ranked with BM25.
+ * <p>
+ * Notes are split into lower-cased runs of letters and digits. Every term maps to the tasks
+ * containing it and how often, so a query only visits the tasks that contain its rarest term.
+ * All query terms must occur in a task for it to match; a quoted phrase such as
+ * {@code "rotor wear"} must also occur with its words in that order.
+ * </p>
+ * <p>
+ * The index is rebuilt from all tasks on startup and then follows committed
+ * {@link TaskNotesChange}s. Each task's entry remembers the version its notes were written in,
+ * so a change that is observed after a newer one for the same task is ignored.
+ * </p>
+ * <p>
+ * The number of indexed tasks and distinct terms are exported as
+ * {@code maintenance.search.documents} and {@code maintenance.search.terms}.
+ * </p>
+ */
+@ApplicationScoped
+public class TaskNotesIndex implements TaskProjection {
+
+    /** BM25 term frequency saturation. */
+    static final double K1 = 1.2;
+    /** BM25 document length normalisation. */
+    static final double B = 0.75;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"");
+    private static final String[] NO_TOKENS = new String[0];
+
+    /**
+     * One matching task.
+     *
+     * @param taskId the task id
+     * @param score the BM25 score; higher is more relevant
+     */
+    public record Hit(long taskId, double score) {}
+
+    /**
+     * One page of ranked matches.
+     *
+     * @param hits the matches on this page, best first
+     * @param total the number of matching tasks
+     */
+    public record Result(List<Hit> hits, long total) {}
+
+    /**
+     * The indexed notes of one task.
+     *
+     * @param version the task version the notes were written in
+     * @param tokens the terms of the notes, in order
+     */
+    private record Document(long version, String[] tokens) {}
+
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::taskId);
+
+    private final ConcurrentMap<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final LongAdder totalTokens = new LongAdder();
+
+    @Inject
+    public TaskNotesIndex(MeterRegistry registry) {
+        Gauge.builder("maintenance.search.documents", documents, Map::size)
+                .description("Tasks in the notes search index")
+                .register(registry);
+        Gauge.builder("maintenance.search.terms", postings, Map::size)
+                .description("Distinct terms in the notes search index")
+                .register(registry);
+    }
+
+    /**
+     * Finds the tasks whose notes match a query.
+     *
+     * @param query terms and quoted phrases that must all occur
+     * @param offset number of best matches to skip
+     * @param limit maximum number of matches to return
+     * @return the requested page of matches, best first
+     * @throws IllegalArgumentException if the query has no terms
+     */
+    public Result search(String query, int offset, int limit) {
+        List<String[]> phrases = new ArrayList<>();
+        Matcher quoted = PHRASE.matcher(query);
+        while (quoted.find()) {
+            String[] phrase = tokenize(quoted.group(1));
+            if (phrase.length > 1) {
+                phrases.add(phrase);
+            }
+        }
+        String[] terms = Arrays.stream(tokenize(query)).distinct().toArray(String[]::new);
+        if (terms.length == 0) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+
+        List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.length);
+        for (String term : terms) {
+            Map<Long, Integer> tasks = postings.get(term);
+            if (tasks == null) {
+                return new Result(List.of(), 0);
+            }
+            termPostings.add(tasks);
+        }
+        // walk the rarest term's tasks and look the others up
+        Map<Long, Integer> rarest = termPostings.stream().min(Comparator.comparingInt(Map::size)).orElseThrow();
+
+        double documentCount = Math.max(documents.size(), 1);
+        double averageLength = Math.max(totalTokens.sum() / documentCount, 1.0);
+        double[] idf = new double[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            double df = termPostings.get(i).size();
+            idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        }
+
+        // keep only the best offset + limit matches
+        int wanted = offset + limit;
+        PriorityQueue<Hit> best = new PriorityQueue<>(RANKING.reversed());
+        long total = 0;
+        for (Long taskId : rarest.keySet()) {
+            Document document = documents.get(taskId);
+            if (document == null) {
+                continue;
+            }
+            double score = 0;
+            boolean matches = true;
+            for (int i = 0; i < terms.length && matches; i++) {
+                Integer frequency = termPostings.get(i).get(taskId);
+                if (frequency == null) {
+                    matches = false;
+                } else {
+                    double norm = K1 * (1 - B + B * document.tokens().length / averageLength);
+                    score += idf[i] * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+            if (!matches || !containsPhrases(document.tokens(), phrases)) {
+                continue;
+            }
+
+            total++;
+            best.add(new Hit(taskId, score));
+            if (best.size() > wanted) {
+                best.poll();
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        return new Result(offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size()), total);
+    }
+
+    void index(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskNotesChange change) {
+        put(change.taskId(), change.version(), change.notes());
+    }
+
+    @Override
+    public void clear() {
+        documents.clear();
+        postings.clear();
+        totalTokens.reset();
+    }
+
+    @Override
+    public void add(MaintenanceTask task) {
+        put(task.getTaskId(), task.getVersion() == null ? 0L : task.getVersion(), task.getNotes());
+    }
+
+    private void put(long taskId, long version, String notes) {
+        // compute() serialises updates of one task, so its postings are never written twice at once
+        documents.compute(taskId, (id, current) -> {
+            if (current != null && current.version() > version) {
+                return current;
+            }
+            if (current != null) {
+                remove(id, current);
+            }
+            Document document = new Document(version, tokenize(notes));
+            insert(id, document);
+            return document;
+        });
+    }
+
+    private void insert(long taskId, Document document) {
+        for (Map.Entry<String, Integer> term : frequencies(document.tokens()).entrySet()) {
+            postings.compute(term.getKey(), (key, tasks) -> {
+                ConcurrentMap<Long, Integer> updated = tasks == null ? new ConcurrentHashMap<>() : tasks;
+                updated.put(taskId, term.getValue());
+                return updated;
+            });
+        }
+        totalTokens.add(document.tokens().length);
+    }
+
+    private void remove(long taskId, Document document) {
+        for (String term : frequencies(document.tokens()).keySet()) {
+            postings.computeIfPresent(term, (key, tasks) -> {
+                tasks.remove(taskId);
+                return tasks.isEmpty() ? null : tasks;
+            });
+        }
+        totalTokens.add(-document.tokens().length);
+    }
+
+    private static Map<String, Integer> frequencies(String[] tokens) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private static boolean containsPhrases(String[] tokens, List<String[]> phrases) {
+        for (String[] phrase : phrases) {
+            if (!containsPhrase(tokens, phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsPhrase(String[] tokens, String[] phrase) {
+        for (int start = 0; start <= tokens.length - phrase.length; start++) {
+            int i = 0;
+            while (i < phrase.length && tokens[start + i].equals(phrase[i])) {
+                i++;
+            }
+            if (i == phrase.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return NO_TOKENS;
+        }
+        return SEPARATORS.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+
+/**
+ * In-memory view derived from all tasks, such as counters or a search index.
+ * <p>
+ * {@link TaskProjectionRebuild} fills every projection from the stored tasks on startup, in a
+ * single pass shared by all of them. Afterwards each projection keeps itself current by
+ * observing the change events fired by {@link MaintenanceTasks} implementations.
+ * </p>
+ */
+public interface TaskProjection {
+
+    /**
+     * Drops everything the projection holds, before a rebuild.
+     */
+    void clear();
+
+    /**
+     * Adds one stored task during a rebuild.
+     *
+     * @param task the task, in its current state
+     */
+    void add(MaintenanceTask task);
+
+    /**
+     * Called once every stored task has been added.
+     */
+    default void rebuilt() {
+    }
+}
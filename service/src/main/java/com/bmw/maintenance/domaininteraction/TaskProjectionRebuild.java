@@ -0,0 +1,63 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds every {@link TaskProjection} from the stored tasks on startup.
+ * <p>
+ * All projections are filled in one pass over the tasks, so adding a projection does not add
+ * another scan of the table. The pass reads keyset pages of {@value #PAGE_SIZE} tasks with
+ * {@link MaintenanceTasks#findPage}, each in a transaction of its own, so no transaction lasts
+ * longer than one page however many tasks are stored. The rebuild finishes before the
+ * application starts serving requests, so no change can slip in between.
+ * </p>
+ */
+@ApplicationScoped
+public class TaskProjectionRebuild {
+
+    static final int PAGE_SIZE = 500;
+
+    private final MaintenanceTasks tasks;
+    private final Instance<TaskProjection> projections;
+
+    @Inject
+    public TaskProjectionRebuild(MaintenanceTasks tasks, Instance<TaskProjection> projections) {
+        this.tasks = tasks;
+        this.projections = projections;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        List<TaskProjection> targets = projections.stream().toList();
+        if (targets.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        targets.forEach(TaskProjection::clear);
+        long total = 0;
+        List<MaintenanceTask> page = List.of();
+        do {
+            Long after = page.isEmpty() ? null : page.get(page.size() - 1).getTaskId();
+            page = QuarkusTransaction.requiringNew().call(() -> tasks.findPage(TaskFilter.NONE, after, PAGE_SIZE));
+            for (MaintenanceTask task : page) {
+                for (TaskProjection projection : targets) {
+                    projection.add(task);
+                }
+            }
+            total += page.size();
+        } while (page.size() == PAGE_SIZE);
+        Log.infof("Rebuilt %d task projections from %d tasks in %d ms", targets.size(), total,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        targets.forEach(TaskProjection::rebuilt);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+
+import java.util.List;
+
+/**
+ * A page of tasks matching a notes search, best match first.
+ *
+ * @param hits       the matching tasks on this page
+ * @param total      the number of matching tasks across all pages
+ * @param nextOffset the offset to pass for the next page, or {@code null} if this is the last page
+ */
+public record TaskSearchPage(List<Hit> hits, long total, Integer nextOffset) {
+
+    /**
+     * One matching task.
+     *
+     * @param task  the task
+     * @param score its relevance; higher is better
+     */
+    public record Hit(MaintenanceTask task, double score) {}
+}
@@ -0,0 +1,223 @@
+package com.bmw.maintenance.domaininteraction;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Task counts per status, per type and open tasks per VIN, kept up to date as tasks change.
+ * <p>
+ * On startup {@link TaskProjectionRebuild} rebuilds the counts once from all stored tasks. From
+ * then on every committed {@link TaskChange} adjusts them, so reading them costs the same
+ * whatever the number of tasks.
+ * Status and type counts are {@link LongAdder}s, so concurrent writers do not contend on one
+ * counter; open tasks per VIN are kept in a concurrent map that only holds VINs with at least
+ * one open task. A task is open until it is {@link TaskStatus#COMPLETED}.
+ * </p>
+ * <p>
+ * The counts are copied to the {@link TaskStatisticsStore} after the rebuild and then every
+ * {@code maintenance.statistics.flush-interval} if anything changed, for reports that read the
+ * database. Each copy replaces the table in one transaction of at most
+ * {@code maintenance.statistics.flush-timeout}, which grows with the number of VINs with open
+ * tasks; a copy that fails is tried again at the next interval. Changes made by other instances
+ * are only counted here after the next restart.
+ * </p>
+ */
+@ApplicationScoped
+public class TaskStatistics implements TaskProjection {
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final TaskType[] TYPES = TaskType.values();
+
+    /**
+     * Task counts across all tasks.
+     *
+     * @param total all tasks
+     * @param byStatus tasks per status
+     * @param byType tasks per type
+     * @param openTasks tasks that are not completed
+     * @param vehiclesWithOpenTasks VINs that have at least one open task
+     */
+    public record Summary(long total, Map<TaskStatus, Long> byStatus, Map<TaskType, Long> byType, long openTasks,
+                          long vehiclesWithOpenTasks) {}
+
+    /**
+     * Task counts of one vehicle.
+     *
+     * @param vin the vehicle identification number
+     * @param openTasks tasks of the vehicle that are not completed
+     */
+    public record VehicleStatistics(String vin, long openTasks) {}
+
+    private final LongAdder[] byStatus = adders(STATUSES.length);
+    private final LongAdder[] byType = adders(TYPES.length);
+    private final ConcurrentMap<String, Long> openByVin = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private final TaskStatisticsStore store;
+    private final Duration flushInterval;
+    private final Duration flushTimeout;
+    private ScheduledExecutorService flusher;
+
+    @Inject
+    public TaskStatistics(TaskStatisticsStore store,
+                          @ConfigProperty(name = "maintenance.statistics.flush-interval", defaultValue = "PT30S") Duration flushInterval,
+                          @ConfigProperty(name = "maintenance.statistics.flush-timeout", defaultValue = "PT5M") Duration flushTimeout) {
+        this.store = store;
+        this.flushInterval = flushInterval;
+        this.flushTimeout = flushTimeout;
+    }
+
+    /**
+     * Returns the counts across all tasks.
+     *
+     * @return the current counts
+     */
+    public Summary summary() {
+        Map<TaskStatus, Long> statuses = new EnumMap<>(TaskStatus.class);
+        long total = 0;
+        for (TaskStatus status : STATUSES) {
+            long count = byStatus[status.ordinal()].sum();
+            statuses.put(status, count);
+            total += count;
+        }
+        Map<TaskType, Long> types = new EnumMap<>(TaskType.class);
+        for (TaskType type : TYPES) {
+            types.put(type, byType[type.ordinal()].sum());
+        }
+        return new Summary(total, statuses, types, total - statuses.get(TaskStatus.COMPLETED), openByVin.size());
+    }
+
+    /**
+     * Returns the counts of one vehicle.
+     *
+     * @param vin the vehicle identification number
+     * @return the current counts, all zero for an unknown VIN
+     */
+    public VehicleStatistics vehicle(String vin) {
+        return new VehicleStatistics(vin, openByVin.getOrDefault(vin, 0L));
+    }
+
+    void record(@Observes(during = TransactionPhase.AFTER_SUCCESS) TaskChange change) {
+        switch (change.kind()) {
+            case CREATED -> add(change.vin(), change.type(), change.status(), 1);
+            case STATUS_CHANGED -> {
+                if (change.previousStatus() == change.status()) {
+                    return;
+                }
+                count(byStatus, change.previousStatus(), -1);
+                count(byStatus, change.status(), 1);
+                if (isOpen(change.previousStatus()) != isOpen(change.status())) {
+                    countOpen(change.vin(), isOpen(change.status()) ? 1 : -1);
+                }
+            }
+        }
+        dirty.set(true);
+    }
+
+    @Override
+    public void clear() {
+        for (LongAdder adder : byStatus) {
+            adder.reset();
+        }
+        for (LongAdder adder : byType) {
+            adder.reset();
+        }
+        openByVin.clear();
+    }
+
+    @Override
+    public void add(MaintenanceTask task) {
+        add(task.getVin(), task.getType(), task.getStatus(), 1);
+    }
+
+    @Override
+    public void rebuilt() {
+        // a failed copy must not stop the application from starting; the flusher tries again
+        dirty.set(true);
+        flushIfChanged();
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("maintenance-statistics-flush").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flushIfChanged, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+    }
+
+    private void flushIfChanged() {
+        if (dirty.getAndSet(false)) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // keep the counters marked as changed so the next run tries again
+                dirty.set(true);
+                Log.warnf(e, "Could not store task statistics");
+            }
+        }
+    }
+
+    private void flush() {
+        Summary summary = summary();
+        Map<String, Long> vins = Collections.unmodifiableMap(new HashMap<>(openByVin));
+        QuarkusTransaction.requiringNew().timeout((int) flushTimeout.toSeconds()).run(() -> store.replace(summary, vins));
+    }
+
+    private void add(String vin, TaskType type, TaskStatus status, int delta) {
+        count(byStatus, status, delta);
+        count(byType, type, delta);
+        if (isOpen(status)) {
+            countOpen(vin, delta);
+        }
+    }
+
+    private static void count(LongAdder[] counters, Enum<?> key, int delta) {
+        if (key != null) {
+            counters[key.ordinal()].add(delta);
+        }
+    }
+
+    private void countOpen(String vin, int delta) {
+        if (vin != null) {
+            // drop the VIN once its last open task is completed, so the map only holds VINs with open tasks
+            openByVin.merge(vin, (long) delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+    }
+
+    private static boolean isOpen(TaskStatus status) {
+        return status != null && status != TaskStatus.COMPLETED;
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
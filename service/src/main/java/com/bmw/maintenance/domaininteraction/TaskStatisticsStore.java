@@ -0,0 +1,18 @@
+package com.bmw.maintenance.domaininteraction;
+
+import java.util.Map;
+
+/**
+ * Persistent copy of the {@link TaskStatistics} counters, for reporting straight from the
+ * database.
+ */
+public interface TaskStatisticsStore {
+
+    /**
+     * Replaces the stored statistics with the given ones.
+     *
+     * @param summary the counts per status and type
+     * @param openTasksByVin the number of open tasks of every VIN that has any
+     */
+    void replace(TaskStatistics.Summary summary, Map<String, Long> openTasksByVin);
+}
@@ -0,0 +1,340 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.commons.PreconditionFailedException;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Operation;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Stage;
+import com.bmw.maintenance.commons.serialization.FieldPatcher;
+import com.bmw.maintenance.commons.serialization.VersionedSchemaSerDes;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domaininteraction.MaintenanceTasks;
+import com.bmw.maintenance.domaininteraction.TaskChange;
+import com.bmw.maintenance.domaininteraction.TaskDiagnosticsChange;
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import com.bmw.maintenance.domaininteraction.TaskNotesChange;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskMapper;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Event-sourced {@link MaintenanceTasks}, selected with {@code maintenance.persistence.mode=event-log}
+ * at build time.
+ * <p>
+ * Creating a task writes its initial snapshot and a {@link MaintenanceTaskEventEntity.Type#CREATED}
+ * event. Status and notes updates only insert one small event with the next sequence number
+ * instead of rewriting the aggregate, and every {@code maintenance.event-log.snapshot-interval}
+ * events the snapshot is brought up to date. Reads load the snapshot and apply the at most
+ * {@code snapshot-interval - 1} newer events, so the full history stays in the log while reads
+ * stay bounded.
+ * </p>
+ * <p>
+ * The sequence of a task's latest event is its version. Two writers appending the same
+ * sequence collide on the event primary key; the loser gets a 412 if it sent {@code If-Match}
+ * and a 409 otherwise, as with {@link MaintenanceTaskRepository}. Creations and status
+ * updates are fired as {@link TaskChange} events, notes as {@link TaskNotesChange} events and
+ * the error codes of new diagnostic scans as {@link TaskDiagnosticsChange} events the same way.
+ * </p>
+ */
+@IfBuildProperty(name = "maintenance.persistence.mode", stringValue = "event-log")
+@ApplicationScoped
+public class EventSourcedMaintenanceTaskRepository implements MaintenanceTasks {
+
+    private final MaintenanceTaskMapper mapper;
+    private final VersionedSchemaSerDes<String> serializer;
+    private final FieldPatcher<String> fields;
+    private final MaintenanceTaskSnapshotPanacheRepository snapshots;
+    private final MaintenanceTaskEventPanacheRepository events;
+    private final TaskIdAllocator idAllocator;
+    private final MaintenanceMetrics metrics;
+    private final Event<TaskChange> changes;
+    private final Event<TaskNotesChange> notesChanges;
+    private final Event<TaskDiagnosticsChange> diagnosticsChanges;
+    private final int snapshotInterval;
+
+    @Inject
+    public EventSourcedMaintenanceTaskRepository(MaintenanceTaskMapper mapper, VersionedSchemaSerDes<String> serializer,
+                                                 FieldPatcher<String> fields,
+                                                 MaintenanceTaskSnapshotPanacheRepository snapshots,
+                                                 MaintenanceTaskEventPanacheRepository events,
+                                                 TaskIdAllocator idAllocator, MaintenanceMetrics metrics,
+                                                 Event<TaskChange> changes, Event<TaskNotesChange> notesChanges,
+                                                 Event<TaskDiagnosticsChange> diagnosticsChanges,
+                                                 @ConfigProperty(name = "maintenance.event-log.snapshot-interval", defaultValue = "20") int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("maintenance.event-log.snapshot-interval must be positive");
+        }
+        this.mapper = mapper;
+        this.serializer = serializer;
+        this.fields = fields;
+        this.snapshots = snapshots;
+        this.events = events;
+        this.idAllocator = idAllocator;
+        this.metrics = metrics;
+        this.changes = changes;
+        this.notesChanges = notesChanges;
+        this.diagnosticsChanges = diagnosticsChanges;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * A task's state with the sequence of the last event it includes.
+     */
+    private record State(MaintenanceTaskSchemaVLatest.MaintenanceTask schema, long version) {}
+
+    @Override
+    @Transactional
+    public MaintenanceTask create(MaintenanceTask task) {
+        return counted("create", () -> {
+            TaskType type = task.getType();
+            MaintenanceTaskSchemaVLatest.MaintenanceTask schema =
+                    metrics.time(Operation.CREATE, Stage.MAP, type, () -> mapper.toSchema(task));
+            MaintenanceTaskSnapshotEntity snapshot = newSnapshot(Operation.CREATE, schema);
+
+            metrics.run(Operation.CREATE, Stage.PERSIST, type, () -> {
+                snapshots.persist(snapshot);
+                events.persist(createdEvent(snapshot));
+                events.flush();
+            });
+            changes.fire(created(schema));
+            notesChanges.fire(new TaskNotesChange(schema.getTaskId(), schema.getNotes(), 0L));
+            fireDiagnostics(schema.getTaskId(), schema);
+            return mapper.toDomain(schema, snapshot.getSequence());
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<MaintenanceTask> createAll(List<MaintenanceTask> tasks) {
+        return counted("create_all", () -> {
+            List<MaintenanceTaskSchemaVLatest.MaintenanceTask> schemas = new ArrayList<>(tasks.size());
+            List<MaintenanceTaskSnapshotEntity> newSnapshots = new ArrayList<>(tasks.size());
+            for (MaintenanceTask task : tasks) {
+                MaintenanceTaskSchemaVLatest.MaintenanceTask schema =
+                        metrics.time(Operation.CREATE_BATCH, Stage.MAP, task.getType(), () -> mapper.toSchema(task));
+                schemas.add(schema);
+                newSnapshots.add(newSnapshot(Operation.CREATE_BATCH, schema));
+            }
+
+            metrics.run(Operation.CREATE_BATCH, Stage.PERSIST, MaintenanceMetrics.MIXED_TYPE, () -> {
+                snapshots.persist(newSnapshots);
+                events.persist(newSnapshots.stream().map(EventSourcedMaintenanceTaskRepository::createdEvent));
+                events.flush();
+            });
+
+            List<MaintenanceTask> created = new ArrayList<>(schemas.size());
+            for (MaintenanceTaskSchemaVLatest.MaintenanceTask schema : schemas) {
+                created.add(mapper.toDomain(schema, 0L));
+                changes.fire(created(schema));
+                notesChanges.fire(new TaskNotesChange(schema.getTaskId(), schema.getNotes(), 0L));
+                fireDiagnostics(schema.getTaskId(), schema);
+            }
+            return created;
+        });
+    }
+
+    @Override
+    @Transactional
+    public long updateStatus(String taskId, TaskStatus newStatus, Long expectedVersion) {
+        return counted("update_status", () -> {
+            long id = Long.parseLong(taskId);
+            long version = append(Operation.UPDATE_STATUS, id, MaintenanceTaskEventEntity.Type.STATUS_CHANGED,
+                    newStatus.name(), expectedVersion);
+
+            // VIN and type never change, so the snapshot has them whatever its age; the previous
+            // status is the last one logged, or the snapshot's if the task never changed status
+            MaintenanceTaskSnapshotEntity snapshot = snapshots.findById(id);
+            String type = fields.peek(snapshot.getAggregate(), MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_TYPE);
+            String previousStatus = events.findLatestStatusChange(id, version)
+                    .map(MaintenanceTaskEventEntity::getPayload)
+                    .orElseGet(() -> fields.peek(snapshot.getAggregate(), MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_STATUS));
+            changes.fire(TaskChange.statusChanged(id, snapshot.getVin(), type == null ? null : TaskType.valueOf(type),
+                    previousStatus == null ? null : TaskStatus.valueOf(previousStatus), newStatus, version));
+            return version;
+        });
+    }
+
+    @Override
+    @Transactional
+    public long upsertNotes(String taskId, String notes, Long expectedVersion) {
+        return counted("upsert_notes", () -> {
+            long id = Long.parseLong(taskId);
+            long version = append(Operation.UPDATE_NOTES, id, MaintenanceTaskEventEntity.Type.NOTES_CHANGED, notes,
+                    expectedVersion);
+            notesChanges.fire(new TaskNotesChange(id, notes, version));
+            return version;
+        });
+    }
+
+    private long append(Operation operation, long taskId, MaintenanceTaskEventEntity.Type type, String payload,
+                        Long expectedVersion) {
+        // the latest sequence comes from the primary key index; the aggregate is not read at all
+        long start = metrics.start();
+        Long current = events.latestSequence(taskId);
+        metrics.stage(start, operation, Stage.LOAD, (TaskType) null, current != null);
+        if (current == null) {
+            throw new NotFoundException("Task " + taskId + " not found!");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(current)) {
+            throw new PreconditionFailedException("Task " + taskId + " is at version " + current + ", not " + expectedVersion);
+        }
+
+        MaintenanceTaskEventEntity event =
+                new MaintenanceTaskEventEntity(taskId, current + 1, type, payload, LocalDateTime.now());
+        metrics.run(operation, Stage.PERSIST, (TaskType) null, () -> insert(event, expectedVersion));
+        if (event.getSequence() % snapshotInterval == 0) {
+            metrics.run(operation, Stage.SNAPSHOT, (TaskType) null, () -> snapshot(taskId));
+        }
+        return event.getSequence();
+    }
+
+    /**
+     * Inserts an event right away, so a concurrent writer that took the same sequence is
+     * detected here by the primary key rather than at commit.
+     */
+    private void insert(MaintenanceTaskEventEntity event, Long expectedVersion) {
+        try {
+            events.persist(event);
+            events.flush();
+        } catch (PersistenceException e) {
+            String message = "Task " + event.getTaskId() + " was modified concurrently";
+            if (expectedVersion != null) {
+                throw new PreconditionFailedException(message);
+            }
+            throw new IllegalStateException(message, e);
+        }
+    }
+
+    private void snapshot(long taskId) {
+        MaintenanceTaskSnapshotEntity snapshot = snapshots.findById(taskId);
+        State state = replay(snapshot, events.findAfter(taskId, snapshot.getSequence()));
+        // conditional, so a slower writer cannot replace a newer snapshot with an older one
+        snapshots.update("aggregate = ?1, sequence = ?2, updatedAt = ?3 where taskId = ?4 and sequence < ?2",
+                serializer.serialize(state.schema()), state.version(), LocalDateTime.now(), taskId);
+    }
+
+    @Override
+    public MaintenanceTask findById(String taskId) {
+        return counted("find_by_id", () -> {
+            long id = Long.parseLong(taskId);
+            long start = metrics.start();
+            MaintenanceTaskSnapshotEntity snapshot = snapshots.findById(id);
+            if (snapshot == null) {
+                metrics.stage(start, Operation.READ, Stage.LOAD, (TaskType) null, false);
+                throw new NotFoundException("Task " + id + " not found!");
+            }
+            List<MaintenanceTaskEventEntity> newer = events.findAfter(id, snapshot.getSequence());
+            long loadNanos = System.nanoTime() - start;
+
+            start = metrics.start();
+            State state = replay(snapshot, newer);
+            TaskType type = state.schema().getType();
+            metrics.stage(start, Operation.READ, Stage.REPLAY, type, true);
+            metrics.record(loadNanos, Operation.READ, Stage.LOAD, type, true);
+
+            return metrics.time(Operation.READ, Stage.MAP, type, () -> mapper.toDomain(state.schema(), state.version()));
+        });
+    }
+
+    @Override
+    public List<MaintenanceTask> getAllTasks() {
+        return counted("get_all", () -> currentState(snapshots.listAll(Sort.by("taskId")), events.findAllAfterSnapshots()));
+    }
+
+    @Override
+    public List<MaintenanceTask> findPage(TaskFilter filter, Long afterTaskId, int limit) {
+        return counted("find_page", () -> currentState(snapshots.findPageAfter(filter, afterTaskId == null ? 0L : afterTaskId, limit)));
+    }
+
+    @Override
+    public List<MaintenanceTask> findByVin(String vin) {
+        return counted("find_by_vin", () -> currentState(snapshots.findByVin(vin)));
+    }
+
+    private List<MaintenanceTask> currentState(List<MaintenanceTaskSnapshotEntity> page) {
+        if (page.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = page.stream().map(MaintenanceTaskSnapshotEntity::getTaskId).toList();
+        return currentState(page, events.findAfterSnapshots(ids));
+    }
+
+    private List<MaintenanceTask> currentState(List<MaintenanceTaskSnapshotEntity> page,
+                                               List<MaintenanceTaskEventEntity> newer) {
+        Map<Long, List<MaintenanceTaskEventEntity>> byTask =
+                newer.stream().collect(Collectors.groupingBy(MaintenanceTaskEventEntity::getTaskId));
+        List<MaintenanceTask> tasks = new ArrayList<>(page.size());
+        for (MaintenanceTaskSnapshotEntity snapshot : page) {
+            State state = replay(snapshot, byTask.getOrDefault(snapshot.getTaskId(), List.of()));
+            tasks.add(mapper.toDomain(state.schema(), state.version()));
+        }
+        return tasks;
+    }
+
+    private State replay(MaintenanceTaskSnapshotEntity snapshot, List<MaintenanceTaskEventEntity> newer) {
+        MaintenanceTaskSchemaVLatest.MaintenanceTask schema =
+                (MaintenanceTaskSchemaVLatest.MaintenanceTask) serializer.deserialize(snapshot.getAggregate());
+        long version = snapshot.getSequence();
+        for (MaintenanceTaskEventEntity event : newer) {
+            switch (event.getType()) {
+                case CREATED -> schema = (MaintenanceTaskSchemaVLatest.MaintenanceTask) serializer.deserialize(event.getPayload());
+                case STATUS_CHANGED -> schema.setStatus(TaskStatus.valueOf(event.getPayload()));
+                case NOTES_CHANGED -> schema.setNotes(event.getPayload());
+            }
+            version = event.getSequence();
+        }
+        return new State(schema, version);
+    }
+
+    private MaintenanceTaskSnapshotEntity newSnapshot(Operation operation, MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        long id = idAllocator.nextId();
+        schema.setTaskId(id);
+        String aggregate = metrics.time(operation, Stage.SERIALIZE, schema.getType(), () -> serializer.serialize(schema));
+        LocalDateTime now = LocalDateTime.now();
+        return new MaintenanceTaskSnapshotEntity(id, 0L, aggregate, schema.getVin(), MaintenanceTaskAttributes.of(schema),
+                now, now);
+    }
+
+    private static TaskChange created(MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        return TaskChange.created(schema.getTaskId(), schema.getVin(), schema.getType(), schema.getStatus(), 0L);
+    }
+
+    private void fireDiagnostics(long taskId, MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        MaintenanceTaskSchemaVLatest.DiagnosticScan scan = schema.getDiagnosticScan();
+        if (scan != null && scan.getErrorCodes() != null && !scan.getErrorCodes().isEmpty()) {
+            diagnosticsChanges.fire(new TaskDiagnosticsChange(taskId, scan.getErrorCodes()));
+        }
+    }
+
+    private static MaintenanceTaskEventEntity createdEvent(MaintenanceTaskSnapshotEntity snapshot) {
+        return new MaintenanceTaskEventEntity(snapshot.getTaskId(), snapshot.getSequence(),
+                MaintenanceTaskEventEntity.Type.CREATED, snapshot.getAggregate(), snapshot.getCreatedAt());
+    }
+
+    private <T> T counted(String operation, Supplier<T> call) {
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            metrics.repository(operation, success);
+        }
+    }
+}
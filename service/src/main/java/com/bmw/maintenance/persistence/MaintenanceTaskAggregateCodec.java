@@ -0,0 +1,210 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.serialization.FieldPatcher;
+import com.bmw.maintenance.commons.serialization.SchemaUpcasterChain;
+import com.bmw.maintenance.commons.serialization.VersionedSchema;
+import com.bmw.maintenance.commons.serialization.VersionedSchemaSerDes;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Reads and writes the serialized aggregate of a {@link MaintenanceTaskEntity}.
+ * <p>
+ * New aggregates are written in the format selected by {@code maintenance.aggregate.format}.
+ * Reads look at which column is populated, so rows written as JSON keep working after
+ * switching to the binary format and are converted the next time they are updated.
+ * </p>
+ * <p>
+ * Single-field updates go through {@link #patch(MaintenanceTaskEntity, String, Object)}, which
+ * rewrites the field in place instead of decoding and re-encoding the whole aggregate.
+ * </p>
+ * <p>
+ * Aggregates of an older schema version are migrated to the latest one whenever they are read.
+ * Before one is patched it is upcast and rewritten in full, since the patchers only understand
+ * the latest version. The stored version is projected into the {@code schemaVersion} column so
+ * {@link MaintenanceTaskSchemaMigration} can find the rows still to migrate.
+ * </p>
+ * <p>
+ * Every serializer call is counted in {@link MaintenanceMetrics} by format, with the aggregate size.
+ * </p>
+ */
+@ApplicationScoped
+public class MaintenanceTaskAggregateCodec {
+
+    /**
+     * Storage formats for the aggregate.
+     */
+    public enum Format {
+        /** JSON text in the {@code aggregate} column. */
+        JSON,
+        /** Compact binary in the {@code aggregateData} BLOB column. */
+        BINARY;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    private final VersionedSchemaSerDes<String> jsonSerializer;
+    private final VersionedSchemaSerDes<byte[]> binarySerializer;
+    private final FieldPatcher<String> jsonPatcher;
+    private final FieldPatcher<byte[]> binaryPatcher;
+    private final Format format;
+    private final MaintenanceMetrics metrics;
+    private final SchemaUpcasterChain upcasters;
+
+    @Inject
+    public MaintenanceTaskAggregateCodec(VersionedSchemaSerDes<String> jsonSerializer,
+                                         VersionedSchemaSerDes<byte[]> binarySerializer,
+                                         FieldPatcher<String> jsonPatcher,
+                                         FieldPatcher<byte[]> binaryPatcher,
+                                         @ConfigProperty(name = "maintenance.aggregate.format", defaultValue = "json") Format format,
+                                         MaintenanceMetrics metrics,
+                                         SchemaUpcasterChain upcasters) {
+        this.jsonSerializer = jsonSerializer;
+        this.binarySerializer = binarySerializer;
+        this.jsonPatcher = jsonPatcher;
+        this.binaryPatcher = binaryPatcher;
+        this.format = format;
+        this.metrics = metrics;
+        this.upcasters = upcasters;
+    }
+
+    /**
+     * Serializes the schema into the entity using the configured format.
+     *
+     * @param entity the entity to write to
+     * @param schema the schema to serialize
+     */
+    public void write(MaintenanceTaskEntity entity, VersionedSchema schema) {
+        if (format == Format.BINARY) {
+            entity.setAggregateData(binarySerializer.serialize(schema));
+            entity.setAggregate(null);
+            metrics.serializer(format.tag, "serialize", entity.getAggregateData().length);
+        } else {
+            entity.setAggregate(jsonSerializer.serialize(schema));
+            entity.setAggregateData(null);
+            metrics.serializer(format.tag, "serialize", entity.getAggregate().length());
+        }
+        entity.setSchemaVersion(schema.schemaVersion());
+    }
+
+    /**
+     * Deserializes the aggregate stored in the entity, whichever format it was written in.
+     *
+     * @param entity the entity to read from
+     * @return the deserialized schema
+     */
+    public VersionedSchema read(MaintenanceTaskEntity entity) {
+        if (entity.getAggregateData() != null) {
+            metrics.serializer(Format.BINARY.tag, "deserialize", entity.getAggregateData().length);
+            return binarySerializer.deserialize(entity.getAggregateData());
+        }
+        metrics.serializer(Format.JSON.tag, "deserialize", entity.getAggregate().length());
+        return jsonSerializer.deserialize(entity.getAggregate());
+    }
+
+    /**
+     * Reads the task type from the stored aggregate without deserializing it.
+     *
+     * @param entity the entity to read from
+     * @return the task type, or {@code null} if the aggregate has none
+     */
+    public TaskType type(MaintenanceTaskEntity entity) {
+        if (!isLatest(entity)) {
+            return ((MaintenanceTaskSchemaVLatest.MaintenanceTask) read(entity)).getType();
+        }
+        String type = peek(entity, MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_TYPE);
+        return type == null ? null : TaskType.valueOf(type);
+    }
+
+    /**
+     * Reads the task status from the stored aggregate without deserializing it.
+     *
+     * @param entity the entity to read from
+     * @return the task status, or {@code null} if the aggregate has none
+     */
+    public TaskStatus status(MaintenanceTaskEntity entity) {
+        if (!isLatest(entity)) {
+            return ((MaintenanceTaskSchemaVLatest.MaintenanceTask) read(entity)).getStatus();
+        }
+        String status = peek(entity, MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_STATUS);
+        return status == null ? null : TaskStatus.valueOf(status);
+    }
+
+    private String peek(MaintenanceTaskEntity entity, String field) {
+        if (entity.getAggregateData() != null) {
+            metrics.serializer(Format.BINARY.tag, "peek", entity.getAggregateData().length);
+            return binaryPatcher.peek(entity.getAggregateData(), field);
+        }
+        metrics.serializer(Format.JSON.tag, "peek", entity.getAggregate().length());
+        return jsonPatcher.peek(entity.getAggregate(), field);
+    }
+
+    /**
+     * Replaces one field of the aggregate stored in the entity.
+     * <p>
+     * The field is patched in whichever format the row is stored in. Rows stored in a format
+     * other than the configured one are then rewritten in full, so they still migrate on update.
+     * Rows of an older schema version are upcast and rewritten before the patch.
+     * </p>
+     *
+     * @param entity the entity to update
+     * @param field the serialized field name
+     * @param value the new value
+     */
+    public void patch(MaintenanceTaskEntity entity, String field, Object value) {
+        if (!isLatest(entity)) {
+            write(entity, read(entity));
+        }
+        Format stored = entity.getAggregateData() != null ? Format.BINARY : Format.JSON;
+        if (stored == Format.BINARY) {
+            entity.setAggregateData(binaryPatcher.patch(entity.getAggregateData(), field, value));
+            metrics.serializer(stored.tag, "patch", entity.getAggregateData().length);
+        } else {
+            entity.setAggregate(jsonPatcher.patch(entity.getAggregate(), field, value));
+            metrics.serializer(stored.tag, "patch", entity.getAggregate().length());
+        }
+
+        if (stored != format) {
+            write(entity, read(entity));
+        }
+    }
+
+    /**
+     * Returns the schema version of the stored aggregate.
+     *
+     * @param entity the entity to read from
+     * @return the stored version, from the projected column if it is set
+     */
+    public int version(MaintenanceTaskEntity entity) {
+        if (entity.getSchemaVersion() != null) {
+            return entity.getSchemaVersion();
+        }
+        return entity.getAggregateData() != null
+                ? binarySerializer.version(entity.getAggregateData())
+                : jsonSerializer.version(entity.getAggregate());
+    }
+
+    /**
+     * Checks whether the stored aggregate is at the latest schema version.
+     *
+     * @param entity the entity to check
+     * @return {@code true} if no upcasting is needed
+     */
+    public boolean isLatest(MaintenanceTaskEntity entity) {
+        return upcasters.isLatest(version(entity));
+    }
+
+    /**
+     * Returns the format new aggregates are written in.
+     *
+     * @return the configured format
+     */
+    public Format format() {
+        return format;
+    }
+}
@@ -0,0 +1,126 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import io.quarkus.panache.common.Parameters;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Task type and type-specific details projected out of the aggregate into their own columns.
+ * <p>
+ * Embedded in {@link MaintenanceTaskEntity} and {@link MaintenanceTaskSnapshotEntity}, so list
+ * filters are evaluated by the database on indexed columns instead of on deserialized
+ * aggregates. None of these values change after a task is created, so they are written once
+ * with the new row; rows written before the columns existed are filled in by
+ * {@link MaintenanceTaskAttributesBackfill}.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class MaintenanceTaskAttributes {
+
+    /** JPQL path of the embedded attributes in both entities. */
+    static final String PATH = "attributes";
+
+    /** JPQL assignment of all attribute columns, bound by {@link #parameters}. */
+    static final String UPDATE = PATH + ".type = :type, " + PATH + ".tirePosition = :tirePosition, "
+            + PATH + ".tireServiceType = :tireServiceType, " + PATH + ".scannerType = :scannerType";
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TaskType type;
+
+    /** Set for tire services only. */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private TirePosition tirePosition;
+
+    /** Set for tire services only. */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TireServiceType tireServiceType;
+
+    /** Set for diagnostic scans only. */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 12)
+    private ScannerType scannerType;
+
+    /**
+     * Projects the attributes of an aggregate.
+     *
+     * @param schema the aggregate
+     * @return its attributes
+     */
+    static MaintenanceTaskAttributes of(MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        MaintenanceTaskSchemaVLatest.TireService tire = schema.getTireService();
+        MaintenanceTaskSchemaVLatest.DiagnosticScan scan = schema.getDiagnosticScan();
+        return new MaintenanceTaskAttributes(schema.getType(),
+                tire == null ? null : tire.getTirePosition(),
+                tire == null ? null : tire.getTireServiceType(),
+                scan == null ? null : scan.getScannerType());
+    }
+
+    /**
+     * Binds the values of {@link #UPDATE}.
+     *
+     * @param attributes the values to assign
+     * @return the parameters, to which further ones can be added
+     */
+    static Parameters parameters(MaintenanceTaskAttributes attributes) {
+        return Parameters.with("type", attributes.type)
+                .and("tirePosition", attributes.tirePosition)
+                .and("tireServiceType", attributes.tireServiceType)
+                .and("scannerType", attributes.scannerType);
+    }
+
+    /**
+     * Appends the conditions of a filter to a JPQL query, binding their values.
+     *
+     * @param filter the criteria to apply
+     * @param query the query to append {@code and ...} conditions to
+     * @param parameters the parameters to bind the values to
+     */
+    static void where(TaskFilter filter, StringBuilder query, Parameters parameters) {
+        condition(query, parameters, "vin", "vin", filter.vin());
+        condition(query, parameters, PATH + ".type", "type", filter.type());
+        condition(query, parameters, PATH + ".tirePosition", "tirePosition", filter.tirePosition());
+        condition(query, parameters, PATH + ".tireServiceType", "tireServiceType", filter.tireServiceType());
+        condition(query, parameters, PATH + ".scannerType", "scannerType", filter.scannerType());
+    }
+
+    /**
+     * Checks the criteria of a filter other than the VIN in memory, for stores without these columns.
+     *
+     * @param filter the criteria to check
+     * @return {@code true} if every attribute criterion of {@code filter} is met
+     */
+    boolean matches(TaskFilter filter) {
+        return matches(filter.type(), type) && matches(filter.tirePosition(), tirePosition)
+                && matches(filter.tireServiceType(), tireServiceType) && matches(filter.scannerType(), scannerType);
+    }
+
+    private static boolean matches(Object wanted, Object actual) {
+        return wanted == null || wanted == actual;
+    }
+
+    private static void condition(StringBuilder query, Parameters parameters, String path, String name, Object value) {
+        if (value != null) {
+            query.append(" and ").append(path).append(" = :").append(name);
+            parameters.and(name, value);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.commons.serialization.VersionedSchemaSerDes;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * One-time backfill of the {@link MaintenanceTaskAttributes} columns for rows written before
+ * they existed, in both the aggregate and the snapshot table.
+ * <p>
+ * Works like {@link MaintenanceTaskVinBackfill}: on startup rows without a task type are read
+ * in small batches, each in its own transaction, and their columns are set from the aggregate.
+ * The columns are set with an update query, so the row version and with it the ETag stay the
+ * same. Once every row is filled in the queries return nothing and the backfill is a no-op.
+ * </p>
+ * <p>
+ * Aggregates stored before schema version 3 never held the tire details and those before
+ * version 2 not the scanner type, so such rows only get their task type.
+ * </p>
+ */
+@ApplicationScoped
+public class MaintenanceTaskAttributesBackfill {
+
+    static final int BATCH_SIZE = 500;
+
+    private final MaintenanceTaskAggregateCodec codec;
+    private final MaintenanceTaskPanacheRepository repository;
+    private final VersionedSchemaSerDes<String> snapshotSerializer;
+    private final MaintenanceTaskSnapshotPanacheRepository snapshots;
+
+    @Inject
+    public MaintenanceTaskAttributesBackfill(MaintenanceTaskAggregateCodec codec,
+                                             MaintenanceTaskPanacheRepository repository,
+                                             VersionedSchemaSerDes<String> snapshotSerializer,
+                                             MaintenanceTaskSnapshotPanacheRepository snapshots) {
+        this.codec = codec;
+        this.repository = repository;
+        this.snapshotSerializer = snapshotSerializer;
+        this.snapshots = snapshots;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        long tasks = backfill(afterId -> {
+            List<MaintenanceTaskEntity> batch = repository.findWithoutAttributesAfter(afterId, BATCH_SIZE);
+            for (MaintenanceTaskEntity entity : batch) {
+                repository.updateAttributes(entity.getId(), MaintenanceTaskAttributes.of(
+                        (MaintenanceTaskSchemaVLatest.MaintenanceTask) codec.read(entity)));
+            }
+            return batch.stream().mapToLong(MaintenanceTaskEntity::getId).toArray();
+        });
+        long snapshotted = backfill(afterId -> {
+            List<MaintenanceTaskSnapshotEntity> batch = snapshots.findWithoutAttributesAfter(afterId, BATCH_SIZE);
+            for (MaintenanceTaskSnapshotEntity snapshot : batch) {
+                snapshots.updateAttributes(snapshot.getTaskId(), MaintenanceTaskAttributes.of(
+                        (MaintenanceTaskSchemaVLatest.MaintenanceTask) snapshotSerializer.deserialize(snapshot.getAggregate())));
+            }
+            return batch.stream().mapToLong(MaintenanceTaskSnapshotEntity::getTaskId).toArray();
+        });
+
+        if (tasks + snapshotted > 0) {
+            Log.infof("Backfilled type and detail columns for %d maintenance tasks and %d snapshots", tasks, snapshotted);
+        }
+    }
+
+    /**
+     * Runs batches until one comes back short.
+     *
+     * @param batch fills in the rows after the given id and returns their ids in order
+     * @return the number of rows processed
+     */
+    private static long backfill(LongFunction<long[]> batch) {
+        long total = 0;
+        long lastId = 0L;
+        long[] ids;
+        do {
+            long afterId = lastId;
+            // keyset on id so rows whose aggregate carries no type are not picked up again
+            ids = QuarkusTransaction.requiringNew().call(() -> batch.apply(afterId));
+            if (ids.length > 0) {
+                lastId = ids[ids.length - 1];
+                total += ids.length;
+            }
+        } while (ids.length == BATCH_SIZE);
+        return total;
+    }
+}
@@ -0,0 +1,181 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded cache of deserialized task aggregates, keyed by task id.
+ * <p>
+ * Holds at most {@code maintenance.cache.max-size} entries (0 disables caching) and evicts
+ * according to {@code maintenance.cache.eviction}: {@code w-tiny-lfu} (Caffeine, the default)
+ * or {@code lru}. Cached schemas are shared, so callers must treat them as read-only.
+ * </p>
+ * <p>
+ * To keep a slow reader from caching a row that a concurrent write has already replaced,
+ * readers take a {@link #stamp(long)} before loading and fill through {@link #put(long, Entry, long)};
+ * the entry is dropped again if the task was invalidated in between.
+ * </p>
+ */
+@ApplicationScoped
+public class MaintenanceTaskCache {
+
+    /**
+     * Eviction policies supported by the cache.
+     */
+    public enum Eviction {
+        /** Least recently used. */
+        LRU,
+        /** Window TinyLFU, which also takes access frequency into account. */
+        W_TINY_LFU
+    }
+
+    /**
+     * A cached aggregate together with the entity version it was read at.
+     *
+     * @param schema the aggregate, which must not be modified
+     * @param version the entity version
+     */
+    public record Entry(MaintenanceTaskSchemaVLatest.MaintenanceTask schema, Long version) {}
+
+    /**
+     * Point-in-time cache counters.
+     *
+     * @param hits lookups answered from the cache
+     * @param misses lookups that had to go to the database
+     * @param evictions entries removed to stay within the size bound
+     * @param size current number of entries
+     */
+    public record Stats(long hits, long misses, long evictions, long size) {}
+
+    static final int STAMP_STRIPES = 64;
+
+    private final Map<Long, Entry> entries;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    private final boolean enabled;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Inject
+    public MaintenanceTaskCache(@ConfigProperty(name = "maintenance.cache.max-size", defaultValue = "10000") int maxSize,
+                                @ConfigProperty(name = "maintenance.cache.eviction", defaultValue = "w-tiny-lfu") Eviction eviction,
+                                MeterRegistry registry) {
+        this.enabled = maxSize > 0;
+        this.entries = eviction == Eviction.LRU ? lru(maxSize) : tinyLfu(maxSize);
+
+        FunctionCounter.builder("maintenance.cache.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("maintenance.cache.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("maintenance.cache.evictions", evictions, LongAdder::sum).register(registry);
+        Gauge.builder("maintenance.cache.size", entries, Map::size).register(registry);
+    }
+
+    /**
+     * Returns the cached aggregate for a task.
+     *
+     * @param taskId the task id
+     * @return the cached entry, or {@code null} on a miss
+     */
+    public Entry get(long taskId) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(taskId);
+        (entry == null ? misses : hits).increment();
+        return entry;
+    }
+
+    /**
+     * Returns the invalidation stamp to take before loading a task from the database.
+     *
+     * @param taskId the task id
+     * @return the current stamp for the task
+     */
+    public long stamp(long taskId) {
+        return stamps.get(stripe(taskId));
+    }
+
+    /**
+     * Caches the aggregate for a task unless it was invalidated since {@code stamp} was taken.
+     *
+     * @param taskId the task id
+     * @param entry the aggregate and its version; the aggregate must not be modified afterwards
+     * @param stamp the stamp taken before the aggregate was loaded
+     */
+    public void put(long taskId, Entry entry, long stamp) {
+        if (!enabled) {
+            return;
+        }
+        entries.put(taskId, entry);
+        if (stamps.get(stripe(taskId)) != stamp) {
+            entries.remove(taskId);
+        }
+    }
+
+    /**
+     * Removes a task from the cache.
+     *
+     * @param taskId the task id
+     */
+    public void invalidate(long taskId) {
+        stamps.incrementAndGet(stripe(taskId));
+        entries.remove(taskId);
+    }
+
+    /**
+     * Removes all tasks from the cache.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the current counters.
+     *
+     * @return the cache statistics
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private static int stripe(long taskId) {
+        return (int) (taskId ^ (taskId >>> 32)) & (STAMP_STRIPES - 1);
+    }
+
+    private Map<Long, Entry> tinyLfu(int maxSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 0))
+                .executor(Runnable::run)
+                .<Long, Entry>removalListener((key, value, cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build()
+                .asMap();
+    }
+
+    private Map<Long, Entry> lru(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+}
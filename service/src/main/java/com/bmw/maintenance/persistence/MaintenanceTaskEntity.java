@@ -0,0 +1,76 @@
+package com.bmw.maintenance.persistence;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Persistence entity for maintenance tasks.
+ * <p>
+ * This entity serves as an envelope for storing maintenance task aggregates
+ * in their serialized form, along with metadata about when the entity was
+ * created and last updated.
+ * </p>
+ * <p>
+ * Fields that are queried directly (such as the VIN, the task type and its details) are
+ * projected out of the aggregate into their own indexed columns at write time.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_maintenance_task_vin", columnList = "vin"),
+        @Index(name = "idx_maintenance_task_schema_version", columnList = "schemaVersion"),
+        @Index(name = "idx_maintenance_task_type", columnList = "type, id"),
+        @Index(name = "idx_maintenance_task_tire_position", columnList = "tirePosition, id"),
+        @Index(name = "idx_maintenance_task_tire_service_type", columnList = "tireServiceType, id"),
+        @Index(name = "idx_maintenance_task_scanner_type", columnList = "scannerType, id")
+})
+public class MaintenanceTaskEntity extends PanacheEntityBase {
+    /** Task id, assigned by {@link TaskIdAllocator}; always equal to the aggregate's {@code taskId}. */
+    @Id
+    private Long id;
+
+    /** Serialized representation of the maintenance task aggregate. */
+    @Lob
+    private String aggregate;
+
+    /** Binary representation of the aggregate; used instead of {@link #aggregate} when the binary format is selected. */
+    @Lob
+    private byte[] aggregateData;
+
+    /** VIN copied from the aggregate so tasks can be looked up per vehicle without deserializing. */
+    @Column(length = 17)
+    private String vin;
+
+    /** Type and details copied from the aggregate so list filters can be evaluated without deserializing. */
+    @Embedded
+    private MaintenanceTaskAttributes attributes;
+
+    /** Schema version the aggregate is stored in, so rows still to be migrated can be found without reading them. */
+    private Integer schemaVersion;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /** Optimistic-lock version, incremented on every update and exposed to clients as the ETag. */
+    @Version
+    private Long version;
+
+}
+
+
@@ -0,0 +1,72 @@
+package com.bmw.maintenance.persistence;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Lob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One immutable change to a maintenance task in the event log.
+ * <p>
+ * Events are only ever inserted. The primary key {@code (taskId, sequence)} orders the events
+ * of a task and rejects a second event with the same sequence, which is how concurrent writers
+ * to the same task are detected. The sequence of a task's latest event is its version.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(MaintenanceTaskEventEntity.Key.class)
+public class MaintenanceTaskEventEntity extends PanacheEntityBase {
+
+    /**
+     * Kinds of events.
+     */
+    public enum Type {
+        /** The task was created; the payload is its full aggregate as JSON. */
+        CREATED,
+        /** The status changed; the payload is the new {@code TaskStatus} name. */
+        STATUS_CHANGED,
+        /** The notes were set; the payload is the new notes. */
+        NOTES_CHANGED
+    }
+
+    /**
+     * Primary key of an event.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long taskId;
+        private Long sequence;
+    }
+
+    @Id
+    private Long taskId;
+
+    /** Position of the event in the task's history, starting at {@code 0} for {@link Type#CREATED}. */
+    @Id
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    @Lob
+    private String payload;
+
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,81 @@
+package com.bmw.maintenance.persistence;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@ApplicationScoped
+public class MaintenanceTaskEventPanacheRepository
+        implements PanacheRepositoryBase<MaintenanceTaskEventEntity, MaintenanceTaskEventEntity.Key> {
+
+    /**
+     * Returns the sequence of the latest event of a task using the primary key index.
+     *
+     * @param taskId the task id
+     * @return the latest sequence, or {@code null} if the task has no events
+     */
+    public Long latestSequence(long taskId) {
+        return getEntityManager()
+                .createQuery("select max(e.sequence) from MaintenanceTaskEventEntity e where e.taskId = ?1", Long.class)
+                .setParameter(1, taskId)
+                .getSingleResult();
+    }
+
+    /**
+     * Returns the events of a task after the given sequence, in order.
+     *
+     * @param taskId the task id
+     * @param afterSequence the sequence of the last event already applied
+     * @return the newer events
+     */
+    public List<MaintenanceTaskEventEntity> findAfter(long taskId, long afterSequence) {
+        return list("taskId = ?1 and sequence > ?2", Sort.by("sequence"), taskId, afterSequence);
+    }
+
+    /**
+     * Returns the latest status change of a task before the given sequence.
+     *
+     * @param taskId the task id
+     * @param beforeSequence the sequence to look before
+     * @return the status change, or empty if the task still has its initial status
+     */
+    public Optional<MaintenanceTaskEventEntity> findLatestStatusChange(long taskId, long beforeSequence) {
+        // max() rather than a descending sort with a limit, which H2 answers wrongly on this key
+        return find("taskId = ?1 and sequence = (select max(e.sequence) from MaintenanceTaskEventEntity e"
+                        + " where e.taskId = ?1 and e.sequence < ?2 and e.type = ?3)",
+                taskId, beforeSequence, MaintenanceTaskEventEntity.Type.STATUS_CHANGED)
+                .firstResultOptional();
+    }
+
+    /**
+     * Returns, for each of the given tasks, the events newer than its snapshot.
+     *
+     * @param taskIds the task ids
+     * @return the events ordered by task id and sequence
+     */
+    public List<MaintenanceTaskEventEntity> findAfterSnapshots(Collection<Long> taskIds) {
+        return getEntityManager()
+                .createQuery("select e from MaintenanceTaskEventEntity e, MaintenanceTaskSnapshotEntity s"
+                        + " where s.taskId in ?1 and e.taskId = s.taskId and e.sequence > s.sequence"
+                        + " order by e.taskId, e.sequence", MaintenanceTaskEventEntity.class)
+                .setParameter(1, taskIds)
+                .getResultList();
+    }
+
+    /**
+     * Returns the events newer than their task's snapshot for all tasks.
+     *
+     * @return the events ordered by task id and sequence
+     */
+    public List<MaintenanceTaskEventEntity> findAllAfterSnapshots() {
+        return getEntityManager()
+                .createQuery("select e from MaintenanceTaskEventEntity e, MaintenanceTaskSnapshotEntity s"
+                        + " where e.taskId = s.taskId and e.sequence > s.sequence"
+                        + " order by e.taskId, e.sequence", MaintenanceTaskEventEntity.class)
+                .getResultList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+
+@ApplicationScoped
+public class MaintenanceTaskPanacheRepository implements PanacheRepository<MaintenanceTaskEntity> {
+
+    /**
+     * Finds all entities for a VIN using the indexed {@code vin} column.
+     *
+     * @param vin the vehicle identification number
+     * @return the matching entities
+     */
+    public List<MaintenanceTaskEntity> findByVin(String vin) {
+        return list("vin", vin);
+    }
+
+    /**
+     * Finds the next page of entities matching a filter after the given id, using the primary
+     * key as the keyset.
+     * <p>
+     * The filter is evaluated on the projected columns, so no aggregate is read to decide
+     * whether a row matches.
+     * </p>
+     *
+     * @param filter the criteria rows must match
+     * @param afterId the last id of the previous page
+     * @param limit the maximum number of entities to return
+     * @return the entities ordered by id
+     */
+    public List<MaintenanceTaskEntity> findPageAfter(TaskFilter filter, long afterId, int limit) {
+        StringBuilder query = new StringBuilder("id > :after");
+        Parameters parameters = Parameters.with("after", afterId);
+        MaintenanceTaskAttributes.where(filter, query, parameters);
+        return find(query.toString(), Sort.by("id"), parameters)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * Finds the next batch of entities stored in a schema version older than {@code latestVersion},
+     * or whose version has not been recorded.
+     *
+     * @param latestVersion the current schema version
+     * @param afterId the last id of the previous batch
+     * @param limit the maximum number of entities to return
+     * @return the entities ordered by id
+     */
+    public List<MaintenanceTaskEntity> findOutdatedAfter(int latestVersion, long afterId, int limit) {
+        return find("(schemaVersion is null or schemaVersion < ?1) and id > ?2", Sort.by("id"), latestVersion, afterId)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * Counts the entities {@link #findOutdatedAfter} would return.
+     *
+     * @param latestVersion the current schema version
+     * @return the number of outdated entities
+     */
+    public long countOutdated(int latestVersion) {
+        return count("schemaVersion is null or schemaVersion < ?1", latestVersion);
+    }
+
+    /**
+     * Replaces the stored aggregate of an entity without incrementing its version, provided it
+     * is still at {@code expectedVersion}.
+     * <p>
+     * Meant for rewrites that do not change the aggregate's content, so clients holding the
+     * current ETag are not invalidated.
+     * </p>
+     *
+     * @param rewritten carries the id, the new aggregate columns and the schema version
+     * @param expectedVersion the entity version the aggregate was read at
+     * @return {@code true} if the row was updated, {@code false} if it changed in the meantime
+     */
+    public boolean replaceAggregate(MaintenanceTaskEntity rewritten, long expectedVersion) {
+        return update("aggregate = ?1, aggregateData = ?2, schemaVersion = ?3 where id = ?4 and version = ?5",
+                rewritten.getAggregate(), rewritten.getAggregateData(), rewritten.getSchemaVersion(),
+                rewritten.getId(), expectedVersion) == 1;
+    }
+
+    /**
+     * Finds the next batch of entities whose attribute columns have not been filled in yet.
+     *
+     * @param afterId the last id of the previous batch
+     * @param limit the maximum number of entities to return
+     * @return the entities ordered by id
+     */
+    public List<MaintenanceTaskEntity> findWithoutAttributesAfter(long afterId, int limit) {
+        return find(MaintenanceTaskAttributes.PATH + ".type is null and id > ?1", Sort.by("id"), afterId)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * Sets the attribute columns of an entity without incrementing its version, since they
+     * only repeat what the aggregate already holds.
+     *
+     * @param id the entity id
+     * @param attributes the attributes projected from its aggregate
+     */
+    public void updateAttributes(long id, MaintenanceTaskAttributes attributes) {
+        update(MaintenanceTaskAttributes.UPDATE + " where id = :id", MaintenanceTaskAttributes.parameters(attributes).and("id", id));
+    }
+}
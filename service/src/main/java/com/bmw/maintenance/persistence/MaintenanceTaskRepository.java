@@ -0,0 +1,379 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.commons.PreconditionFailedException;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Operation;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Stage;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domaininteraction.MaintenanceTasks;
+import com.bmw.maintenance.domaininteraction.TaskChange;
+import com.bmw.maintenance.domaininteraction.TaskDiagnosticsChange;
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import com.bmw.maintenance.domaininteraction.TaskNotesChange;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskMapper;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import io.quarkus.arc.DefaultBean;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * {@link MaintenanceTasks} storing each task as one serialized aggregate per row.
+ * <p>
+ * This is the default; other storage modes selected by {@code maintenance.persistence.mode}
+ * replace it.
+ * </p>
+ * <p>
+ * Creations and status updates are fired as {@link TaskChange} events, which the change feed
+ * passes on once the transaction commits, the notes of new and updated tasks as
+ * {@link TaskNotesChange} events for the search index, and the error codes of new diagnostic
+ * scans as {@link TaskDiagnosticsChange} events for the error code index.
+ * </p>
+ */
+@DefaultBean
+@ApplicationScoped
+public class MaintenanceTaskRepository implements MaintenanceTasks {
+
+
+    /** A plain logger rather than {@code io.quarkus.logging.Log}: the benchmarks run this class outside of Quarkus. */
+    private static final Logger LOG = Logger.getLogger(MaintenanceTaskRepository.class);
+
+    private final MaintenanceTaskMapper mapper;
+    private final MaintenanceTaskAggregateCodec codec;
+    private final MaintenanceTaskPanacheRepository repository;
+    private final MaintenanceTaskCache cache;
+    private final TransactionSynchronizationRegistry transactions;
+    private final TaskIdAllocator idAllocator;
+    private final MaintenanceMetrics metrics;
+    private final Event<TaskChange> changes;
+    private final Event<TaskNotesChange> notesChanges;
+    private final Event<TaskDiagnosticsChange> diagnosticsChanges;
+    private final double aggregateLogSampleRate;
+
+    @Inject
+    public MaintenanceTaskRepository(MaintenanceTaskMapper mapper, MaintenanceTaskAggregateCodec codec,
+                                     MaintenanceTaskPanacheRepository repository, MaintenanceTaskCache cache,
+                                     TransactionSynchronizationRegistry transactions, TaskIdAllocator idAllocator,
+                                     MaintenanceMetrics metrics, Event<TaskChange> changes,
+                                     Event<TaskNotesChange> notesChanges,
+                                     Event<TaskDiagnosticsChange> diagnosticsChanges,
+                                     @ConfigProperty(name = "maintenance.log.aggregate-sample-rate", defaultValue = "0") double aggregateLogSampleRate) {
+        this.mapper = mapper;
+        this.codec = codec;
+        this.repository = repository;
+        this.cache = cache;
+        this.transactions = transactions;
+        this.idAllocator = idAllocator;
+        this.metrics = metrics;
+        this.changes = changes;
+        this.notesChanges = notesChanges;
+        this.diagnosticsChanges = diagnosticsChanges;
+        this.aggregateLogSampleRate = aggregateLogSampleRate;
+    }
+
+    @Override
+    @Transactional
+    public MaintenanceTask create(MaintenanceTask task) {
+        boolean success = false;
+        try {
+            TaskType type = task.getType();
+
+            // map domain to schema
+            MaintenanceTaskSchemaVLatest.MaintenanceTask schema =
+                    metrics.time(Operation.CREATE, Stage.MAP, type, () -> mapper.toSchema(task));
+
+            // create entity
+            MaintenanceTaskEntity entity = newEntity(Operation.CREATE, schema);
+            logAggregate(schema);
+
+            //presist
+            metrics.run(Operation.CREATE, Stage.PERSIST, type, () -> repository.persistAndFlush(entity));
+            invalidateCache(entity.getId());
+            changes.fire(created(schema, entity));
+            notesChanges.fire(new TaskNotesChange(entity.getId(), schema.getNotes(), entity.getVersion()));
+            fireDiagnostics(entity.getId(), schema);
+
+            success = true;
+            //retrun the domain model
+            return mapper.toDomain(schema, entity.getVersion());
+        } finally {
+            metrics.repository("create", success);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<MaintenanceTask> createAll(List<MaintenanceTask> tasks) {
+        return counted("create_all", () -> insertAll(tasks));
+    }
+
+    private List<MaintenanceTask> insertAll(List<MaintenanceTask> tasks) {
+        List<MaintenanceTaskSchemaVLatest.MaintenanceTask> schemas = new ArrayList<>(tasks.size());
+        List<MaintenanceTaskEntity> entities = new ArrayList<>(tasks.size());
+        for (MaintenanceTask task : tasks) {
+            MaintenanceTaskSchemaVLatest.MaintenanceTask schema =
+                    metrics.time(Operation.CREATE_BATCH, Stage.MAP, task.getType(), () -> mapper.toSchema(task));
+            schemas.add(schema);
+            entities.add(newEntity(Operation.CREATE_BATCH, schema));
+            logAggregate(schema);
+        }
+
+        // ids are assigned up front, so the inserts are only sent on flush and go out as JDBC batches
+        metrics.run(Operation.CREATE_BATCH, Stage.PERSIST, MaintenanceMetrics.MIXED_TYPE, () -> {
+            repository.persist(entities);
+            repository.flush();
+        });
+
+        List<Long> ids = new ArrayList<>(entities.size());
+        List<MaintenanceTask> created = new ArrayList<>(schemas.size());
+        for (int i = 0; i < schemas.size(); i++) {
+            ids.add(entities.get(i).getId());
+            created.add(mapper.toDomain(schemas.get(i), entities.get(i).getVersion()));
+            changes.fire(created(schemas.get(i), entities.get(i)));
+            notesChanges.fire(new TaskNotesChange(entities.get(i).getId(), schemas.get(i).getNotes(),
+                    entities.get(i).getVersion()));
+            fireDiagnostics(entities.get(i).getId(), schemas.get(i));
+        }
+        invalidateCache(ids);
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public long updateStatus(String taskId, TaskStatus newStatus, Long expectedVersion) {
+        // rewrite just the status inside the stored aggregate
+        return patchField(Operation.UPDATE_STATUS, taskId, MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_STATUS,
+                newStatus, expectedVersion);
+    }
+
+    @Override
+    @Transactional
+    public long upsertNotes(String taskId, String notes, Long expectedVersion) {
+        // rewrite just the notes inside the stored aggregate
+        return patchField(Operation.UPDATE_NOTES, taskId, MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_NOTES,
+                notes, expectedVersion);
+    }
+
+    private long patchField(Operation operation, String taskId, String field, Object value, Long expectedVersion) {
+        boolean success = false;
+        boolean loaded = false;
+        long start = metrics.start();
+        try {
+            MaintenanceTaskEntity entity = repository.findById(Long.parseLong(taskId));
+
+            if (entity == null) {
+                throw new NotFoundException("Task " + taskId + " not found!");
+            }
+            // the type is only needed for tagging, so read it without decoding the aggregate
+            TaskType type = codec.type(entity);
+            TaskStatus previousStatus = operation == Operation.UPDATE_STATUS ? codec.status(entity) : null;
+            metrics.stage(start, operation, Stage.LOAD, type, true);
+            loaded = true;
+            checkVersion(entity, expectedVersion);
+
+            metrics.run(operation, Stage.PATCH, type, () -> codec.patch(entity, field, value));
+            entity.setUpdatedAt(LocalDateTime.now());
+            metrics.run(operation, Stage.FLUSH, type, () -> flushVersioned(entity, expectedVersion));
+            invalidateCache(entity.getId());
+            if (operation == Operation.UPDATE_STATUS) {
+                changes.fire(TaskChange.statusChanged(entity.getId(), entity.getVin(), type, previousStatus,
+                        (TaskStatus) value, entity.getVersion()));
+            } else {
+                notesChanges.fire(new TaskNotesChange(entity.getId(), (String) value, entity.getVersion()));
+            }
+
+            success = true;
+            return entity.getVersion();
+        } finally {
+            if (!loaded) {
+                metrics.stage(start, operation, Stage.LOAD, (TaskType) null, false);
+            }
+            metrics.repository(operation == Operation.UPDATE_STATUS ? "update_status" : "upsert_notes", success);
+        }
+    }
+
+    @Override
+    public MaintenanceTask findById(String taskId) {
+        return counted("find_by_id", () -> read(Long.parseLong(taskId)));
+    }
+
+    private MaintenanceTask read(long id) {
+        long start = metrics.start();
+        MaintenanceTaskCache.Entry cached = cache.get(id);
+        long cacheNanos = System.nanoTime() - start;
+        if (cached != null) {
+            TaskType type = cached.schema().getType();
+            metrics.record(cacheNanos, Operation.READ, Stage.CACHE, type, true);
+            return metrics.time(Operation.READ, Stage.MAP, type, () -> mapper.toDomain(cached.schema(), cached.version()));
+        }
+
+        long stamp = cache.stamp(id);
+        start = metrics.start();
+        MaintenanceTaskEntity entity = repository.findById(id);
+        long loadNanos = System.nanoTime() - start;
+
+        if(entity == null){
+            metrics.record(cacheNanos, Operation.READ, Stage.CACHE, null, true);
+            metrics.record(loadNanos, Operation.READ, Stage.LOAD, null, false);
+            throw new NotFoundException("Task " + id + " not found!");
+        }
+
+        // deserialize; the stages are recorded once the aggregate has told us the task type
+        start = metrics.start();
+        MaintenanceTaskSchemaVLatest.MaintenanceTask schema;
+        try {
+            schema = (MaintenanceTaskSchemaVLatest.MaintenanceTask) codec.read(entity);
+        } catch (RuntimeException e) {
+            metrics.stage(start, Operation.READ, Stage.DESERIALIZE, (TaskType) null, false);
+            throw e;
+        }
+        TaskType type = schema.getType();
+        metrics.stage(start, Operation.READ, Stage.DESERIALIZE, type, true);
+        metrics.record(cacheNanos, Operation.READ, Stage.CACHE, type, true);
+        metrics.record(loadNanos, Operation.READ, Stage.LOAD, type, true);
+        cache.put(id, new MaintenanceTaskCache.Entry(schema, entity.getVersion()), stamp);
+
+        return metrics.time(Operation.READ, Stage.MAP, type, () -> mapper.toDomain(schema, entity.getVersion()));
+    }
+
+    @Override
+    public List<MaintenanceTask> getAllTasks() {
+        return counted("get_all", () -> repository.streamAll()
+                .map(entity -> {
+                    MaintenanceTaskSchemaVLatest.MaintenanceTask schema = (MaintenanceTaskSchemaVLatest.MaintenanceTask) codec.read(entity);
+                    return mapper.toDomain(schema, entity.getVersion());
+                })
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<MaintenanceTask> findPage(TaskFilter filter, Long afterTaskId, int limit) {
+        return counted("find_page", () -> repository.findPageAfter(filter, afterTaskId == null ? 0L : afterTaskId, limit).stream()
+                .map(entity -> {
+                    MaintenanceTaskSchemaVLatest.MaintenanceTask schema = (MaintenanceTaskSchemaVLatest.MaintenanceTask) codec.read(entity);
+                    return mapper.toDomain(schema, entity.getVersion());
+                })
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<MaintenanceTask> findByVin(String vin) {
+        return counted("find_by_vin", () -> repository.findByVin(vin).stream()
+                .map(entity -> {
+                    MaintenanceTaskSchemaVLatest.MaintenanceTask schema = (MaintenanceTaskSchemaVLatest.MaintenanceTask) codec.read(entity);
+                    return mapper.toDomain(schema, entity.getVersion());
+                })
+                .collect(Collectors.toList()));
+    }
+
+    private <T> T counted(String operation, Supplier<T> call) {
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            metrics.repository(operation, success);
+        }
+    }
+
+    private static void checkVersion(MaintenanceTaskEntity entity, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new PreconditionFailedException("Task " + entity.getId() + " is at version " + entity.getVersion()
+                    + ", not " + expectedVersion);
+        }
+    }
+
+    /**
+     * Flushes the update so a concurrent write is detected here by the version check in the
+     * {@code UPDATE ... WHERE version = ?} rather than at commit.
+     */
+    private void flushVersioned(MaintenanceTaskEntity entity, Long expectedVersion) {
+        try {
+            repository.flush();
+        } catch (OptimisticLockException e) {
+            String message = "Task " + entity.getId() + " was modified concurrently";
+            if (expectedVersion != null) {
+                throw new PreconditionFailedException(message);
+            }
+            throw new IllegalStateException(message, e);
+        }
+    }
+
+    private MaintenanceTaskEntity newEntity(Operation operation, MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        long id = idAllocator.nextId();
+        schema.setTaskId(id);
+
+        MaintenanceTaskEntity entity = new MaintenanceTaskEntity();
+        entity.setId(id);
+        metrics.run(operation, Stage.SERIALIZE, schema.getType(), () -> codec.write(entity, schema));
+        entity.setVin(schema.getVin());
+        entity.setAttributes(MaintenanceTaskAttributes.of(schema));
+        LocalDateTime now = LocalDateTime.now();
+        entity.setCreatedAt(now);
+        entity.setUpdatedAt(now);
+        return entity;
+    }
+
+    private static TaskChange created(MaintenanceTaskSchemaVLatest.MaintenanceTask schema, MaintenanceTaskEntity entity) {
+        return TaskChange.created(entity.getId(), schema.getVin(), schema.getType(), schema.getStatus(),
+                entity.getVersion());
+    }
+
+    private void fireDiagnostics(long taskId, MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        MaintenanceTaskSchemaVLatest.DiagnosticScan scan = schema.getDiagnosticScan();
+        if (scan != null && scan.getErrorCodes() != null && !scan.getErrorCodes().isEmpty()) {
+            diagnosticsChanges.fire(new TaskDiagnosticsChange(taskId, scan.getErrorCodes()));
+        }
+    }
+
+    /**
+     * Logs a newly written aggregate: every one at DEBUG, otherwise the configured
+     * {@code maintenance.log.aggregate-sample-rate} fraction of them at INFO.
+     */
+    private void logAggregate(MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(schema);
+        } else if (aggregateLogSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < aggregateLogSampleRate) {
+            LOG.info(schema);
+        }
+    }
+
+    /**
+     * Drops a task from the cache now and again once the surrounding transaction completes,
+     * so readers cannot re-cache the old row between this write and its commit.
+     */
+    private void invalidateCache(long id) {
+        invalidateCache(List.of(id));
+    }
+
+    private void invalidateCache(List<Long> ids) {
+        ids.forEach(cache::invalidate);
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                ids.forEach(cache::invalidate);
+            }
+        });
+    }
+}
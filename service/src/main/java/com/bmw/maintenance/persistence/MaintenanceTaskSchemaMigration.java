@@ -0,0 +1,148 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.commons.serialization.SchemaUpcasterChain;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background rewrite of aggregates stored in an older schema version.
+ * <p>
+ * Reads already upcast old rows on the fly, so the service works while the rewrite is still
+ * running. This job makes the migration permanent: on startup it walks the rows whose
+ * {@code schemaVersion} is older than the latest one in batches of
+ * {@code maintenance.migration.batch-size}, each in its own transaction, and pauses
+ * {@code maintenance.migration.pause} between batches so it does not compete with requests for
+ * connections. Each row is rewritten in the configured format without bumping its version, so
+ * ETags held by clients stay valid; a row updated concurrently is skipped, because the update
+ * has already rewritten it.
+ * </p>
+ * <p>
+ * Progress is exported as {@code maintenance.migration.remaining} and
+ * {@code maintenance.migration.rows}, tagged with the outcome of each row.
+ * </p>
+ */
+@ApplicationScoped
+public class MaintenanceTaskSchemaMigration {
+
+    private final MaintenanceTaskAggregateCodec codec;
+    private final MaintenanceTaskPanacheRepository repository;
+    private final int latestVersion;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pause;
+
+    private final AtomicLong remaining = new AtomicLong();
+    private final Counter migrated;
+    private final Counter skipped;
+    private final Counter failed;
+    private volatile Thread worker;
+
+    @Inject
+    public MaintenanceTaskSchemaMigration(MaintenanceTaskAggregateCodec codec,
+                                          MaintenanceTaskPanacheRepository repository,
+                                          SchemaUpcasterChain upcasters,
+                                          MeterRegistry registry,
+                                          @ConfigProperty(name = "maintenance.migration.enabled", defaultValue = "true") boolean enabled,
+                                          @ConfigProperty(name = "maintenance.migration.batch-size", defaultValue = "200") int batchSize,
+                                          @ConfigProperty(name = "maintenance.migration.pause", defaultValue = "PT0.2S") Duration pause) {
+        this.codec = codec;
+        this.repository = repository;
+        this.latestVersion = upcasters.latestVersion();
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pause = pause;
+
+        Gauge.builder("maintenance.migration.remaining", remaining, AtomicLong::get)
+                .description("Aggregates still stored in an older schema version")
+                .register(registry);
+        this.migrated = rows(registry, "migrated");
+        this.skipped = rows(registry, "skipped");
+        this.failed = rows(registry, "failed");
+    }
+
+    private static Counter rows(MeterRegistry registry, String outcome) {
+        return Counter.builder("maintenance.migration.rows")
+                .description("Aggregates processed by the schema migration")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            worker = Thread.ofPlatform().name("maintenance-schema-migration").daemon().start(this::migrate);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    private void migrate() {
+        try {
+            long total = QuarkusTransaction.requiringNew().call(() -> repository.countOutdated(latestVersion));
+            remaining.set(total);
+            if (total == 0) {
+                return;
+            }
+            Log.infof("Migrating %d maintenance tasks to schema version %d", total, latestVersion);
+
+            long lastId = 0L;
+            int found;
+            do {
+                long afterId = lastId;
+                List<MaintenanceTaskEntity> batch = QuarkusTransaction.requiringNew().call(() -> migrateBatch(afterId));
+                found = batch.size();
+                if (found == batchSize) {
+                    lastId = batch.get(found - 1).getId();
+                    Thread.sleep(pause.toMillis());
+                }
+            } while (found == batchSize);
+            // requests migrate rows as they update them, so count what is actually left
+            remaining.set(QuarkusTransaction.requiringNew().call(() -> repository.countOutdated(latestVersion)));
+
+            Log.infof("Schema migration finished: %.0f migrated, %.0f skipped, %.0f failed",
+                    migrated.count(), skipped.count(), failed.count());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // e.g. the datasource closing on shutdown; rows left behind are picked up on the next start
+            Log.warnf(e, "Schema migration stopped with %d maintenance tasks left", remaining.get());
+        }
+    }
+
+    private List<MaintenanceTaskEntity> migrateBatch(long afterId) {
+        // keyset on id so rows that fail to migrate are not picked up again
+        List<MaintenanceTaskEntity> batch = repository.findOutdatedAfter(latestVersion, afterId, batchSize);
+
+        for (MaintenanceTaskEntity entity : batch) {
+            try {
+                MaintenanceTaskEntity rewritten = new MaintenanceTaskEntity();
+                rewritten.setId(entity.getId());
+                codec.write(rewritten, codec.read(entity));
+                (repository.replaceAggregate(rewritten, entity.getVersion()) ? migrated : skipped).increment();
+            } catch (RuntimeException e) {
+                Log.warnf(e, "Could not migrate maintenance task %d", entity.getId());
+                failed.increment();
+            }
+            remaining.decrementAndGet();
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bmw.maintenance.persistence;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of a maintenance task as of one event in the event log.
+ * <p>
+ * There is one snapshot per task, replaced every {@code maintenance.event-log.snapshot-interval}
+ * events. The current state is this snapshot with the task's events after {@link #sequence}
+ * applied on top.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_maintenance_task_snapshot_vin", columnList = "vin"),
+        @Index(name = "idx_maintenance_task_snapshot_type", columnList = "type, taskId"),
+        @Index(name = "idx_maintenance_task_snapshot_tire_position", columnList = "tirePosition, taskId"),
+        @Index(name = "idx_maintenance_task_snapshot_tire_service_type", columnList = "tireServiceType, taskId"),
+        @Index(name = "idx_maintenance_task_snapshot_scanner_type", columnList = "scannerType, taskId")
+})
+public class MaintenanceTaskSnapshotEntity extends PanacheEntityBase {
+
+    @Id
+    private Long taskId;
+
+    /** Sequence of the last event included in {@link #aggregate}. */
+    private Long sequence;
+
+    /** The task aggregate as JSON. */
+    @Lob
+    private String aggregate;
+
+    /** VIN copied from the aggregate; it never changes after creation. */
+    @Column(length = 17)
+    private String vin;
+
+    /** Type and details copied from the aggregate; like the VIN they never change after creation. */
+    @Embedded
+    private MaintenanceTaskAttributes attributes;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
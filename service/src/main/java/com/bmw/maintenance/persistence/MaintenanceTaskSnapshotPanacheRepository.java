@@ -0,0 +1,67 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+@ApplicationScoped
+public class MaintenanceTaskSnapshotPanacheRepository implements PanacheRepositoryBase<MaintenanceTaskSnapshotEntity, Long> {
+
+    /**
+     * Finds the snapshots of all tasks of a VIN using the indexed {@code vin} column.
+     *
+     * @param vin the vehicle identification number
+     * @return the matching snapshots ordered by task id
+     */
+    public List<MaintenanceTaskSnapshotEntity> findByVin(String vin) {
+        return list("vin", Sort.by("taskId"), vin);
+    }
+
+    /**
+     * Finds the next page of snapshots matching a filter after the given task id.
+     * <p>
+     * The filter is evaluated on the projected columns, which never change after a task is
+     * created, so events newer than the snapshot cannot change whether it matches.
+     * </p>
+     *
+     * @param filter the criteria snapshots must match
+     * @param afterTaskId the last task id of the previous page
+     * @param limit the maximum number of snapshots to return
+     * @return the snapshots ordered by task id
+     */
+    public List<MaintenanceTaskSnapshotEntity> findPageAfter(TaskFilter filter, long afterTaskId, int limit) {
+        StringBuilder query = new StringBuilder("taskId > :after");
+        Parameters parameters = Parameters.with("after", afterTaskId);
+        MaintenanceTaskAttributes.where(filter, query, parameters);
+        return find(query.toString(), Sort.by("taskId"), parameters)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * Finds the next batch of snapshots whose attribute columns have not been filled in yet.
+     *
+     * @param afterTaskId the last task id of the previous batch
+     * @param limit the maximum number of snapshots to return
+     * @return the snapshots ordered by task id
+     */
+    public List<MaintenanceTaskSnapshotEntity> findWithoutAttributesAfter(long afterTaskId, int limit) {
+        return find(MaintenanceTaskAttributes.PATH + ".type is null and taskId > ?1", Sort.by("taskId"), afterTaskId)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * Sets the attribute columns of a snapshot.
+     *
+     * @param taskId the task id
+     * @param attributes the attributes projected from its aggregate
+     */
+    public void updateAttributes(long taskId, MaintenanceTaskAttributes attributes) {
+        update(MaintenanceTaskAttributes.UPDATE + " where taskId = :id", MaintenanceTaskAttributes.parameters(attributes).and("id", taskId));
+    }
+}
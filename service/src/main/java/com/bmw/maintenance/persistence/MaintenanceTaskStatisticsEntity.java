@@ -0,0 +1,68 @@
+package com.bmw.maintenance.persistence;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One task count of the statistics summary table, e.g. the number of tasks in one status.
+ * <p>
+ * The table is a copy of the in-memory counters, rebuilt on startup and refreshed periodically,
+ * so reports can read the counts without aggregating the task table.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(MaintenanceTaskStatisticsEntity.Key.class)
+public class MaintenanceTaskStatisticsEntity extends PanacheEntityBase {
+
+    /**
+     * What a count is grouped by.
+     */
+    public enum Dimension {
+        /** Tasks per {@code TaskStatus}; the key is the status name. */
+        STATUS,
+        /** Tasks per {@code TaskType}; the key is the type name. */
+        TYPE,
+        /** Open tasks per vehicle; the key is the VIN. */
+        OPEN_BY_VIN
+    }
+
+    /**
+     * Primary key of a count.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Dimension dimension;
+        private String name;
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private Dimension dimension;
+
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    private Long taskCount;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.domaininteraction.TaskStatistics;
+import com.bmw.maintenance.domaininteraction.TaskStatisticsStore;
+import com.bmw.maintenance.persistence.MaintenanceTaskStatisticsEntity.Dimension;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link TaskStatisticsStore} keeping the counts in the {@link MaintenanceTaskStatisticsEntity} table.
+ */
+@ApplicationScoped
+public class MaintenanceTaskStatisticsRepository
+        implements PanacheRepositoryBase<MaintenanceTaskStatisticsEntity, MaintenanceTaskStatisticsEntity.Key>,
+        TaskStatisticsStore {
+
+    @Override
+    @Transactional
+    public void replace(TaskStatistics.Summary summary, Map<String, Long> openTasksByVin) {
+        LocalDateTime now = LocalDateTime.now();
+        List<MaintenanceTaskStatisticsEntity> rows = new ArrayList<>(
+                summary.byStatus().size() + summary.byType().size() + openTasksByVin.size());
+        summary.byStatus().forEach((status, count) ->
+                rows.add(new MaintenanceTaskStatisticsEntity(Dimension.STATUS, status.name(), count, now)));
+        summary.byType().forEach((type, count) ->
+                rows.add(new MaintenanceTaskStatisticsEntity(Dimension.TYPE, type.name(), count, now)));
+        openTasksByVin.forEach((vin, count) ->
+                rows.add(new MaintenanceTaskStatisticsEntity(Dimension.OPEN_BY_VIN, vin, count, now)));
+
+        // the whole table is rewritten in one transaction, so readers never see half of an update
+        deleteAll();
+        persist(rows);
+        flush();
+    }
+}
@@ -0,0 +1,68 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+/**
+ * One-time backfill of the indexed {@code vin} column for rows written before it existed.
+ * <p>
+ * Runs on startup and processes rows in small batches, each in its own transaction,
+ * so a large table does not have to be loaded or locked at once. Once every row has a
+ * VIN the query returns nothing and the backfill is a no-op.
+ * </p>
+ */
+@ApplicationScoped
+public class MaintenanceTaskVinBackfill {
+
+    static final int BATCH_SIZE = 500;
+
+    private final MaintenanceTaskAggregateCodec codec;
+    private final MaintenanceTaskPanacheRepository repository;
+
+    @Inject
+    public MaintenanceTaskVinBackfill(MaintenanceTaskAggregateCodec codec,
+                                      MaintenanceTaskPanacheRepository repository) {
+        this.codec = codec;
+        this.repository = repository;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        long total = 0;
+        long lastId = 0L;
+        List<MaintenanceTaskEntity> batch;
+        do {
+            long afterId = lastId;
+            batch = QuarkusTransaction.requiringNew().call(() -> backfillBatch(afterId));
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+                total += batch.size();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        if (total > 0) {
+            Log.infof("Backfilled VIN column for %d maintenance tasks", total);
+        }
+    }
+
+    private List<MaintenanceTaskEntity> backfillBatch(long afterId) {
+        // keyset on id so rows whose aggregate carries no VIN are not picked up again
+        List<MaintenanceTaskEntity> batch = repository
+                .find("vin is null and id > ?1 order by id", afterId)
+                .page(0, BATCH_SIZE)
+                .list();
+
+        for (MaintenanceTaskEntity entity : batch) {
+            MaintenanceTaskSchemaVLatest.MaintenanceTask schema =
+                    (MaintenanceTaskSchemaVLatest.MaintenanceTask) codec.read(entity);
+            entity.setVin(schema.getVin());
+        }
+        return batch;
+    }
+}
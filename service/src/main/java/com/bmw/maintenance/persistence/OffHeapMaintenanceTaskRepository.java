@@ -0,0 +1,56 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.serialization.FieldPatcher;
+import com.bmw.maintenance.commons.serialization.SchemaUpcasterChain;
+import com.bmw.maintenance.commons.serialization.VersionedSchemaSerDes;
+import com.bmw.maintenance.domaininteraction.MaintenanceTasks;
+import com.bmw.maintenance.domaininteraction.TaskChange;
+import com.bmw.maintenance.domaininteraction.TaskDiagnosticsChange;
+import com.bmw.maintenance.domaininteraction.TaskNotesChange;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskMapper;
+import com.bmw.maintenance.persistence.memory.OffHeapStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * {@link MaintenanceTasks} keeping the binary aggregates in memory outside of the Java heap,
+ * selected with {@code maintenance.persistence.mode=memory} at build time.
+ * <p>
+ * The aggregates live in an {@link OffHeapStore} of {@code maintenance.memory.chunk-size} chunks,
+ * so tens of millions of tasks add little to garbage collection. Task ids are looked up in
+ * primitive {@code long} maps split over {@code maintenance.memory.stripes} lock stripes: reads
+ * take no lock and updates only lock the stripe of their task. Tasks are lost on shutdown, which
+ * suits test environments and caching tiers filled from elsewhere. Everything above the store is
+ * shared with the segment files in {@link RecordStoreMaintenanceTaskRepository}.
+ * </p>
+ */
+@IfBuildProperty(name = "maintenance.persistence.mode", stringValue = "memory")
+@Singleton
+public class OffHeapMaintenanceTaskRepository extends RecordStoreMaintenanceTaskRepository {
+
+    @Inject
+    public OffHeapMaintenanceTaskRepository(MaintenanceTaskMapper mapper, VersionedSchemaSerDes<byte[]> serializer,
+                                            FieldPatcher<byte[]> fields, SchemaUpcasterChain upcasters,
+                                            MaintenanceTaskCache cache, MaintenanceMetrics metrics,
+                                            MeterRegistry registry, Event<TaskChange> changes,
+                                            Event<TaskNotesChange> notesChanges,
+                                            Event<TaskDiagnosticsChange> diagnosticsChanges,
+                                            @ConfigProperty(name = "maintenance.memory.chunk-size", defaultValue = "64M") MemorySize chunkSize,
+                                            @ConfigProperty(name = "maintenance.memory.stripes", defaultValue = "64") int stripes) {
+        super(mapper, serializer, fields, upcasters, cache, metrics, changes, notesChanges, diagnosticsChanges,
+                createStore(registry, chunkSize, stripes));
+    }
+
+    private static OffHeapStore createStore(MeterRegistry registry, MemorySize chunkSize, int stripes) {
+        if (chunkSize.asLongValue() > 1 << 30) {
+            throw new IllegalArgumentException("maintenance.memory.chunk-size must be at most 1G");
+        }
+        return new OffHeapStore(new OffHeapStore.Settings((int) chunkSize.asLongValue(), stripes), registry);
+    }
+}
@@ -0,0 +1,119 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domaininteraction.MaintenanceTasks;
+import com.bmw.maintenance.domaininteraction.ReactiveMaintenanceTasks;
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link ReactiveMaintenanceTasks} on top of the JDBC repository.
+ * <p>
+ * H2 has no reactive driver, so the database calls still block, but only on a dedicated pool
+ * with one thread per datasource connection ({@code maintenance.reactive.max-concurrency}).
+ * Callers waiting for a connection are queued operations rather than parked threads, so the
+ * number of requests in flight is bounded by connections instead of by worker threads.
+ * </p>
+ * <p>
+ * Each call runs in its own transaction. Switching to a database with a reactive client only
+ * means replacing this bean with a Hibernate Reactive implementation of the same port.
+ * </p>
+ */
+@ApplicationScoped
+public class OffloadedMaintenanceTasks implements ReactiveMaintenanceTasks {
+
+    static final int STREAM_PAGE_SIZE = 256;
+
+    private final MaintenanceTasks tasks;
+    private final ExecutorService executor;
+
+    @Inject
+    public OffloadedMaintenanceTasks(MaintenanceTasks tasks,
+                                     @ConfigProperty(name = "maintenance.reactive.max-concurrency", defaultValue = "20") int maxConcurrency) {
+        this.tasks = tasks;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "maintenance-db-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public Uni<MaintenanceTask> create(MaintenanceTask task) {
+        return offload(() -> tasks.create(task));
+    }
+
+    @Override
+    public Uni<List<MaintenanceTask>> createAll(List<MaintenanceTask> newTasks) {
+        return offload(() -> tasks.createAll(newTasks));
+    }
+
+    @Override
+    public Uni<Long> updateStatus(String taskId, TaskStatus newStatus, Long expectedVersion) {
+        return offload(() -> tasks.updateStatus(taskId, newStatus, expectedVersion));
+    }
+
+    @Override
+    public Uni<Long> upsertNotes(String taskId, String notes, Long expectedVersion) {
+        return offload(() -> tasks.upsertNotes(taskId, notes, expectedVersion));
+    }
+
+    @Override
+    public Uni<MaintenanceTask> findById(String taskId) {
+        return offload(() -> tasks.findById(taskId));
+    }
+
+    @Override
+    public Uni<List<MaintenanceTask>> findPage(TaskFilter filter, Long afterTaskId, int limit) {
+        return offload(() -> tasks.findPage(filter, afterTaskId, limit));
+    }
+
+    @Override
+    public Multi<MaintenanceTask> streamAll() {
+        // keyset pages instead of one long cursor: no connection is held between requests from the subscriber
+        return Multi.createBy().repeating()
+                .uni(PageCursor::new, cursor -> findPage(TaskFilter.NONE, cursor.after, STREAM_PAGE_SIZE)
+                        .invoke(page -> cursor.advance(page)))
+                .whilst(page -> page.size() == STREAM_PAGE_SIZE)
+                .onItem().transformToIterable(page -> page);
+    }
+
+    @Override
+    public Uni<List<MaintenanceTask>> findByVin(String vin) {
+        return offload(() -> tasks.findByVin(vin));
+    }
+
+    private <T> Uni<T> offload(Supplier<T> call) {
+        return Uni.createFrom().item(() -> QuarkusTransaction.requiringNew().call(call::get))
+                .runSubscriptionOn(executor);
+    }
+
+    private static final class PageCursor {
+        private Long after;
+
+        private void advance(List<MaintenanceTask> page) {
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getTaskId();
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.commons.PreconditionFailedException;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Operation;
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics.Stage;
+import com.bmw.maintenance.commons.serialization.FieldPatcher;
+import com.bmw.maintenance.commons.serialization.SchemaUpcasterChain;
+import com.bmw.maintenance.commons.serialization.VersionedSchemaSerDes;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domaininteraction.MaintenanceTasks;
+import com.bmw.maintenance.domaininteraction.TaskChange;
+import com.bmw.maintenance.domaininteraction.TaskDiagnosticsChange;
+import com.bmw.maintenance.domaininteraction.TaskFilter;
+import com.bmw.maintenance.domaininteraction.TaskNotesChange;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskMapper;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskSchemaVLatest;
+import com.bmw.maintenance.persistence.memory.SortedIdIndex;
+import com.bmw.maintenance.persistence.store.VersionedRecordStore;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.event.Event;
+import jakarta.ws.rs.NotFoundException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link MaintenanceTasks} keeping the binary aggregates in a {@link VersionedRecordStore} under
+ * their task ids, the common part of the storage modes without a database.
+ * <p>
+ * Every create writes the whole aggregate at version {@code 0}; every update patches the stored
+ * bytes and writes them at the next version, checking the expected version inside the store's
+ * {@link VersionedRecordStore#update update} so concurrent updates of a task cannot both win.
+ * Aggregates are always stored in the binary format and upcast when read, like database rows.
+ * </p>
+ * <p>
+ * Task ids continue after the highest stored id, so listings walk the store in key order. A
+ * {@link SortedIdIndex} built from the stored tasks when the repository starts finds the tasks
+ * of a VIN; type and detail filters are checked on the decoded aggregates. Creations and updates
+ * are fired as {@link TaskChange}, {@link TaskNotesChange} and {@link TaskDiagnosticsChange}
+ * events as with {@link MaintenanceTaskRepository}.
+ * </p>
+ * <p>
+ * Subclasses are {@code @Singleton} beans: a client proxy of a normal scope would need a no-args
+ * constructor here, which the final fields rule out.
+ * </p>
+ */
+public abstract class RecordStoreMaintenanceTaskRepository implements MaintenanceTasks {
+
+    private final MaintenanceTaskMapper mapper;
+    private final VersionedSchemaSerDes<byte[]> serializer;
+    private final FieldPatcher<byte[]> fields;
+    private final SchemaUpcasterChain upcasters;
+    private final MaintenanceTaskCache cache;
+    private final MaintenanceMetrics metrics;
+    private final Event<TaskChange> changes;
+    private final Event<TaskNotesChange> notesChanges;
+    private final Event<TaskDiagnosticsChange> diagnosticsChanges;
+    private final VersionedRecordStore store;
+    private final AtomicLong lastId;
+    private final SortedIdIndex idsByVin = new SortedIdIndex();
+
+    protected RecordStoreMaintenanceTaskRepository(MaintenanceTaskMapper mapper, VersionedSchemaSerDes<byte[]> serializer,
+                                                   FieldPatcher<byte[]> fields, SchemaUpcasterChain upcasters,
+                                                   MaintenanceTaskCache cache, MaintenanceMetrics metrics,
+                                                   Event<TaskChange> changes, Event<TaskNotesChange> notesChanges,
+                                                   Event<TaskDiagnosticsChange> diagnosticsChanges,
+                                                   VersionedRecordStore store) {
+        this.mapper = mapper;
+        this.serializer = serializer;
+        this.fields = fields;
+        this.upcasters = upcasters;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.changes = changes;
+        this.notesChanges = notesChanges;
+        this.diagnosticsChanges = diagnosticsChanges;
+        this.store = store;
+        this.lastId = new AtomicLong(store.lastKey());
+        store.records(0).forEach(record -> indexVin(record.key(), decode(record).getVin()));
+    }
+
+    /**
+     * Returns the number of stored tasks.
+     *
+     * @return the number of tasks
+     */
+    protected long size() {
+        return store.size();
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        store.close();
+    }
+
+    @Override
+    public MaintenanceTask create(MaintenanceTask task) {
+        return counted("create", () -> insertAll(Operation.CREATE, List.of(task)).get(0));
+    }
+
+    @Override
+    public List<MaintenanceTask> createAll(List<MaintenanceTask> tasks) {
+        return counted("create_all", () -> insertAll(Operation.CREATE_BATCH, tasks));
+    }
+
+    private List<MaintenanceTask> insertAll(Operation operation, List<MaintenanceTask> tasks) {
+        List<MaintenanceTaskSchemaVLatest.MaintenanceTask> schemas = new ArrayList<>(tasks.size());
+        List<VersionedRecordStore.Record> records = new ArrayList<>(tasks.size());
+        for (MaintenanceTask task : tasks) {
+            MaintenanceTaskSchemaVLatest.MaintenanceTask schema =
+                    metrics.time(operation, Stage.MAP, task.getType(), () -> mapper.toSchema(task));
+            schema.setTaskId(lastId.incrementAndGet());
+            byte[] data = metrics.time(operation, Stage.SERIALIZE, task.getType(), () -> serializer.serialize(schema));
+            schemas.add(schema);
+            records.add(new VersionedRecordStore.Record(schema.getTaskId(), 0L, data));
+        }
+
+        // one call for the whole batch, so the segment files share a single fsync
+        String type = tasks.size() == 1 ? tasks.get(0).getType().name() : MaintenanceMetrics.MIXED_TYPE;
+        metrics.run(operation, Stage.PERSIST, type, () -> store.insertAll(records));
+
+        List<MaintenanceTask> created = new ArrayList<>(schemas.size());
+        for (MaintenanceTaskSchemaVLatest.MaintenanceTask schema : schemas) {
+            long id = schema.getTaskId();
+            indexVin(id, schema.getVin());
+            created.add(mapper.toDomain(schema, 0L));
+            changes.fire(TaskChange.created(id, schema.getVin(), schema.getType(), schema.getStatus(), 0L));
+            notesChanges.fire(new TaskNotesChange(id, schema.getNotes(), 0L));
+            MaintenanceTaskSchemaVLatest.DiagnosticScan scan = schema.getDiagnosticScan();
+            if (scan != null && scan.getErrorCodes() != null && !scan.getErrorCodes().isEmpty()) {
+                diagnosticsChanges.fire(new TaskDiagnosticsChange(id, scan.getErrorCodes()));
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public long updateStatus(String taskId, TaskStatus newStatus, Long expectedVersion) {
+        return patchField(Operation.UPDATE_STATUS, taskId, MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_STATUS,
+                newStatus, expectedVersion);
+    }
+
+    @Override
+    public long upsertNotes(String taskId, String notes, Long expectedVersion) {
+        return patchField(Operation.UPDATE_NOTES, taskId, MaintenanceTaskSchemaVLatest.MaintenanceTask.FIELD_NOTES,
+                notes, expectedVersion);
+    }
+
+    private long patchField(Operation operation, String taskId, String field, Object value, Long expectedVersion) {
+        long id = Long.parseLong(taskId);
+        boolean success = false;
+        long start = metrics.start();
+        MaintenanceTaskSchemaVLatest.MaintenanceTask[] previous = new MaintenanceTaskSchemaVLatest.MaintenanceTask[1];
+        long[] patchedAt = new long[1];
+        try {
+            // the change runs while the store holds off other writes of the task, so the version check cannot race
+            VersionedRecordStore.Record updated = store.update(id, current -> {
+                if (current == null) {
+                    throw new NotFoundException("Task " + taskId + " not found!");
+                }
+                MaintenanceTaskSchemaVLatest.MaintenanceTask schema = decode(current);
+                previous[0] = schema;
+                metrics.stage(start, operation, Stage.LOAD, schema.getType(), true);
+                if (expectedVersion != null && expectedVersion != current.version()) {
+                    throw new PreconditionFailedException("Task " + id + " is at version " + current.version()
+                            + ", not " + expectedVersion);
+                }
+
+                // the patchers only understand the latest schema version
+                byte[] data = upcasters.isLatest(serializer.version(current.value()))
+                        ? current.value() : serializer.serialize(schema);
+                byte[] patched = metrics.time(operation, Stage.PATCH, schema.getType(), () -> fields.patch(data, field, value));
+                patchedAt[0] = metrics.start();
+                return new VersionedRecordStore.Record(id, current.version() + 1, patched);
+            });
+            MaintenanceTaskSchemaVLatest.MaintenanceTask schema = previous[0];
+            metrics.stage(patchedAt[0], operation, Stage.FLUSH, schema.getType(), true);
+            cache.invalidate(id);
+
+            if (operation == Operation.UPDATE_STATUS) {
+                changes.fire(TaskChange.statusChanged(id, schema.getVin(), schema.getType(), schema.getStatus(),
+                        (TaskStatus) value, updated.version()));
+            } else {
+                notesChanges.fire(new TaskNotesChange(id, (String) value, updated.version()));
+            }
+            success = true;
+            return updated.version();
+        } finally {
+            if (previous[0] == null) {
+                metrics.stage(start, operation, Stage.LOAD, (TaskType) null, false);
+            }
+            metrics.repository(operation == Operation.UPDATE_STATUS ? "update_status" : "upsert_notes", success);
+        }
+    }
+
+    @Override
+    public MaintenanceTask findById(String taskId) {
+        return counted("find_by_id", () -> read(Long.parseLong(taskId)));
+    }
+
+    private MaintenanceTask read(long id) {
+        long start = metrics.start();
+        MaintenanceTaskCache.Entry cached = cache.get(id);
+        if (cached != null) {
+            TaskType type = cached.schema().getType();
+            metrics.stage(start, Operation.READ, Stage.CACHE, type, true);
+            return metrics.time(Operation.READ, Stage.MAP, type, () -> mapper.toDomain(cached.schema(), cached.version()));
+        }
+
+        long stamp = cache.stamp(id);
+        start = metrics.start();
+        VersionedRecordStore.Record record = store.read(id);
+        if (record == null) {
+            metrics.stage(start, Operation.READ, Stage.LOAD, (TaskType) null, false);
+            throw new NotFoundException("Task " + id + " not found!");
+        }
+        MaintenanceTaskSchemaVLatest.MaintenanceTask schema = decode(record);
+        metrics.stage(start, Operation.READ, Stage.LOAD, schema.getType(), true);
+        cache.put(id, new MaintenanceTaskCache.Entry(schema, record.version()), stamp);
+
+        return metrics.time(Operation.READ, Stage.MAP, schema.getType(), () -> mapper.toDomain(schema, record.version()));
+    }
+
+    @Override
+    public List<MaintenanceTask> getAllTasks() {
+        return counted("get_all", () -> store.records(0).map(this::toDomain).collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<MaintenanceTask> findPage(TaskFilter filter, Long afterTaskId, int limit) {
+        long after = afterTaskId == null ? 0L : afterTaskId;
+        return counted("find_page", () -> {
+            Stream<VersionedRecordStore.Record> candidates = filter.vin() == null
+                    ? store.records(after)
+                    : read(idsByVin.idsAfter(filter.vin(), after));
+            List<MaintenanceTask> page = new ArrayList<>(Math.min(limit, 256));
+            for (VersionedRecordStore.Record record : (Iterable<VersionedRecordStore.Record>) candidates::iterator) {
+                MaintenanceTaskSchemaVLatest.MaintenanceTask schema = decode(record);
+                if (MaintenanceTaskAttributes.of(schema).matches(filter)) {
+                    page.add(mapper.toDomain(schema, record.version()));
+                    if (page.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return page;
+        });
+    }
+
+    @Override
+    public List<MaintenanceTask> findByVin(String vin) {
+        return counted("find_by_vin", () -> read(idsByVin.idsAfter(vin, 0))
+                .map(this::toDomain)
+                .collect(Collectors.toList()));
+    }
+
+    private Stream<VersionedRecordStore.Record> read(long[] ids) {
+        return Arrays.stream(ids).mapToObj(store::read).filter(Objects::nonNull);
+    }
+
+    private void indexVin(long id, String vin) {
+        if (vin != null) {
+            idsByVin.add(vin, id);
+        }
+    }
+
+    private MaintenanceTask toDomain(VersionedRecordStore.Record record) {
+        return mapper.toDomain(decode(record), record.version());
+    }
+
+    private MaintenanceTaskSchemaVLatest.MaintenanceTask decode(VersionedRecordStore.Record record) {
+        return (MaintenanceTaskSchemaVLatest.MaintenanceTask) serializer.deserialize(record.value());
+    }
+
+    private <T> T counted(String operation, Supplier<T> call) {
+        boolean success = false;
+        try {
+            T result = call.get();
+            success = true;
+            return result;
+        } finally {
+            metrics.repository(operation, success);
+        }
+    }
+}
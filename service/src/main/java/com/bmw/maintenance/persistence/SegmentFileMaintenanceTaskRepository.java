@@ -0,0 +1,76 @@
+package com.bmw.maintenance.persistence;
+
+import com.bmw.maintenance.commons.metrics.MaintenanceMetrics;
+import com.bmw.maintenance.commons.serialization.FieldPatcher;
+import com.bmw.maintenance.commons.serialization.SchemaUpcasterChain;
+import com.bmw.maintenance.commons.serialization.VersionedSchemaSerDes;
+import com.bmw.maintenance.domaininteraction.MaintenanceTasks;
+import com.bmw.maintenance.domaininteraction.TaskChange;
+import com.bmw.maintenance.domaininteraction.TaskDiagnosticsChange;
+import com.bmw.maintenance.domaininteraction.TaskNotesChange;
+import com.bmw.maintenance.persistence.mapper.MaintenanceTaskMapper;
+import com.bmw.maintenance.persistence.segment.SegmentLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@link MaintenanceTasks} keeping the binary aggregates in local segment files instead of a
+ * database, selected with {@code maintenance.persistence.mode=file} at build time.
+ * <p>
+ * The files are a {@link SegmentLog} in {@code maintenance.file.directory}: every create or
+ * update appends the whole aggregate under its task id with the task version, and returns once
+ * it is on disk. Writers waiting at the same time share one fsync. Segments of
+ * {@code maintenance.file.segment-size} are compacted in the background every
+ * {@code maintenance.file.compaction-interval} once less than
+ * {@code maintenance.file.compaction-threshold} of them is still current.
+ * </p>
+ * <p>
+ * Task ids continue after the highest stored id, and the VIN index is rebuilt from the files on
+ * startup. Everything above the log is shared with the off-heap memory in
+ * {@link RecordStoreMaintenanceTaskRepository}.
+ * </p>
+ */
+@IfBuildProperty(name = "maintenance.persistence.mode", stringValue = "file")
+@Singleton
+public class SegmentFileMaintenanceTaskRepository extends RecordStoreMaintenanceTaskRepository {
+
+    @Inject
+    public SegmentFileMaintenanceTaskRepository(MaintenanceTaskMapper mapper, VersionedSchemaSerDes<byte[]> serializer,
+                                                FieldPatcher<byte[]> fields, SchemaUpcasterChain upcasters,
+                                                MaintenanceTaskCache cache, MaintenanceMetrics metrics,
+                                                MeterRegistry registry, Event<TaskChange> changes,
+                                                Event<TaskNotesChange> notesChanges,
+                                                Event<TaskDiagnosticsChange> diagnosticsChanges,
+                                                @ConfigProperty(name = "maintenance.file.directory", defaultValue = "data/maintenance-tasks") Path directory,
+                                                @ConfigProperty(name = "maintenance.file.segment-size", defaultValue = "64M") MemorySize segmentSize,
+                                                @ConfigProperty(name = "maintenance.file.compaction-interval", defaultValue = "PT1M") Duration compactionInterval,
+                                                @ConfigProperty(name = "maintenance.file.compaction-threshold", defaultValue = "0.5") double compactionThreshold) {
+        super(mapper, serializer, fields, upcasters, cache, metrics, changes, notesChanges, diagnosticsChanges,
+                openLog(registry, directory, segmentSize, compactionInterval, compactionThreshold));
+        Log.infof("Opened %d tasks from %s", size(), directory);
+    }
+
+    private static SegmentLog openLog(MeterRegistry registry, Path directory, MemorySize segmentSize,
+                                      Duration compactionInterval, double compactionThreshold) {
+        if (segmentSize.asLongValue() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maintenance.file.segment-size must be below 2G");
+        }
+        try {
+            return SegmentLog.open(new SegmentLog.Settings(directory, (int) segmentSize.asLongValue(),
+                    compactionInterval, compactionThreshold), registry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the task files in " + directory, e);
+        }
+    }
+}
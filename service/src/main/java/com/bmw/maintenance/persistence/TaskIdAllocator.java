@@ -0,0 +1,111 @@
+package com.bmw.maintenance.persistence;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out maintenance task ids that are unique across all instances sharing the database.
+ * <p>
+ * Ids are reserved from the {@code task_id_block} table in blocks of {@code maintenance.id.block-size}
+ * (hi/lo style) in a short transaction of their own. Ids within a block are handed out lock-free;
+ * only the thread that finds the block exhausted goes back to the database. Ids left in a block
+ * when the instance stops are skipped, never reused.
+ * </p>
+ */
+@ApplicationScoped
+public class TaskIdAllocator {
+
+    static final String SEQUENCE_NAME = "maintenance_task";
+    static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private final EntityManager entityManager;
+    private final int blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0L, 0L));
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    @Inject
+    public TaskIdAllocator(EntityManager entityManager,
+                           @ConfigProperty(name = "maintenance.id.block-size", defaultValue = "50") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("maintenance.id.block-size must be positive");
+        }
+        this.entityManager = entityManager;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the next unused task id.
+     *
+     * @return a task id that no other instance will hand out
+     */
+    public long nextId() {
+        while (true) {
+            Block block = current.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // another thread may already have replaced the block while we waited
+            if (current.get() == exhausted) {
+                long start = reserve();
+                current.set(new Block(start, start + blockSize));
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private long reserve() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return QuarkusTransaction.requiringNew().call(this::reserveBlock);
+            } catch (PersistenceException e) {
+                // two instances creating the row at the same time; the loser retries against the winner's row
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private long reserveBlock() {
+        TaskIdBlockEntity row = entityManager.find(TaskIdBlockEntity.class, SEQUENCE_NAME, LockModeType.PESSIMISTIC_WRITE);
+        if (row == null) {
+            // continue after any ids handed out before the block table existed
+            Long maxId = entityManager.createQuery("select max(t.id) from MaintenanceTaskEntity t", Long.class)
+                    .getSingleResult();
+            row = new TaskIdBlockEntity(SEQUENCE_NAME, (maxId == null ? 0L : maxId) + 1);
+            entityManager.persist(row);
+        }
+        long start = row.getNextValue();
+        row.setNextValue(start + blockSize);
+        entityManager.flush();
+        return start;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bmw.maintenance.persistence;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * High-water mark for a block-allocated id sequence.
+ * <p>
+ * Each row holds the next id that has not yet been reserved by any instance. Instances
+ * reserve a range by advancing {@code nextValue} under a row lock and then hand out the
+ * ids in that range from memory.
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "task_id_block")
+public class TaskIdBlockEntity extends PanacheEntityBase {
+    @Id
+    private String name;
+
+    private long nextValue;
+}
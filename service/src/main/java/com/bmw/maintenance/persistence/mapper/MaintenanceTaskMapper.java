@@ -15,6 +15,15 @@ public interface MaintenanceTaskMapper {
      */
     MaintenanceTask toDomain(MaintenanceTaskSchemaVLatest.MaintenanceTask schema);
 
+    /**
+     * Converts a persistence schema and its entity version to a domain object\.
+     *
+     * @param schema the persistence schema
+     * @param version the entity version
+     * @return the domain object
+     */
+    MaintenanceTask toDomain(MaintenanceTaskSchemaVLatest.MaintenanceTask schema, Long version);
+
     /**
      * Converts a domain object to a persistence entity\.
      *
@@ -0,0 +1,65 @@
+package com.bmw.maintenance.persistence.mapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import com.bmw.maintenance.domain.DiagnosticScanDetails;
+import com.bmw.maintenance.domain.MaintenanceDetails;
+import com.bmw.maintenance.domain.MaintenanceTask;
+import com.bmw.maintenance.domain.TireServiceDetails;
+import com.bmw.maintenance.persistence.MaintenanceTaskEntity;
+
+/**
+ * Maps between {@link MaintenanceTaskEntity} and {@link com.bmw.maintenance.domain.MaintenanceTask}.
+ */
+@ApplicationScoped
+public class MaintenanceTaskMapperImpl implements MaintenanceTaskMapper {
+
+    @Override
+    public MaintenanceTask toDomain(MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        return toDomain(schema, null);
+    }
+
+    @Override
+    public MaintenanceTask toDomain(MaintenanceTaskSchemaVLatest.MaintenanceTask schema, Long version) {
+        return MaintenanceTask.reconstitute(
+                schema.getTaskId(),
+                schema.getVin(),
+                schema.getType(),
+                schema.getStatus(),
+                schema.getNotes(),
+                details(schema),
+                version
+        );
+    }
+
+    @Override
+    public MaintenanceTaskSchemaVLatest.MaintenanceTask toSchema(MaintenanceTask task) {
+        MaintenanceTaskSchemaVLatest.MaintenanceTask schema = new MaintenanceTaskSchemaVLatest.MaintenanceTask();
+        schema.setTaskId(task.getTaskId());
+        schema.setVin(task.getVin());
+        schema.setType(task.getType());
+        schema.setStatus(task.getStatus());
+        schema.setNotes(task.getNotes());
+        if (task.getMaintenanceDetails() instanceof DiagnosticScanDetails scan) {
+            schema.setDiagnosticScan(new MaintenanceTaskSchemaVLatest.DiagnosticScan(
+                    scan.getErrorCodes(), scan.getScannerType()));
+        } else if (task.getMaintenanceDetails() instanceof TireServiceDetails tire) {
+            schema.setTireService(new MaintenanceTaskSchemaVLatest.TireService(
+                    tire.getTirePosition(), tire.getTireServiceType()));
+        }
+
+        return schema;
+    }
+
+    private static MaintenanceDetails details(MaintenanceTaskSchemaVLatest.MaintenanceTask schema) {
+        MaintenanceTaskSchemaVLatest.DiagnosticScan scan = schema.getDiagnosticScan();
+        if (scan != null) {
+            return new DiagnosticScanDetails(scan.getErrorCodes(), scan.getScannerType());
+        }
+        MaintenanceTaskSchemaVLatest.TireService tire = schema.getTireService();
+        if (tire != null) {
+            return new TireServiceDetails(tire.getTireServiceType(), tire.getTirePosition());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bmw.maintenance.persistence.mapper;
+
+import com.bmw.maintenance.commons.serialization.SchemaUpcaster;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Migrates maintenance task aggregates from schema version 1 to 2.
+ * <p>
+ * Version 2 added the optional {@code diagnosticScan} details. Version 1 never stored them, so
+ * migrated diagnostic scans keep no error codes and the document is passed on unchanged.
+ * </p>
+ */
+@ApplicationScoped
+public class MaintenanceTaskSchemaV1Upcaster implements SchemaUpcaster {
+
+    @Override
+    public int fromVersion() {
+        return 1;
+    }
+
+    @Override
+    public ObjectNode upcast(ObjectNode document) {
+        return document;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bmw.maintenance.persistence.mapper;
+
+import com.bmw.maintenance.commons.serialization.SchemaUpcaster;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Migrates maintenance task aggregates from schema version 2 to 3.
+ * <p>
+ * Version 3 added the optional {@code tireService} details. Version 2 never stored them, so
+ * migrated tire services keep no position or service type and the document is passed on
+ * unchanged.
+ * </p>
+ */
+@ApplicationScoped
+public class MaintenanceTaskSchemaV2Upcaster implements SchemaUpcaster {
+
+    @Override
+    public int fromVersion() {
+        return 2;
+    }
+
+    @Override
+    public ObjectNode upcast(ObjectNode document) {
+        return document;
+    }
+}
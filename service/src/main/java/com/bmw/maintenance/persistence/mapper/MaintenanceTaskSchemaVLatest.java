@@ -0,0 +1,96 @@
+package com.bmw.maintenance.persistence.mapper;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.bmw.maintenance.commons.serialization.SchemaUpcasterChain;
+import com.bmw.maintenance.commons.serialization.VersionedSchema;
+import com.bmw.maintenance.domain.enums.ScannerType;
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domain.enums.TaskType;
+import com.bmw.maintenance.domain.enums.TirePosition;
+import com.bmw.maintenance.domain.enums.TireServiceType;
+
+import java.util.List;
+
+/**
+ * Contains schema definitions for maintenance task persistence.
+ * <p>
+ * These schemas are used as an intermediate representation between domain objects
+ * and their serialized form, enabling schema versioning and migration.
+ * </p>
+ */
+public interface MaintenanceTaskSchemaVLatest {
+
+    /**
+     * Persistence schema for a maintenance task.
+     * <p>
+     * This schema represents version 3 of the maintenance task data structure
+     * used for serialization and storage. Version 2 added {@link #diagnosticScan} and
+     * version 3 {@link #tireService}. Older stored versions are migrated to it on read
+     * by {@link SchemaUpcasterChain}; bump {@link #SCHEMA_VERSION} and register an upcaster
+     * for the previous version when the structure changes.
+     * </p>
+     */
+    @Data
+    // the version comes first so readers can check it without parsing the rest
+    @JsonPropertyOrder(SchemaUpcasterChain.VERSION_FIELD)
+    @NoArgsConstructor
+    class MaintenanceTask implements VersionedSchema {
+
+        public static final int SCHEMA_VERSION = 3;
+
+        /** Serialized name of the {@code type} field. */
+        public static final String FIELD_TYPE = "type";
+        /** Serialized name of the {@code status} field. */
+        public static final String FIELD_STATUS = "status";
+        /** Serialized name of the {@code notes} field. */
+        public static final String FIELD_NOTES = "notes";
+
+        private Long taskId;
+        private String vin;
+        private TaskType type;
+        private TaskStatus status;
+        private String notes;
+        /** Details of a diagnostic scan; {@code null} for other task types. */
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private DiagnosticScan diagnosticScan;
+        /** Details of a tire service; {@code null} for other task types. */
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private TireService tireService;
+
+        @Override
+        @JsonProperty(value = SchemaUpcasterChain.VERSION_FIELD, access = JsonProperty.Access.READ_ONLY)
+        public int schemaVersion() {
+            return SCHEMA_VERSION;
+        }
+    }
+
+    /**
+     * Persistence schema for the details of a diagnostic scan task.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    class DiagnosticScan {
+
+        private List<String> errorCodes;
+        private ScannerType scannerType;
+    }
+
+    /**
+     * Persistence schema for the details of a tire service task.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    class TireService {
+
+        private TirePosition tirePosition;
+        private TireServiceType tireServiceType;
+    }
+}
@@ -0,0 +1,126 @@
+package com.bmw.maintenance.persistence.memory;
+
+/**
+ * Open-addressing hash map from positive {@code long} keys to {@code long} values, without boxing.
+ * <p>
+ * Keys and values live in two parallel arrays probed linearly; key {@code 0} marks a free slot.
+ * There is no removal. The map is not thread-safe: writers must be serialized, but a lookup may
+ * run concurrently with a writer if the caller discards its result afterwards, as an optimistic
+ * read under a {@link java.util.concurrent.locks.StampedLock} does. Such a lookup never throws
+ * and never probes more than the table size.
+ * </p>
+ */
+final class LongLongHashMap {
+
+    /** Returned by {@link #get(long)} for an absent key. */
+    static final long MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    LongLongHashMap() {
+        keys = new long[MIN_CAPACITY];
+        values = new long[MIN_CAPACITY];
+    }
+
+    /**
+     * Looks up a key.
+     *
+     * @param key the key, greater than {@code 0}
+     * @return the value, or {@link #MISSING} if the key is absent
+     */
+    long get(long key) {
+        long[] keys = this.keys;
+        long[] values = this.values;
+        // a concurrent resize may have swapped only one of the arrays so far
+        if (keys.length != values.length) {
+            return MISSING;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        for (int probes = 0; probes < keys.length; probes++) {
+            long stored = keys[slot];
+            if (stored == key) {
+                return values[slot];
+            }
+            if (stored == 0) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key the key, greater than {@code 0}
+     * @param value the value, not {@link #MISSING}
+     * @return the previous value, or {@link #MISSING} if the key was absent
+     */
+    long put(long key, long value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        // keep the table at most half full so probe sequences stay short
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+        keys[slot] = key;
+        size++;
+        return MISSING;
+    }
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        long[] newValues = new long[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (newKeys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newKeys[slot] = oldKeys[i];
+                newValues[slot] = oldValues[i];
+            }
+        }
+        values = newValues;
+        keys = newKeys;
+    }
+
+    private static int slot(long key, int mask) {
+        // finalizer of MurmurHash3, so sequential ids spread over the table
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+}
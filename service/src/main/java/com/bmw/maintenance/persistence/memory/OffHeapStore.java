@@ -0,0 +1,322 @@
+package com.bmw.maintenance.persistence.memory;
+
+import com.bmw.maintenance.persistence.store.VersionedRecordStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * In-memory store of versioned records whose bytes live outside the Java heap.
+ * <p>
+ * Values are kept in slots carved out of direct {@link ByteBuffer} chunks of {@code chunkSize}
+ * bytes. A slot is {@code capacity(4) | length(4) | version(8) | value}, its capacity a power of
+ * two of at least 64 bytes. An update that still fits is written into the same slot; otherwise
+ * the record moves to a larger slot and the old one goes on the free list of its size, to be
+ * reused by the next record of that size. The garbage collector only sees the chunks.
+ * </p>
+ * <p>
+ * Keys are spread over {@code stripes} stripes, each with a {@link LongLongHashMap} from key to
+ * slot location guarded by a {@link StampedLock}. Writers take the write lock of their key's
+ * stripe, so writes to different stripes run in parallel. Readers take no lock: they look up
+ * and copy the slot under an optimistic stamp and only fall back to the read lock if a writer
+ * got in between.
+ * </p>
+ * <p>
+ * The maps keep no key order, so {@link #records} looks up every key up to the highest one
+ * written. That suits the dense keys of task ids.
+ * </p>
+ */
+public final class OffHeapStore implements VersionedRecordStore {
+
+    /**
+     * How the memory is laid out.
+     *
+     * @param chunkSize size of each off-heap chunk in bytes, a power of two
+     * @param stripes number of lock stripes, rounded up to a power of two
+     */
+    public record Settings(int chunkSize, int stripes) {}
+
+    /** {@code capacity(4) | length(4) | version(8)}. */
+    private static final int SLOT_HEADER = 16;
+    private static final int MIN_SLOT_SHIFT = 6;
+
+    private final int chunkSize;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong lastKey = new AtomicLong();
+
+    // the arena, guarded by arenaLock; chunks is replaced rather than modified so readers need no lock
+    private final ReentrantLock arenaLock = new ReentrantLock();
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private int chunkEnd;
+    private final long[][] freeSlots;
+    private final int[] freeCounts;
+    private volatile long usedBytes;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param settings how the memory is laid out
+     * @param registry registry for the size metrics
+     */
+    public OffHeapStore(Settings settings, MeterRegistry registry) {
+        if (Integer.bitCount(settings.chunkSize()) != 1 || settings.chunkSize() < (1 << MIN_SLOT_SHIFT)) {
+            throw new IllegalArgumentException("Chunk size " + settings.chunkSize() + " must be a power of two of at least 64");
+        }
+        if (settings.stripes() < 1 || settings.stripes() > 1 << 16) {
+            throw new IllegalArgumentException("Stripes must be between 1 and 65536: " + settings.stripes());
+        }
+        this.chunkSize = settings.chunkSize();
+        int stripeCount = Integer.highestOneBit(settings.stripes() * 2 - 1);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeCount - 1;
+        int sizeClasses = Integer.numberOfTrailingZeros(chunkSize) - MIN_SLOT_SHIFT + 1;
+        this.freeSlots = new long[sizeClasses][];
+        this.freeCounts = new int[sizeClasses];
+        this.chunkEnd = chunkSize;
+
+        Gauge.builder("maintenance.memory.records", size, AtomicLong::get)
+                .description("Records in the off-heap store")
+                .register(registry);
+        Gauge.builder("maintenance.memory.bytes", this, store -> (double) store.chunks.length * store.chunkSize)
+                .description("Off-heap memory allocated for records")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("maintenance.memory.used.bytes", this, store -> store.usedBytes)
+                .description("Off-heap memory in slots holding a record")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    public Record read(long key) {
+        Stripe stripe = stripe(key);
+        long stamp = stripe.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Record record = readSlot(key, stripe);
+                if (stripe.lock.validate(stamp)) {
+                    return record;
+                }
+            } catch (RuntimeException e) {
+                // a writer moved things while we read; anything we saw is discarded
+            }
+        }
+        stamp = stripe.lock.readLock();
+        try {
+            return readSlot(key, stripe);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Stores records under keys that were never written.
+     *
+     * @param records the records to store
+     * @throws IllegalStateException if a key is already stored; the records before it stay stored
+     * @throws IllegalArgumentException if a value is larger than a chunk
+     */
+    @Override
+    public void insertAll(List<Record> records) {
+        for (Record record : records) {
+            Stripe stripe = stripe(record.key());
+            long stamp = stripe.lock.writeLock();
+            try {
+                if (stripe.locations.get(record.key()) != LongLongHashMap.MISSING) {
+                    throw new IllegalStateException("Key " + record.key() + " is already stored");
+                }
+                stripe.locations.put(record.key(), write(record));
+                size.incrementAndGet();
+                lastKey.accumulateAndGet(record.key(), Math::max);
+            } finally {
+                stripe.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Replaces the record of a key.
+     * <p>
+     * {@code change} runs under the write lock of the key's stripe, so it can check the current
+     * version without racing another writer of the key. If it throws, nothing is written.
+     * </p>
+     *
+     * @param key the key
+     * @param change computes the new record from the current one, which is {@code null} if the key was never written
+     * @return the new record
+     */
+    @Override
+    public Record update(long key, UnaryOperator<Record> change) {
+        Stripe stripe = stripe(key);
+        long stamp = stripe.lock.writeLock();
+        try {
+            Record next = change.apply(readSlot(key, stripe));
+            if (next.key() != key) {
+                throw new IllegalArgumentException("Update of key " + key + " returned key " + next.key());
+            }
+            long location = stripe.locations.get(key);
+            if (location == LongLongHashMap.MISSING) {
+                stripe.locations.put(key, write(next));
+                size.incrementAndGet();
+                lastKey.accumulateAndGet(key, Math::max);
+                return next;
+            }
+
+            ByteBuffer chunk = chunks[chunkOf(location)];
+            int offset = offsetOf(location);
+            int capacity = chunk.getInt(offset);
+            if (SLOT_HEADER + next.value().length <= capacity) {
+                writeSlot(chunk, offset, capacity, next);
+            } else {
+                stripe.locations.put(key, write(next));
+                free(location, capacity);
+            }
+            return next;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Stream<Record> records(long afterKey) {
+        return LongStream.rangeClosed(afterKey + 1, lastKey.get())
+                .mapToObj(this::read)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public long lastKey() {
+        return lastKey.get();
+    }
+
+    @Override
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Does nothing; the chunks are released with the store by the garbage collector.
+     */
+    @Override
+    public void close() {
+    }
+
+    private Record readSlot(long key, Stripe stripe) {
+        long location = stripe.locations.get(key);
+        if (location == LongLongHashMap.MISSING) {
+            return null;
+        }
+        ByteBuffer chunk = chunks[chunkOf(location)];
+        int offset = offsetOf(location);
+        int length = chunk.getInt(offset + 4);
+        // only an optimistic read racing a writer can see this, and it retries under the lock
+        if (length < 0 || length > chunk.getInt(offset) - SLOT_HEADER) {
+            throw new IllegalStateException("Slot of key " + key + " is being rewritten");
+        }
+        long version = chunk.getLong(offset + 8);
+        byte[] value = new byte[length];
+        chunk.get(offset + SLOT_HEADER, value);
+        return new Record(key, version, value);
+    }
+
+    /** Copies a record into a new slot and returns its location. */
+    private long write(Record record) {
+        int needed = SLOT_HEADER + record.value().length;
+        if (needed > chunkSize) {
+            throw new IllegalArgumentException("Record of " + record.value().length + " bytes does not fit into a chunk of "
+                    + chunkSize + " bytes");
+        }
+        int shift = Math.max(MIN_SLOT_SHIFT, 32 - Integer.numberOfLeadingZeros(needed - 1));
+        long location = allocate(shift);
+        writeSlot(chunks[chunkOf(location)], offsetOf(location), 1 << shift, record);
+        return location;
+    }
+
+    private static void writeSlot(ByteBuffer chunk, int offset, int capacity, Record record) {
+        chunk.putInt(offset, capacity);
+        chunk.putInt(offset + 4, record.value().length);
+        chunk.putLong(offset + 8, record.version());
+        chunk.put(offset + SLOT_HEADER, record.value());
+    }
+
+    private long allocate(int shift) {
+        int sizeClass = shift - MIN_SLOT_SHIFT;
+        int capacity = 1 << shift;
+        arenaLock.lock();
+        try {
+            if (freeCounts[sizeClass] > 0) {
+                usedBytes += capacity;
+                return freeSlots[sizeClass][--freeCounts[sizeClass]];
+            }
+            // slots are powers of two and chunks start aligned, so a slot never straddles two chunks
+            if (chunkEnd + capacity > chunkSize) {
+                ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+                grown[chunks.length] = ByteBuffer.allocateDirect(chunkSize);
+                chunks = grown;
+                chunkEnd = 0;
+            }
+            int offset = chunkEnd;
+            chunkEnd += capacity;
+            usedBytes += capacity;
+            return location(chunks.length - 1, offset);
+        } finally {
+            arenaLock.unlock();
+        }
+    }
+
+    private void free(long location, int capacity) {
+        int sizeClass = Integer.numberOfTrailingZeros(capacity) - MIN_SLOT_SHIFT;
+        arenaLock.lock();
+        try {
+            usedBytes -= capacity;
+            long[] free = freeSlots[sizeClass];
+            if (free == null || freeCounts[sizeClass] == free.length) {
+                freeSlots[sizeClass] = free = Arrays.copyOf(free == null ? new long[0] : free,
+                        Math.max(16, freeCounts[sizeClass] * 2));
+            }
+            free[freeCounts[sizeClass]++] = location;
+        } finally {
+            arenaLock.unlock();
+        }
+    }
+
+    private Stripe stripe(long key) {
+        // Fibonacci hashing: the high bits of the product spread sequential ids over the stripes
+        return stripes[(int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask];
+    }
+
+    private static long location(int chunk, int offset) {
+        return ((long) chunk << 32) | offset;
+    }
+
+    private static int chunkOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    /**
+     * Keys of one stripe and the lock guarding them.
+     */
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private final LongLongHashMap locations = new LongLongHashMap();
+    }
+}
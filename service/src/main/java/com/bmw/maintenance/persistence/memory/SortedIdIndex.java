@@ -0,0 +1,61 @@
+package com.bmw.maintenance.persistence.memory;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Secondary index from a string key, such as a VIN, to the ascending ids stored under it.
+ * <p>
+ * Each key holds a plain {@code long[]} that is copied on every addition, so readers get an
+ * immutable array without locking or boxing. Keys with few ids each, like the tasks of one
+ * vehicle, keep the copies cheap.
+ * </p>
+ */
+public final class SortedIdIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final ConcurrentMap<String, long[]> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Adds an id under a key.
+     *
+     * @param key the key
+     * @param id the id; adding it twice has no effect
+     */
+    public void add(String key, long id) {
+        ids.compute(key, (ignored, current) -> {
+            if (current == null) {
+                return new long[] {id};
+            }
+            int position = Arrays.binarySearch(current, id);
+            if (position >= 0) {
+                return current;
+            }
+            int insertAt = -position - 1;
+            long[] grown = new long[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, insertAt);
+            grown[insertAt] = id;
+            System.arraycopy(current, insertAt, grown, insertAt + 1, current.length - insertAt);
+            return grown;
+        });
+    }
+
+    /**
+     * Returns the ids under a key that are greater than {@code afterId}.
+     *
+     * @param key the key
+     * @param afterId the id to start after, {@code 0} for all of them
+     * @return the ids in ascending order; must not be modified
+     */
+    public long[] idsAfter(String key, long afterId) {
+        long[] all = ids.getOrDefault(key, NONE);
+        if (afterId <= 0 || all.length == 0) {
+            return all;
+        }
+        int position = Arrays.binarySearch(all, afterId);
+        int from = position >= 0 ? position + 1 : -position - 1;
+        return from == 0 ? all : Arrays.copyOfRange(all, from, all.length);
+    }
+}
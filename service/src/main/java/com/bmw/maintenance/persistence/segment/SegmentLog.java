@@ -0,0 +1,637 @@
+package com.bmw.maintenance.persistence.segment;
+
+import com.bmw.maintenance.persistence.store.VersionedRecordStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable store of versioned records in memory-mapped, append-only segment files.
+ * <p>
+ * Every write appends a record {@code length(4) | crc32c(4) | key(8) | version(8) | value} to the
+ * active segment, a file of {@code segmentSize} bytes mapped into memory; when a record does not
+ * fit, the next segment is started. An in-memory index maps every key to the segment and offset
+ * of its latest record, so a read is one lookup and one copy out of the mapping.
+ * </p>
+ * <p>
+ * Writes return once their record is on disk. Writers append under one lock and then wait for
+ * the sync thread, which forces the dirty segments to disk. Everything appended while one sync
+ * runs is covered by the next, so concurrent writers share their fsyncs (group commit). A new
+ * record is visible to readers as soon as it is appended, slightly before it is durable.
+ * </p>
+ * <p>
+ * On open, the segments are replayed in order to rebuild the index, the highest version of
+ * each key winning. A record that is cut short or fails its checksum ends its segment: it can
+ * only be a write that was never acknowledged.
+ * </p>
+ * <p>
+ * Records replaced by a newer version are garbage. Every {@code compactionInterval} the sealed
+ * segments with less than {@code compactionThreshold} of their bytes still live have their live
+ * records copied to the active segment and are then deleted.
+ * </p>
+ */
+public final class SegmentLog implements VersionedRecordStore {
+
+    /**
+     * Where and how the segments are kept.
+     *
+     * @param directory directory of the segment files, created if missing
+     * @param segmentSize size of each segment file in bytes
+     * @param compactionInterval pause between compaction passes
+     * @param compactionThreshold fraction of live bytes below which a sealed segment is compacted
+     */
+    public record Settings(Path directory, int segmentSize, Duration compactionInterval, double compactionThreshold) {}
+
+    private static final Logger LOG = Logger.getLogger(SegmentLog.class);
+
+    /** {@code "MTSG"}, the first bytes of every segment file. */
+    private static final int MAGIC = 0x4D545347;
+    private static final int FORMAT_VERSION = 1;
+    /** {@code magic(4) | format(4) | segment id(8)}. */
+    private static final int SEGMENT_HEADER = 16;
+    /** {@code length(4) | crc32c(4) | key(8) | version(8)}. */
+    private static final int RECORD_HEADER = 24;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d{10})\\.log");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+    private final ConcurrentSkipListMap<Long, Long> index = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Segment active;
+
+    // group commit state, guarded by commits
+    private final Object commits = new Object();
+    private final Set<Segment> dirty = new LinkedHashSet<>();
+    private long appended;
+    private long durable;
+    private RuntimeException syncFailure;
+    private boolean closed;
+
+    private final FileChannel lockChannel;
+    private final Thread syncer;
+    private final ScheduledExecutorService compactor;
+    private final Timer syncs;
+    private final DistributionSummary syncedRecords;
+    private final Counter reclaimed;
+
+    private SegmentLog(Settings settings, MeterRegistry registry) throws IOException {
+        if (settings.segmentSize() < SEGMENT_HEADER + RECORD_HEADER) {
+            throw new IllegalArgumentException("Segment size " + settings.segmentSize() + " is too small");
+        }
+        this.directory = settings.directory();
+        this.segmentSize = settings.segmentSize();
+        this.compactionThreshold = settings.compactionThreshold();
+
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve("LOCK"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = lockChannel.tryLock();
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Segment directory " + directory + " is used by another process");
+        }
+        recover();
+
+        syncs = Timer.builder("maintenance.file.sync")
+                .description("Time spent forcing segment files to disk")
+                .register(registry);
+        syncedRecords = DistributionSummary.builder("maintenance.file.sync.records")
+                .description("Records made durable by one sync")
+                .register(registry);
+        reclaimed = Counter.builder("maintenance.file.compaction.reclaimed")
+                .description("Bytes of superseded records removed by compaction")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("maintenance.file.segments", segments, ConcurrentMap::size)
+                .description("Segment files in use")
+                .register(registry);
+        Gauge.builder("maintenance.file.bytes", this, log -> log.segments.values().stream().mapToLong(s -> s.end).sum())
+                .description("Bytes written to the segment files")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("maintenance.file.live.bytes", this, log -> log.segments.values().stream().mapToLong(s -> s.live.get()).sum())
+                .description("Bytes of the latest record of every key")
+                .baseUnit("bytes")
+                .register(registry);
+
+        syncer = Thread.ofPlatform().name("maintenance-file-sync").daemon().start(this::syncLoop);
+        long interval = settings.compactionInterval().toMillis();
+        compactor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("maintenance-file-compaction").daemon().factory());
+        compactor.scheduleWithFixedDelay(this::compactQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the segments in a directory, replaying them to rebuild the index.
+     *
+     * @param settings where and how the segments are kept
+     * @param registry registry for the sync, size and compaction metrics
+     * @return the open log
+     * @throws IOException if the segments cannot be read or created
+     * @throws IllegalStateException if another process has the directory open or a file is not a segment
+     */
+    public static SegmentLog open(Settings settings, MeterRegistry registry) throws IOException {
+        return new SegmentLog(settings, registry);
+    }
+
+    @Override
+    public Record read(long key) {
+        while (true) {
+            Long location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            Segment segment = segments.get(segmentOf(location));
+            // a segment is only dropped after the index points at the copies of its records
+            if (segment != null) {
+                return segment.read(offsetOf(location));
+            }
+        }
+    }
+
+    @Override
+    public Stream<Record> records(long afterKey) {
+        return index.tailMap(afterKey, false).keySet().stream().map(this::read).filter(Objects::nonNull);
+    }
+
+    @Override
+    public long lastKey() {
+        return index.isEmpty() ? 0 : index.lastKey();
+    }
+
+    @Override
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * Appends records and waits until they are durable.
+     *
+     * @param records the records to write
+     * @throws IllegalArgumentException if a record does not fit into a segment
+     */
+    @Override
+    public void insertAll(List<Record> records) {
+        long ticket = 0;
+        writeLock.lock();
+        try {
+            for (Record record : records) {
+                ticket = append(record);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(ticket);
+    }
+
+    /**
+     * Replaces the record of a key and waits until the new one is durable.
+     * <p>
+     * {@code change} runs while no other write can happen, so it can check the current version
+     * without racing another writer. If it throws, nothing is written.
+     * </p>
+     *
+     * @param key the key
+     * @param change computes the new record from the current one, which is {@code null} if the key was never written
+     * @return the new record
+     */
+    @Override
+    public Record update(long key, UnaryOperator<Record> change) {
+        Record next;
+        long ticket;
+        writeLock.lock();
+        try {
+            next = change.apply(read(key));
+            if (next.key() != key) {
+                throw new IllegalArgumentException("Update of key " + key + " returned key " + next.key());
+            }
+            ticket = append(next);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(ticket);
+        return next;
+    }
+
+    /**
+     * Compacts every sealed segment whose share of live bytes is below the threshold.
+     *
+     * @throws IOException if a segment cannot be written or deleted
+     */
+    public void compact() throws IOException {
+        List<Segment> sealed = new ArrayList<>(segments.values());
+        sealed.sort(Comparator.comparingInt(segment -> segment.id));
+        for (Segment segment : sealed) {
+            long used = segment.end - SEGMENT_HEADER;
+            if (segment != active && segment.live.get() < used * compactionThreshold) {
+                compact(segment);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdownNow();
+        synchronized (commits) {
+            closed = true;
+            commits.notifyAll();
+        }
+        try {
+            // the sync thread finishes the outstanding appends before it exits
+            syncer.join();
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        lockChannel.close();
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(directory)) {
+            files = listed.filter(path -> SEGMENT_FILE.matcher(path.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+
+        Segment last = null;
+        int lastEnd = -1;
+        for (Path path : files) {
+            Matcher name = SEGMENT_FILE.matcher(path.getFileName().toString());
+            name.matches();
+            Segment segment = Segment.open(path, Integer.parseInt(name.group(1)));
+            segments.put(segment.id, segment);
+            lastEnd = replay(segment);
+            last = segment;
+        }
+
+        if (last == null) {
+            active = Segment.create(directory.resolve(fileName(1)), 1, segmentSize);
+            segments.put(active.id, active);
+            syncDirectory();
+            return;
+        }
+        active = last;
+        if (lastEnd >= 0) {
+            // later appends must not be followed by leftovers of the torn write
+            last.zero(lastEnd);
+            last.buffer.force();
+        }
+        for (Segment segment : List.copyOf(segments.values())) {
+            if (segment != active && segment.live.get() == 0) {
+                drop(segment);
+            }
+        }
+    }
+
+    /**
+     * Indexes the records of one segment.
+     *
+     * @return the offset of a torn record that ended the segment, or {@code -1} if it ended cleanly
+     */
+    private int replay(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int offset = SEGMENT_HEADER;
+        while (offset + RECORD_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < RECORD_HEADER || length > buffer.capacity() - offset
+                    || checksum(buffer, offset, length) != buffer.getInt(offset + 4)) {
+                LOG.warnf("Segment %s ends with an incomplete record at offset %d, which is dropped",
+                        segment.path, offset);
+                segment.end = offset;
+                return offset;
+            }
+            long key = buffer.getLong(offset + 8);
+            long version = buffer.getLong(offset + 16);
+            Long current = index.get(key);
+            if (current == null || version >= versionAt(current)) {
+                index.put(key, location(segment.id, offset));
+                segment.live.addAndGet(length);
+                if (current != null) {
+                    release(current);
+                }
+            }
+            offset += length;
+        }
+        segment.end = offset;
+        return -1;
+    }
+
+    /**
+     * Writes one record to the active segment; the caller holds the write lock.
+     *
+     * @return the commit ticket to wait for
+     */
+    private long append(Record record) {
+        int length = RECORD_HEADER + record.value().length;
+        if (length > segmentSize - SEGMENT_HEADER) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit into a segment of "
+                    + segmentSize + " bytes");
+        }
+        Segment segment = writable(length);
+        int offset = segment.end;
+        ByteBuffer buffer = segment.buffer;
+        buffer.putLong(offset + 8, record.key());
+        buffer.putLong(offset + 16, record.version());
+        buffer.put(offset + RECORD_HEADER, record.value());
+        buffer.putInt(offset + 4, checksum(buffer, offset, length));
+        buffer.putInt(offset, length);
+        return appended(segment, record.key(), offset, length);
+    }
+
+    /**
+     * Copies a record as it is to the active segment; the caller holds the write lock.
+     *
+     * @return the commit ticket to wait for
+     */
+    private long copy(Segment from, int fromOffset, int length, long key) {
+        Segment segment = writable(length);
+        byte[] bytes = new byte[length];
+        from.buffer.get(fromOffset, bytes);
+        segment.buffer.put(segment.end, bytes);
+        return appended(segment, key, segment.end, length);
+    }
+
+    private long appended(Segment segment, long key, int offset, int length) {
+        segment.end = offset + length;
+        segment.live.addAndGet(length);
+        Long previous = index.put(key, location(segment.id, offset));
+        if (previous != null) {
+            release(previous);
+        }
+        synchronized (commits) {
+            if (closed) {
+                throw new IllegalStateException("Segment log is closed");
+            }
+            dirty.add(segment);
+            commits.notifyAll();
+            return ++appended;
+        }
+    }
+
+    /**
+     * Returns the active segment, starting the next one if {@code length} more bytes do not fit.
+     */
+    private Segment writable(int length) {
+        if (active.end + length <= active.buffer.capacity()) {
+            return active;
+        }
+        try {
+            Segment next = Segment.create(directory.resolve(fileName(active.id + 1)), active.id + 1, segmentSize);
+            syncDirectory();
+            segments.put(next.id, next);
+            active = next;
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start segment " + (active.id + 1), e);
+        }
+    }
+
+    private void awaitDurable(long ticket) {
+        synchronized (commits) {
+            while (durable < ticket) {
+                if (syncFailure != null) {
+                    throw new IllegalStateException("Segment files could not be synced", syncFailure);
+                }
+                try {
+                    commits.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a write to reach disk", e);
+                }
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            long target;
+            List<Segment> toSync;
+            synchronized (commits) {
+                while (appended == durable && !closed) {
+                    try {
+                        commits.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (appended == durable) {
+                    return;
+                }
+                target = appended;
+                toSync = new ArrayList<>(dirty);
+                dirty.clear();
+            }
+
+            long start = System.nanoTime();
+            try {
+                for (Segment segment : toSync) {
+                    segment.buffer.force();
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Could not sync segment files; rejecting further writes", e);
+                synchronized (commits) {
+                    syncFailure = e;
+                    closed = true;
+                    commits.notifyAll();
+                }
+                return;
+            }
+            syncs.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            synchronized (commits) {
+                syncedRecords.record(target - durable);
+                durable = target;
+                commits.notifyAll();
+            }
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Segment compaction failed; retrying in the next pass");
+        }
+    }
+
+    private void compact(Segment segment) throws IOException {
+        long ticket = 0;
+        long copied = 0;
+        int offset = SEGMENT_HEADER;
+        while (offset < segment.end) {
+            int length = segment.buffer.getInt(offset);
+            long key = segment.buffer.getLong(offset + 8);
+            Long location = location(segment.id, offset);
+            // one record per lock, so writers are only held up for a single copy
+            writeLock.lock();
+            try {
+                if (location.equals(index.get(key))) {
+                    ticket = copy(segment, offset, length, key);
+                    copied += length;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            offset += length;
+        }
+        awaitDurable(ticket);
+        reclaimed.increment(segment.end - SEGMENT_HEADER - copied);
+        LOG.debugf("Compacted %s, keeping %d of %d bytes", segment.path, copied, segment.end - SEGMENT_HEADER);
+        drop(segment);
+    }
+
+    private void drop(Segment segment) throws IOException {
+        segments.remove(segment.id);
+        segment.channel.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            // e.g. still mapped on Windows; it holds no live record, so the next open drops it
+            LOG.warnf(e, "Could not delete compacted segment %s", segment.path);
+        }
+    }
+
+    private void release(long location) {
+        Segment segment = segments.get(segmentOf(location));
+        if (segment != null) {
+            segment.live.addAndGet(-segment.buffer.getInt(offsetOf(location)));
+        }
+    }
+
+    private long versionAt(long location) {
+        return segments.get(segmentOf(location)).buffer.getLong(offsetOf(location) + 16);
+    }
+
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not every platform can sync a directory; the file itself is synced with its records
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, length - 8));
+        return (int) crc.getValue();
+    }
+
+    private static long location(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    private static String fileName(int id) {
+        return String.format("segment-%010d.log", id);
+    }
+
+    /**
+     * One mapped segment file.
+     */
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        /** First free byte; written under the write lock, read by compaction and the gauges. */
+        private volatile int end;
+        /** Bytes of the records in this segment that the index still points to. */
+        private final AtomicLong live = new AtomicLong();
+
+        private Segment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.end = SEGMENT_HEADER;
+        }
+
+        static Segment create(Path path, int id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            Segment segment = new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(4, FORMAT_VERSION);
+            segment.buffer.putLong(8, id);
+            segment.buffer.force();
+            return segment;
+        }
+
+        static Segment open(Path path, int id) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size < SEGMENT_HEADER || size > Integer.MAX_VALUE) {
+                channel.close();
+                throw new IllegalStateException(path + " is not a segment file");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || buffer.getLong(8) != id) {
+                channel.close();
+                throw new IllegalStateException(path + " is not a segment file of format " + FORMAT_VERSION);
+            }
+            return new Segment(id, path, channel, buffer);
+        }
+
+        Record read(int offset) {
+            int length = buffer.getInt(offset);
+            byte[] value = new byte[length - RECORD_HEADER];
+            buffer.get(offset + RECORD_HEADER, value);
+            return new Record(buffer.getLong(offset + 8), buffer.getLong(offset + 16), value);
+        }
+
+        void zero(int from) {
+            byte[] zeros = new byte[64 * 1024];
+            for (int offset = from; offset < buffer.capacity(); offset += zeros.length) {
+                buffer.put(offset, zeros, 0, Math.min(zeros.length, buffer.capacity() - offset));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bmw.maintenance.persistence.store;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Store of versioned byte values under {@code long} keys, the part of a storage mode that differs
+ * between the segment files and the off-heap memory.
+ * <p>
+ * Keys are written once by {@link #insertAll} and then only replaced through {@link #update},
+ * which hands the current record to a change that runs without racing other writers of the key.
+ * That is all {@code RecordStoreMaintenanceTaskRepository} needs for optimistic versioning.
+ * </p>
+ */
+public interface VersionedRecordStore extends Closeable {
+
+    /**
+     * A versioned value stored under a key.
+     *
+     * @param key the key, greater than {@code 0}
+     * @param version the version, increasing with every write of the key
+     * @param value the stored bytes
+     */
+    record Record(long key, long version, byte[] value) {}
+
+    /**
+     * Reads the latest record of a key.
+     *
+     * @param key the key
+     * @return the record, or {@code null} if the key was never written
+     */
+    Record read(long key);
+
+    /**
+     * Streams the latest record of every key above {@code afterKey}, in key order.
+     *
+     * @param afterKey the key to start after
+     * @return the records
+     */
+    Stream<Record> records(long afterKey);
+
+    /**
+     * Returns the highest key written.
+     *
+     * @return the highest key, or {@code 0} if the store is empty
+     */
+    long lastKey();
+
+    /**
+     * Returns the number of keys.
+     *
+     * @return the number of keys
+     */
+    long size();
+
+    /**
+     * Stores records under keys that were never written and returns once they are kept.
+     *
+     * @param records the records to store
+     * @throws IllegalArgumentException if a value does not fit into the store's unit of space
+     */
+    void insertAll(List<Record> records);
+
+    /**
+     * Replaces the record of a key.
+     * <p>
+     * {@code change} runs while no other write of the key can happen, so it can check the current
+     * version. If it throws, nothing is written.
+     * </p>
+     *
+     * @param key the key
+     * @param change computes the new record from the current one, which is {@code null} if the key was never written
+     * @return the new record
+     */
+    Record update(long key, UnaryOperator<Record> change);
+}
@@ -0,0 +1,86 @@
+package com.bmw.maintenance.api;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The CSV export of {@link MaintenanceTaskResource} posted back to its import.
+ */
+@QuarkusTest
+class TaskCsvRoundTripTest {
+
+    private static final String TASKS = "/api/maintenance-tasks";
+    private static final String NOTES = "Front rotors worn,\n\"replace\" at next visit\r\n\nsecond paragraph";
+
+    @Test
+    void importsItsOwnExport() {
+        String vin = "WBA3B5C50DF900001";
+        createTask(Map.of("vin", vin, "type", "OIL_CHANGE", "notes", NOTES));
+        createTask(Map.of("vin", vin, "type", "TIRE_SERVICE", "notes", "rotate",
+                "additionalDetails", Map.of("tirePosition", "FRONT_LEFT", "tireServiceType", "TIRE_ROTATION")));
+        createTask(Map.of("vin", vin, "type", "DIAGNOSTIC_SCAN",
+                "additionalDetails", Map.of("scannerType", "ADVANCED", "errorCodes", List.of("P0420", "P0300"))));
+
+        String export = given().accept("text/csv")
+                .when().get(TASKS)
+                .then().statusCode(200)
+                .extract().asString();
+        int exported = given().when().get(TASKS).then().statusCode(200).extract().jsonPath().getList("$").size();
+
+        given().contentType("text/csv").body(export)
+                .when().post(TASKS + "/import")
+                .then().statusCode(200)
+                .body("imported", equalTo(exported))
+                .body("rejected", equalTo(0));
+
+        List<Map<String, Object>> tasks = given().queryParam("vin", vin)
+                .when().get(TASKS)
+                .then().statusCode(200)
+                .extract().jsonPath().<Map<String, Object>>getList("$").stream()
+                .sorted(Comparator.comparingLong(task -> ((Number) task.get("taskId")).longValue()))
+                .toList();
+        assertEquals(6, tasks.size());
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> original = tasks.get(i);
+            Map<String, Object> imported = tasks.get(i + 3);
+            assertEquals(original.get("type"), imported.get("type"));
+            assertEquals(original.get("maintenanceDetails"), imported.get("maintenanceDetails"));
+        }
+        // line breaks inside a quoted field are read back as \n
+        assertEquals(NOTES.replace("\r\n", "\n"), tasks.get(3).get("notes"));
+    }
+
+    @Test
+    void reportsRecordsByTheirFirstLine() {
+        String part = """
+                vin,type,notes
+                WBA3B5C50DF900002,OIL_CHANGE,"spans
+                two lines"
+                WBA3B5C50DF900002,NOT_A_TYPE,"also
+                spans"
+                WBA3B5C50DF900002,OIL_CHANGE,"never closed
+                """;
+
+        given().contentType("text/csv").queryParam("firstLine", 40).body(part)
+                .when().post(TASKS + "/import")
+                .then().statusCode(200)
+                .body("imported", equalTo(1))
+                .body("rejected", equalTo(2))
+                .body("errors.line", equalTo(List.of(42, 44)));
+    }
+
+    private static void createTask(Map<String, Object> request) {
+        given().contentType(ContentType.JSON).body(request)
+                .when().post(TASKS)
+                .then().statusCode(201);
+    }
+}
@@ -0,0 +1,142 @@
+package com.bmw.maintenance.api;
+
+import com.bmw.maintenance.domain.enums.TaskStatus;
+import com.bmw.maintenance.domaininteraction.MaintenanceTaskService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Updates of {@link MaintenanceTaskResource} guarded by the task version, with and without {@code If-Match}.
+ */
+@QuarkusTest
+class TaskVersionPreconditionTest {
+
+    private static final String TASKS = "/api/maintenance-tasks";
+
+    @Inject
+    MaintenanceTaskService maintenanceTaskService;
+
+    @Inject
+    DataSource dataSource;
+
+    @Test
+    void rejectsAStaleIfMatch() {
+        String taskId = createTask();
+        String etag = given().when().get(TASKS + "/" + taskId).then().statusCode(200).extract().header("ETag");
+
+        String next = updateStatus(taskId, etag, TaskStatus.IN_PROGRESS)
+                .then().statusCode(204)
+                .extract().header("ETag");
+
+        updateStatus(taskId, etag, TaskStatus.COMPLETED)
+                .then().statusCode(412)
+                .body("code", equalTo("PRECONDITION_FAILED"));
+        given().contentType(ContentType.JSON).header("If-Match", etag).body(Map.of("notes", "too late"))
+                .when().put(TASKS + "/" + taskId + "/notes")
+                .then().statusCode(412);
+
+        updateStatus(taskId, next, TaskStatus.COMPLETED).then().statusCode(204);
+        given().when().get(TASKS + "/" + taskId)
+                .then().statusCode(200)
+                .body("status", equalTo("COMPLETED"));
+    }
+
+    @Test
+    void rejectsAnUpdateOverwrittenConcurrently() throws Exception {
+        assertEquals(409, racingUpdate(false).statusCode());
+    }
+
+    @Test
+    void rejectsAnIfMatchOverwrittenConcurrently() throws Exception {
+        // the version still matched when it was checked, so the loser gets the If-Match answer
+        assertEquals(412, racingUpdate(true).statusCode());
+    }
+
+    /**
+     * Sends a status update that reads the task while another transaction has changed it but not yet
+     * committed, and returns its response once that transaction has committed.
+     *
+     * @param ifMatch whether to send the ETag read before the race
+     */
+    private ExtractableResponse<Response> racingUpdate(boolean ifMatch) throws Exception {
+        String taskId = createTask();
+        String etag = given().when().get(TASKS + "/" + taskId).then().statusCode(200).extract().header("ETag");
+
+        CountDownLatch updated = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> winner = CompletableFuture.runAsync(() -> QuarkusTransaction.requiringNew().run(() -> {
+            maintenanceTaskService.updateTaskStatus(taskId, TaskStatus.IN_PROGRESS, null);
+            updated.countDown();
+            try {
+                commit.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(updated.await(10, TimeUnit.SECONDS));
+            // the loser reads the committed version, then waits for the winner's row lock at its flush
+            CompletableFuture<ExtractableResponse<Response>> loser = CompletableFuture.supplyAsync(
+                    () -> updateStatus(taskId, ifMatch ? etag : null, TaskStatus.COMPLETED).then().extract());
+            awaitBlockedSession();
+            commit.countDown();
+            winner.get(10, TimeUnit.SECONDS);
+            return loser.get(10, TimeUnit.SECONDS);
+        } finally {
+            commit.countDown();
+        }
+    }
+
+    private void awaitBlockedSession() throws SQLException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            while (System.nanoTime() < deadline) {
+                try (ResultSet blocked = statement.executeQuery(
+                        "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL")) {
+                    blocked.next();
+                    if (blocked.getInt(1) > 0) {
+                        return;
+                    }
+                }
+                Thread.sleep(10);
+            }
+        }
+        fail("The racing update never waited for the row lock");
+    }
+
+    private static Response updateStatus(String taskId, String ifMatch, TaskStatus status) {
+        var request = given().contentType(ContentType.JSON).body(Map.of("status", status));
+        if (ifMatch != null) {
+            request.header("If-Match", ifMatch);
+        }
+        return request.when().put(TASKS + "/" + taskId + "/status");
+    }
+
+    private static String createTask() {
+        return given().contentType(ContentType.JSON).body(Map.of("vin", "WBA3B5C50DF900003", "type", "OIL_CHANGE"))
+                .when().post(TASKS)
+                .then().statusCode(201)
+                .extract().asString();
+    }
+}
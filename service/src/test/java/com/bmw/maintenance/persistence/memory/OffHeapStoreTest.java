@@ -0,0 +1,117 @@
+package com.bmw.maintenance.persistence.memory;
+
+import com.bmw.maintenance.persistence.store.VersionedRecordStore.Record;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reads and writes of an {@link OffHeapStore}, including lock-free reads racing writers.
+ */
+class OffHeapStoreTest {
+
+    private static final int KEYS = 16;
+    private static final int UPDATES_PER_KEY = 5_000;
+
+    @Test
+    void optimisticReadsNeverSeeAHalfWrittenRecord() throws Exception {
+        // small chunks and two stripes, so slots move, get reused across keys and new chunks are added
+        OffHeapStore store = new OffHeapStore(new OffHeapStore.Settings(4096, 2), new SimpleMeterRegistry());
+        store.insertAll(LongStream.rangeClosed(1, KEYS).mapToObj(key -> record(key, 0)).toList());
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                long firstKey = 1 + writer * (KEYS / 4);
+                writers.add(threads.submit(() -> {
+                    for (int update = 0; update < UPDATES_PER_KEY; update++) {
+                        for (long key = firstKey; key < firstKey + KEYS / 4; key++) {
+                            store.update(key, current -> record(current.key(), current.version() + 1));
+                        }
+                    }
+                }));
+            }
+            List<Future<Long>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 4; reader++) {
+                readers.add(threads.submit(() -> {
+                    long reads = 0;
+                    while (writing.get()) {
+                        Record record = store.read(ThreadLocalRandom.current().nextLong(1, KEYS + 1));
+                        assertArrayEquals(value(record.version()), record.value(),
+                                "value of key " + record.key() + " at version " + record.version());
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            for (Future<Long> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            writing.set(false);
+            threads.shutdownNow();
+        }
+
+        for (long key = 1; key <= KEYS; key++) {
+            assertEquals(UPDATES_PER_KEY, store.read(key).version());
+        }
+        assertEquals(KEYS, store.size());
+    }
+
+    @Test
+    void rejectsAKeyThatIsAlreadyStored() {
+        OffHeapStore store = new OffHeapStore(new OffHeapStore.Settings(4096, 1), new SimpleMeterRegistry());
+        store.insertAll(List.of(record(1, 0)));
+
+        assertThrows(IllegalStateException.class, () -> store.insertAll(List.of(record(2, 0), record(1, 0))));
+
+        // the records before the duplicate stay stored
+        assertEquals(2, store.size());
+        assertEquals(0, store.read(1).version());
+        assertArrayEquals(value(0), store.read(2).value());
+    }
+
+    @Test
+    void walksKeysInOrderSkippingGaps() {
+        OffHeapStore store = new OffHeapStore(new OffHeapStore.Settings(4096, 4), new SimpleMeterRegistry());
+        store.insertAll(List.of(record(5, 0), record(2, 0), record(9, 0)));
+        store.update(2, current -> record(2, current.version() + 1));
+
+        assertEquals(9, store.lastKey());
+        assertNull(store.read(3));
+        assertEquals(List.of(5L, 9L), store.records(2).map(Record::key).toList());
+        assertEquals(List.of(1L, 0L, 0L), store.records(0).map(Record::version).toList());
+    }
+
+    private static Record record(long key, long version) {
+        return new Record(key, version, value(version));
+    }
+
+    /** Bytes that tell their version, in lengths crossing several slot sizes. */
+    private static byte[] value(long version) {
+        byte[] value = new byte[(int) (version * 37 % 300)];
+        Arrays.fill(value, (byte) version);
+        return value;
+    }
+}
@@ -0,0 +1,134 @@
+package com.bmw.maintenance.persistence.segment;
+
+import com.bmw.maintenance.persistence.store.VersionedRecordStore.Record;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recovery of a {@link SegmentLog} from the files a crash leaves behind.
+ */
+class SegmentLogTest {
+
+    /** Segment header and record header as laid out by {@link SegmentLog}. */
+    private static final int SEGMENT_HEADER = 16;
+    private static final int RECORD_HEADER = 24;
+    private static final int VALUE_LENGTH = 40;
+    /** Room for three records of {@link #VALUE_LENGTH} bytes. */
+    private static final int SEGMENT_SIZE = SEGMENT_HEADER + 3 * (RECORD_HEADER + VALUE_LENGTH) + 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void dropsATornRecordAndAppendsOverIt() throws IOException {
+        try (SegmentLog log = open()) {
+            log.insertAll(List.of(record(1, 0, "first"), record(2, 0, "second")));
+        }
+        // a write cut short by a crash: the header promises more bytes than reached the file
+        int end = SEGMENT_HEADER + 2 * (RECORD_HEADER + VALUE_LENGTH);
+        ByteBuffer torn = ByteBuffer.allocate(RECORD_HEADER + 40)
+                .putInt(RECORD_HEADER + VALUE_LENGTH)
+                .putInt(0x5EED)
+                .putLong(3)
+                .putLong(0);
+        Arrays.fill(torn.array(), RECORD_HEADER, torn.capacity(), (byte) 0x7F);
+        try (FileChannel channel = FileChannel.open(segmentFile(1), StandardOpenOption.WRITE)) {
+            channel.write(torn.clear(), end);
+        }
+
+        try (SegmentLog log = open()) {
+            assertEquals(2, log.size());
+            assertEquals(2, log.lastKey());
+            assertNull(log.read(3));
+            assertEquals("second", text(log.read(2)));
+            log.insertAll(List.of(new Record(3, 0, "third".getBytes(StandardCharsets.UTF_8))));
+        }
+
+        try (SegmentLog log = open()) {
+            assertEquals(3, log.size());
+            assertEquals("first", text(log.read(1)));
+            assertEquals("third", text(log.read(3)));
+        }
+        // the shorter record written over the torn one is not followed by its leftovers
+        try (FileChannel channel = FileChannel.open(segmentFile(1), StandardOpenOption.READ)) {
+            ByteBuffer next = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(next, end + RECORD_HEADER + "third".length());
+            assertEquals(0, next.flip().getInt());
+        }
+    }
+
+    @Test
+    void recoversFromACrashBetweenCompactionCopyAndDelete() throws IOException {
+        byte[] compacted;
+        try (SegmentLog log = open()) {
+            log.insertAll(List.of(record(1, 0, "one"), record(2, 0, "two"), record(3, 0, "three")));
+            // keys 1 and 2 move on to segment 2, leaving only key 3 live in segment 1
+            log.update(1, current -> record(1, current.version() + 1, "one again"));
+            log.update(2, current -> record(2, current.version() + 1, "two again"));
+            compacted = Files.readAllBytes(segmentFile(1));
+
+            log.compact();
+            assertFalse(Files.exists(segmentFile(1)));
+        }
+        // the copies of segment 1 reached segment 2 but the crash came before segment 1 was deleted
+        Files.write(segmentFile(1), compacted);
+
+        try (SegmentLog log = open()) {
+            assertEquals(3, log.size());
+            assertEquals(new Version(1, "one again"), version(log.read(1)));
+            assertEquals(new Version(1, "two again"), version(log.read(2)));
+            assertEquals(new Version(0, "three"), version(log.read(3)));
+            // every record of segment 1 has a copy or a newer version, so it is dropped again
+            assertFalse(Files.exists(segmentFile(1)));
+            log.update(3, current -> record(3, current.version() + 1, "three again"));
+        }
+
+        try (SegmentLog log = open()) {
+            assertEquals(new Version(1, "three again"), version(log.read(3)));
+            assertTrue(Files.exists(segmentFile(2)));
+        }
+    }
+
+    private SegmentLog open() throws IOException {
+        // compaction only runs when a test asks for it
+        return SegmentLog.open(new SegmentLog.Settings(directory, SEGMENT_SIZE, Duration.ofHours(1), 0.5),
+                new SimpleMeterRegistry());
+    }
+
+    private Path segmentFile(int id) {
+        return directory.resolve(String.format("segment-%010d.log", id));
+    }
+
+    /** A record with its text padded to {@link #VALUE_LENGTH} bytes, so the segment layout is known. */
+    private static Record record(long key, long version, String text) {
+        byte[] value = Arrays.copyOf(text.getBytes(StandardCharsets.UTF_8), VALUE_LENGTH);
+        return new Record(key, version, value);
+    }
+
+    private static String text(Record record) {
+        return new String(record.value(), StandardCharsets.UTF_8).replace("\0", "");
+    }
+
+    private static Version version(Record record) {
+        return new Version(record.version(), text(record));
+    }
+
+    private record Version(long version, String text) {}
+}